@@ -0,0 +1,133 @@
+package com.jmirving.prodata.download.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.jmirving.prodata.download.export.ArrowExporter;
+import com.jmirving.prodata.download.export.ExportResult;
+import com.jmirving.prodata.download.ingest.CsvRowCounter;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.DownloadManifest;
+import com.jmirving.prodata.download.publish.ManifestWriter;
+import com.jmirving.prodata.download.validate.CsvBodyValidator;
+import com.jmirving.prodata.download.validate.CsvHeaderValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-file work after a year CSV lands on disk, on synthetic Oracle's Elixir-shaped files: the
+ * re-read manifest path against the single streaming scan, row counting, and the Arrow export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Arrow's memory module reads java.nio buffer addresses reflectively, also when run from the jmh jar.
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class IngestPathBenchmark {
+    @Param({"10", "100", "500"})
+    public int sizeMb;
+
+    private final CsvHeaderValidator validator = new CsvHeaderValidator();
+    private final ManifestWriter manifestWriter = new ManifestWriter();
+    private final AtomicFilePublisher publisher = new AtomicFilePublisher();
+    private final ArrowExporter arrowExporter = new ArrowExporter();
+    private final CsvBodyValidator bodyValidator = new CsvBodyValidator();
+    private Path csv;
+    private Path workDirectory;
+    private Path publishA;
+    private Path publishB;
+    private boolean publishedToB;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csv = OraclesElixirCsvFixture.ofSize(sizeMb);
+        workDirectory = Files.createTempDirectory(csv.getParent(), "publish-");
+        publishA = workDirectory.resolve("staging").resolve("year.csv");
+        publishB = workDirectory.resolve("published").resolve("year.csv");
+        Files.createDirectories(publishA.getParent());
+        Files.copy(csv, publishA);
+        publishedToB = false;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Path validateHeader() throws IOException {
+        validator.validate(csv);
+        return csv;
+    }
+
+    @Benchmark
+    public DownloadManifest manifestFromDisk() throws IOException {
+        return manifestWriter.buildManifest(csv, "https://example.invalid/folder");
+    }
+
+    @Benchmark
+    public long rowCountReadLine() throws IOException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv)) {
+            while (reader.readLine() != null) {
+                count++;
+            }
+        }
+        return Math.max(0, count - 1);
+    }
+
+    @Benchmark
+    public long rowCountMapped() throws IOException {
+        return CsvRowCounter.countRows(csv);
+    }
+
+    @Benchmark
+    public IngestResult streamingScan() throws IOException {
+        return StreamingIngest.scan(csv);
+    }
+
+    @Benchmark
+    public long fullValidation() throws IOException {
+        return bodyValidator.validate(csv);
+    }
+
+    @Benchmark
+    public ExportResult arrowExport() throws IOException {
+        return arrowExporter.export(csv, workDirectory.resolve("year.arrow"));
+    }
+
+    @Benchmark
+    public Path publish() throws IOException {
+        if (publishedToB) {
+            publisher.publish(publishB, publishA);
+        } else {
+            publisher.publish(publishA, publishB);
+        }
+        publishedToB = !publishedToB;
+        return publishedToB ? publishB : publishA;
+    }
+}
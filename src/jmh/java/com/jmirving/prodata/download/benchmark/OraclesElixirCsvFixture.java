@@ -0,0 +1,165 @@
+package com.jmirving.prodata.download.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic CSVs shaped like the Oracle's Elixir year files: the real header, twelve
+ * rows per game (ten players plus two team rows), mostly numeric columns and the occasional quoted
+ * field. Files are generated once per size under {@code java.io.tmpdir/prodata-jmh} and reused.
+ */
+public final class OraclesElixirCsvFixture {
+    public static final List<String> COLUMNS = List.of(
+            "gameid", "datacompleteness", "url", "league", "year", "split", "playoffs", "date", "game", "patch",
+            "participantid", "side", "position", "playername", "playerid", "teamname", "teamid", "champion",
+            "ban1", "ban2", "ban3", "ban4", "ban5", "pick1", "pick2", "pick3", "pick4", "pick5",
+            "gamelength", "result", "kills", "deaths", "assists", "teamkills", "teamdeaths", "doublekills",
+            "triplekills", "quadrakills", "pentakills", "firstblood", "firstbloodkill", "firstbloodassist",
+            "firstbloodvictim", "team kpm", "ckpm", "firstdragon", "dragons", "opp_dragons", "elementaldrakes",
+            "opp_elementaldrakes", "infernals", "mountains", "clouds", "oceans", "chemtechs", "hextechs",
+            "dragons (type unknown)", "elders", "opp_elders", "firstherald", "heralds", "opp_heralds",
+            "void_grubs", "opp_void_grubs", "firstbaron", "barons", "opp_barons", "firsttower", "towers",
+            "opp_towers", "firstmidtower", "firsttothreetowers", "turretplates", "opp_turretplates",
+            "inhibitors", "opp_inhibitors", "damagetochampions", "dpm", "damageshare",
+            "damagetakenperminute", "damagemitigatedperminute", "wardsplaced", "wpm", "wardskilled", "wcpm",
+            "controlwardsbought", "visionscore", "vspm", "totalgold", "earnedgold", "earned gpm",
+            "earnedgoldshare", "goldspent", "gspd", "gpr", "total cs", "minionkills", "monsterkills",
+            "monsterkillsownjungle", "monsterkillsenemyjungle", "cspm", "goldat10", "xpat10", "csat10",
+            "opp_goldat10", "opp_xpat10", "opp_csat10", "golddiffat10", "xpdiffat10", "csdiffat10",
+            "killsat10", "assistsat10", "deathsat10", "opp_killsat10", "opp_assistsat10", "opp_deathsat10",
+            "goldat15", "xpat15", "csat15", "opp_goldat15", "opp_xpat15", "opp_csat15", "golddiffat15",
+            "xpdiffat15", "csdiffat15", "killsat15", "assistsat15", "deathsat15", "opp_killsat15",
+            "opp_assistsat15", "opp_deathsat15", "goldat20", "xpat20", "csat20", "opp_goldat20",
+            "opp_xpat20", "opp_csat20", "golddiffat20", "xpdiffat20", "csdiffat20", "killsat20",
+            "assistsat20", "deathsat20", "opp_killsat20", "opp_assistsat20", "opp_deathsat20", "goldat25",
+            "xpat25", "csat25", "opp_goldat25", "opp_xpat25", "opp_csat25", "golddiffat25", "xpdiffat25",
+            "csdiffat25", "killsat25", "assistsat25", "deathsat25", "opp_killsat25", "opp_assistsat25",
+            "opp_deathsat25"
+    );
+
+    private static final String[] LEAGUES = {"LCK", "LPL", "LEC", "LCS", "PCS", "VCS", "CBLOL", "LJL", "EM", "LFL"};
+    private static final String[] POSITIONS = {"top", "jng", "mid", "bot", "sup"};
+    private static final String[] CHAMPIONS = {
+            "Aatrox", "Ahri", "Azir", "Bard", "Jayce", "K'Sante", "Kai'Sa", "LeBlanc", "Lee Sin", "Maokai",
+            "Nautilus", "Orianna", "Rell", "Renekton", "Sejuani", "Varus", "Vi", "Xayah", "Zeri", "Rakan"
+    };
+    private static final int FIXED_COLUMNS = 28;
+
+    private OraclesElixirCsvFixture() {
+    }
+
+    public static Path ofSize(int megabytes) throws IOException {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "prodata-jmh");
+        Files.createDirectories(directory);
+        Path file = directory.resolve("oracles-elixir-" + megabytes + "mb.csv");
+        long targetBytes = megabytes * 1024L * 1024L;
+        if (Files.exists(file) && Files.size(file) >= targetBytes) {
+            return file;
+        }
+        Path temp = Files.createTempFile(directory, "oracles-elixir-", ".tmp");
+        try {
+            write(temp, targetBytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return file;
+    }
+
+    public static Path ofSizeUnchecked(int megabytes) {
+        try {
+            return ofSize(megabytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(Path file, long targetBytes) throws IOException {
+        Random random = new Random(seedFor(targetBytes));
+        long written;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String header = String.join(",", COLUMNS);
+            writer.write(header);
+            writer.write('\n');
+            written = header.length() + 1L;
+            StringBuilder row = new StringBuilder(2048);
+            for (long game = 0; written < targetBytes; game++) {
+                String league = LEAGUES[(int) (game % LEAGUES.length)];
+                String gameId = "ESPORTSTMNT0" + (game % 10) + "_" + (3_000_000 + game);
+                String[] picks = new String[10];
+                for (int i = 0; i < picks.length; i++) {
+                    picks[i] = CHAMPIONS[random.nextInt(CHAMPIONS.length)];
+                }
+                for (int participant = 1; participant <= 12; participant++) {
+                    row.setLength(0);
+                    appendRow(row, random, game, gameId, league, participant, picks);
+                    writer.append(row);
+                    written += row.length();
+                }
+            }
+        }
+    }
+
+    private static void appendRow(StringBuilder row, Random random, long game, String gameId, String league,
+            int participant, String[] picks) {
+        boolean team = participant > 10;
+        String side = participant <= 5 || participant == 11 ? "Blue" : "Red";
+        int pickBase = side.equals("Blue") ? 0 : 5;
+        row.append(gameId).append(",complete,,").append(league).append(",2025,Spring,")
+                .append(game % 7 == 0 ? 1 : 0).append(",2025-03-")
+                .append(String.format("%02d", 1 + game % 28)).append(" 09:")
+                .append(String.format("%02d", game % 60)).append(":00,")
+                .append(1 + game % 3).append(",15.05,").append(participant).append(',').append(side).append(',')
+                .append(team ? "team" : POSITIONS[(participant - 1) % 5]).append(',');
+        if (team) {
+            row.append(",,");
+        } else {
+            row.append("Player").append(game % 500).append(participant).append(",oe:player:")
+                    .append(Long.toHexString(game * 31 + participant)).append(',');
+        }
+        row.append("Team ").append(side).append(' ').append(game % 40).append(",oe:team:")
+                .append(Long.toHexString(game % 40 + (side.equals("Blue") ? 0 : 1000))).append(',');
+        appendChampion(row, team ? "" : picks[(participant - 1) % 10]);
+        for (int ban = 0; ban < 5; ban++) {
+            row.append(',');
+            appendChampion(row, CHAMPIONS[random.nextInt(CHAMPIONS.length)]);
+        }
+        for (int pick = 0; pick < 5; pick++) {
+            row.append(',');
+            appendChampion(row, team ? picks[pickBase + pick] : "");
+        }
+        for (int column = FIXED_COLUMNS; column < COLUMNS.size(); column++) {
+            row.append(',');
+            int kind = column % 4;
+            if (kind == 0) {
+                row.append(random.nextInt(20));
+            } else if (kind == 1) {
+                row.append(random.nextInt(25_000));
+            } else if (kind == 2) {
+                row.append(random.nextInt(1000) / 100.0);
+            } else if (random.nextInt(8) != 0) {
+                row.append(random.nextInt(400) - 200);
+            }
+        }
+        row.append('\n');
+    }
+
+    private static void appendChampion(StringBuilder row, String champion) {
+        if (champion.indexOf('\'') >= 0 || champion.indexOf(' ') >= 0) {
+            row.append('"').append(champion).append('"');
+        } else {
+            row.append(champion);
+        }
+    }
+
+    private static long seedFor(long targetBytes) {
+        return 0x5EEDL ^ targetBytes;
+    }
+}
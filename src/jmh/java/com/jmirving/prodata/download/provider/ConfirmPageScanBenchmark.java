@@ -0,0 +1,73 @@
+package com.jmirving.prodata.download.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the original read-everything-then-regex handling of the Drive confirmation page
+ * ({@link RegexConfirmPage}) with {@link ConfirmPageScanner}. Run with {@code gradle jmh}; the {@code gc} profiler reports
+ * allocation per operation alongside latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfirmPageScanBenchmark {
+    @Param({"4096", "262144"})
+    public int trailingBytes;
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        String form = "<html><head><title>Google Drive - Virus scan warning</title></head><body>"
+                + "<p>Google Drive can't scan this file for viruses.</p>"
+                + "<form id=\"download-form\" action=\"https://drive.usercontent.google.com/download\" method=\"get\">"
+                + "<input type=\"submit\" id=\"uc-download-link\" value=\"Download anyway\"/>"
+                + "<input type=\"hidden\" name=\"id\" value=\"1AbCdEfGhIjKlMnOpQrStUvWxYz\">"
+                + "<input type=\"hidden\" name=\"export\" value=\"download\">"
+                + "<input type=\"hidden\" name=\"confirm\" value=\"t\">"
+                + "<input type=\"hidden\" name=\"uuid\" value=\"0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0\">"
+                + "</form>";
+        StringBuilder html = new StringBuilder(form);
+        while (html.length() < form.length() + trailingBytes) {
+            html.append("<script nonce=\"abc\">var a=[1,2,3,4,5,6,7,8,9,10];function f(x){return x*2;}</script>");
+        }
+        html.append("</body></html>");
+        page = html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readAllAndRegex() throws IOException {
+        String body;
+        try (InputStream inputStream = new ByteArrayInputStream(page)) {
+            body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        GoogleDriveDownloadProvider.DownloadForm form = RegexConfirmPage.extractDownloadForm(body);
+        return form != null ? form : RegexConfirmPage.extractConfirmToken(body);
+    }
+
+    @Benchmark
+    public Object streamingScan() throws IOException {
+        try (InputStream inputStream = new ByteArrayInputStream(page)) {
+            return ConfirmPageScanner.scan(inputStream, GoogleDriveDownloadProvider.CONFIRM_PAGE_MAX_BYTES);
+        }
+    }
+}
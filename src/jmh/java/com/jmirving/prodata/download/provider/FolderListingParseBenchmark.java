@@ -0,0 +1,80 @@
+package com.jmirving.prodata.download.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the previous decode-then-regex listing parser with {@link GoogleDriveFolderParser} on a
+ * ~600 KB listing page shaped like the Oracle's Elixir folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FolderListingParseBenchmark {
+    private static final Pattern LEGACY_CSV_FILE_PATTERN = Pattern.compile(
+            "\\[\\[null,\\\"([A-Za-z0-9_-]{6,})\\\"\\],null,null,null,\\\"text/csv\\\".*?\\\"(\\d{4}_LoL_esports_match_data_from_OraclesElixir\\.csv)\\\"",
+            Pattern.DOTALL
+    );
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>Oracle's Elixir - Google Drive</title>");
+        while (html.length() < 400_000) {
+            html.append("<script nonce=\"n\">window.WIZ_global_data = {&quot;x&quot;:&quot;a&amp;b&quot;,")
+                    .append("&quot;y&quot;:[null,1,2,&quot;z&quot;]};function f(a,b){return a&&b;}</script>");
+        }
+        html.append("<script>window['_DRIVE_ivd'] = '[[");
+        for (int year = 2014; year <= 2026; year++) {
+            html.append("[[null,&quot;1").append(Integer.toHexString(year * 7919)).append("AbCdEfGhIjKlMn&quot;],null,null,null,")
+                    .append("&quot;text/csv&quot;,null,null,null,null,null,null,true,null,null,null,[[2]],null,null,null,")
+                    .append("[[[&quot;&quot;],[null,[&quot;text/csv&quot;]],null,null,null,&quot;CSV&quot;],null,")
+                    .append("[[16,null,[null,[[[&quot;").append(year)
+                    .append("_LoL_esports_match_data_from_OraclesElixir.csv&quot;,null,true]]]]]]]],");
+            for (int padding = 0; padding < 60; padding++) {
+                html.append("[null,&quot;thumbnail&quot;,&quot;https://lh3.googleusercontent.com/abc&amp;sz=w200&quot;,")
+                        .append(padding).append("],");
+            }
+        }
+        html.append("]]';</script></body></html>");
+        page = html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<RemoteFile> legacyStringAndRegex() {
+        String html = new String(page, StandardCharsets.UTF_8);
+        String normalized = html.replace("&quot;", "\"").replace("&amp;", "&");
+        List<RemoteFile> files = new ArrayList<>();
+        Matcher matcher = LEGACY_CSV_FILE_PATTERN.matcher(normalized);
+        while (matcher.find()) {
+            files.add(new RemoteFile(matcher.group(1), matcher.group(2)));
+        }
+        return files;
+    }
+
+    @Benchmark
+    public List<RemoteFile> streaming() throws IOException {
+        return GoogleDriveFolderParser.parse(new ByteArrayInputStream(page));
+    }
+}
@@ -0,0 +1,55 @@
+package com.jmirving.prodata.download.provider;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.jmirving.prodata.download.provider.GoogleDriveDownloadProvider.DownloadForm;
+
+/**
+ * The original regex handling of the Drive confirmation page, kept as the baseline for
+ * {@link ConfirmPageScanBenchmark}. The provider uses {@link ConfirmPageScanner}.
+ */
+final class RegexConfirmPage {
+    private static final Pattern CONFIRM_TOKEN_PATTERN = Pattern.compile("confirm=([0-9A-Za-z_-]+)");
+    private static final Pattern CONFIRM_INPUT_PATTERN =
+            Pattern.compile("name=\\\"confirm\\\"\\s+value=\\\"([0-9A-Za-z_-]+)\\\"");
+    private static final Pattern FORM_PATTERN =
+            Pattern.compile("<form[^>]+action=\\\"([^\\\"]+)\\\"[^>]*>(.*?)</form>", Pattern.DOTALL);
+    private static final Pattern INPUT_PATTERN =
+            Pattern.compile("name=\\\"([^\\\"]+)\\\"\\s+value=\\\"([^\\\"]*)\\\"");
+
+    private RegexConfirmPage() {
+    }
+
+    static String extractConfirmToken(String body) {
+        Matcher matcher = CONFIRM_TOKEN_PATTERN.matcher(body);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        Matcher inputMatcher = CONFIRM_INPUT_PATTERN.matcher(body);
+        if (inputMatcher.find()) {
+            return inputMatcher.group(1);
+        }
+        return null;
+    }
+
+    static DownloadForm extractDownloadForm(String body) {
+        Matcher formMatcher = FORM_PATTERN.matcher(body);
+        if (!formMatcher.find()) {
+            return null;
+        }
+        String action = formMatcher.group(1);
+        String formBody = formMatcher.group(2);
+        Map<String, String> params = new LinkedHashMap<>();
+        Matcher inputMatcher = INPUT_PATTERN.matcher(formBody);
+        while (inputMatcher.find()) {
+            params.put(inputMatcher.group(1), inputMatcher.group(2));
+        }
+        if (params.isEmpty()) {
+            return null;
+        }
+        return new DownloadForm(action, params);
+    }
+}
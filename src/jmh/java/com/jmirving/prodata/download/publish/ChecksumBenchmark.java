@@ -0,0 +1,54 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.download.benchmark.OraclesElixirCsvFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-file checksum cost for each {@link ChecksumAlgorithm} on the synthetic year CSVs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumBenchmark {
+    @Param({"10", "100", "500"})
+    public int sizeMb;
+
+    private Path csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        csv = OraclesElixirCsvFixture.ofSize(sizeMb);
+    }
+
+    @Benchmark
+    public String sha256() throws IOException {
+        return FileChecksums.compute(ChecksumAlgorithm.SHA256, csv, ManifestWriter.DEFAULT_CHECKSUM_CHUNK_SIZE);
+    }
+
+    @Benchmark
+    public String sha256Tree() throws IOException {
+        return FileChecksums.compute(ChecksumAlgorithm.SHA256_TREE, csv, ManifestWriter.DEFAULT_CHECKSUM_CHUNK_SIZE);
+    }
+
+    @Benchmark
+    public String xxHash64() throws IOException {
+        return FileChecksums.compute(ChecksumAlgorithm.XXHASH64, csv, ManifestWriter.DEFAULT_CHECKSUM_CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of publishing a CSV and its sidecars under each {@link DurabilityPolicy}, as one group and
+ * with a group per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PublishDurabilityBenchmark {
+    @Param({"NONE", "FILE", "FILE_AND_DIRECTORY"})
+    public DurabilityPolicy policy;
+
+    @Param({"16"})
+    public int csvMb;
+
+    @Param({"12"})
+    public int sidecars;
+
+    private AtomicFilePublisher publisher;
+    private Path workDirectory;
+    private Path staging;
+    private Path published;
+    private byte[] csvBytes;
+    private byte[] sidecarBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        publisher = new AtomicFilePublisher(policy);
+        workDirectory = Files.createTempDirectory("publish-durability-");
+        staging = Files.createDirectories(workDirectory.resolve("staging"));
+        published = Files.createDirectories(workDirectory.resolve("published"));
+        csvBytes = new byte[csvMb * 1024 * 1024];
+        for (int i = 0; i < csvBytes.length; i++) {
+            csvBytes[i] = (byte) ('a' + i % 26);
+        }
+        sidecarBytes = new byte[4096];
+    }
+
+    @Setup(Level.Invocation)
+    public void writeTempFiles() throws IOException {
+        Files.write(staging.resolve("year.csv"), csvBytes);
+        for (int i = 0; i < sidecars; i++) {
+            Files.write(staging.resolve("year.csv.sidecar" + i), sidecarBytes);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void publishGroup() throws IOException {
+        try (PublishGroup group = publisher.openGroup()) {
+            publisher.publish(staging.resolve("year.csv"), published.resolve("year.csv"), group);
+            for (int i = 0; i < sidecars; i++) {
+                String name = "year.csv.sidecar" + i;
+                publisher.publish(staging.resolve(name), published.resolve(name), group);
+            }
+        }
+    }
+
+    @Benchmark
+    public void publishEachFile() throws IOException {
+        publisher.publish(staging.resolve("year.csv"), published.resolve("year.csv"));
+        for (int i = 0; i < sidecars; i++) {
+            String name = "year.csv.sidecar" + i;
+            publisher.publish(staging.resolve(name), published.resolve(name));
+        }
+    }
+}
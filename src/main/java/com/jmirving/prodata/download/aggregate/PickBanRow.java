@@ -0,0 +1,4 @@
+package com.jmirving.prodata.download.aggregate;
+
+public record PickBanRow(String league, String patch, String champion, long games, long picks, long bans) {
+}
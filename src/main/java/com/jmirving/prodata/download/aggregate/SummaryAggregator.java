@@ -0,0 +1,279 @@
+package com.jmirving.prodata.download.aggregate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.diff.LongLongHashMap;
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Computes pick/ban and team summary tables in one streaming pass over a year CSV.
+ */
+public class SummaryAggregator {
+    public static final String PICK_BAN_SUFFIX = ".pickban.json";
+    public static final String TEAMS_SUFFIX = ".teams.json";
+    private static final String[] PICK_COLUMNS = {"pick1", "pick2", "pick3", "pick4", "pick5"};
+    private static final String[] BAN_COLUMNS = {"ban1", "ban2", "ban3", "ban4", "ban5"};
+    private static final byte[] BLUE_TEAM = {'1', '0', '0'};
+    private static final byte[] RED_TEAM = {'2', '0', '0'};
+    // Per-team counters, STATS longs per team: games, then the offsets below.
+    private static final int WINS = 1;
+    private static final int BLUE_SIDE = 2;
+    private static final int KILLS = 3;
+    private static final int DEATHS = 4;
+    private static final int GAME_LENGTH = 5;
+    private static final int STATS = 6;
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public SummaryAggregator() {
+        this(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
+    }
+
+    public SummaryAggregator(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public static Path pickBanPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + PICK_BAN_SUFFIX);
+    }
+
+    public static Path teamsPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + TEAMS_SUFFIX);
+    }
+
+    public SummaryTables aggregate(Path csvPath, String source) throws IOException {
+        Aggregation aggregation = new Aggregation();
+        Columns[] columns = new Columns[1];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                columns[0] = new Columns(csvPath, record, length);
+                return;
+            }
+            aggregation.row(columns[0], record, length);
+        });
+        if (columns[0] == null) {
+            throw new IOException("CSV " + csvPath + " has no header");
+        }
+        return aggregation.tables(Instant.now(clock), source);
+    }
+
+    public void write(SummaryTables tables, Path pickBanPath, Path teamsPath) throws IOException {
+        objectMapper.writeValue(pickBanPath.toFile(),
+                new SummaryFile<>(tables.generatedAt(), tables.source(), tables.pickBans()));
+        objectMapper.writeValue(teamsPath.toFile(),
+                new SummaryFile<>(tables.generatedAt(), tables.source(), tables.teams()));
+    }
+
+    private static final class Columns {
+        private final int gameid;
+        private final int league;
+        private final int patch;
+        private final int participantid;
+        private final int side;
+        private final int teamid;
+        private final int teamname;
+        private final int result;
+        private final int kills;
+        private final int deaths;
+        private final int gamelength;
+        private final int[] picks = new int[PICK_COLUMNS.length];
+        private final int[] bans = new int[BAN_COLUMNS.length];
+
+        private Columns(Path csvPath, byte[] header, int length) throws IOException {
+            gameid = require(csvPath, header, length, "gameid");
+            league = require(csvPath, header, length, "league");
+            patch = require(csvPath, header, length, "patch");
+            participantid = require(csvPath, header, length, "participantid");
+            side = require(csvPath, header, length, "side");
+            teamid = require(csvPath, header, length, "teamid");
+            teamname = CsvRecordScanner.columnIndex(header, length, "teamname");
+            result = CsvRecordScanner.columnIndex(header, length, "result");
+            kills = CsvRecordScanner.columnIndex(header, length, "kills");
+            deaths = CsvRecordScanner.columnIndex(header, length, "deaths");
+            gamelength = CsvRecordScanner.columnIndex(header, length, "gamelength");
+            for (int i = 0; i < PICK_COLUMNS.length; i++) {
+                picks[i] = require(csvPath, header, length, PICK_COLUMNS[i]);
+                bans[i] = require(csvPath, header, length, BAN_COLUMNS[i]);
+            }
+        }
+
+        private static int require(Path csvPath, byte[] header, int length, String name) throws IOException {
+            int column = CsvRecordScanner.columnIndex(header, length, name);
+            if (column < 0) {
+                throw new IOException("CSV " + csvPath + " has no " + name + " column");
+            }
+            return column;
+        }
+    }
+
+    private static final class Aggregation {
+        private final Map<String, Integer> champions = new HashMap<>();
+        private final List<String> championNames = new ArrayList<>();
+        private final Map<String, Integer> teams = new HashMap<>();
+        private final List<String> teamNames = new ArrayList<>();
+        private final Map<String, Group> groups = new LinkedHashMap<>();
+
+        void row(Columns columns, byte[] record, int length) {
+            int[] participant = CsvRecordScanner.field(record, length, columns.participantid);
+            if (participant == null || !isTeamRow(record, participant[0], participant[1])) {
+                return;
+            }
+            String league = text(record, length, columns.league);
+            String patch = text(record, length, columns.patch);
+            Group group = groups.computeIfAbsent(league + '\u0000' + patch, key -> new Group(league, patch));
+
+            // Two team rows per game, not necessarily adjacent: count the game when its gameid first
+            // appears in the group.
+            int[] gameid = CsvRecordScanner.field(record, length, columns.gameid);
+            long gameHash = gameid == null ? 0 : XxHash64.hash(record, gameid[0], gameid[1] - gameid[0]);
+            if (group.seenGames.putIfAbsent(gameHash, 0)) {
+                group.games++;
+            }
+
+            for (int column : columns.picks) {
+                String champion = text(record, length, column);
+                if (!champion.isEmpty()) {
+                    group.picks = increment(group.picks, intern(champion, champions, championNames));
+                }
+            }
+            for (int column : columns.bans) {
+                String champion = text(record, length, column);
+                if (!champion.isEmpty()) {
+                    group.bans = increment(group.bans, intern(champion, champions, championNames));
+                }
+            }
+
+            String teamid = text(record, length, columns.teamid);
+            if (teamid.isEmpty()) {
+                return;
+            }
+            int team = intern(teamid, teams, teamNames);
+            group.team(team, columns.teamname < 0 ? null : text(record, length, columns.teamname));
+            group.teamStats[team * STATS]++;
+            group.teamStats[team * STATS + WINS] += number(record, length, columns.result);
+            if ("blue".equalsIgnoreCase(text(record, length, columns.side))) {
+                group.teamStats[team * STATS + BLUE_SIDE]++;
+            }
+            group.teamStats[team * STATS + KILLS] += number(record, length, columns.kills);
+            group.teamStats[team * STATS + DEATHS] += number(record, length, columns.deaths);
+            group.teamStats[team * STATS + GAME_LENGTH] += number(record, length, columns.gamelength);
+        }
+
+        SummaryTables tables(Instant generatedAt, String source) {
+            List<Group> ordered = new ArrayList<>(groups.values());
+            ordered.sort(Comparator.comparing((Group group) -> group.league).thenComparing(group -> group.patch));
+            List<PickBanRow> pickBans = new ArrayList<>();
+            List<TeamRow> teamRows = new ArrayList<>();
+            for (Group group : ordered) {
+                List<PickBanRow> groupPickBans = new ArrayList<>();
+                for (int champion = 0; champion < championNames.size(); champion++) {
+                    long picks = champion < group.picks.length ? group.picks[champion] : 0;
+                    long bans = champion < group.bans.length ? group.bans[champion] : 0;
+                    if (picks > 0 || bans > 0) {
+                        groupPickBans.add(new PickBanRow(group.league, group.patch, championNames.get(champion),
+                                group.games, picks, bans));
+                    }
+                }
+                groupPickBans.sort(Comparator.comparing(PickBanRow::champion));
+                pickBans.addAll(groupPickBans);
+
+                List<TeamRow> groupTeams = new ArrayList<>();
+                for (int team = 0; team < group.teamNames.length; team++) {
+                    long[] stats = group.teamStats;
+                    int base = team * STATS;
+                    if (base < stats.length && stats[base] > 0) {
+                        groupTeams.add(new TeamRow(group.league, group.patch, teamNames.get(team), group.teamNames[team],
+                                stats[base], stats[base + WINS], stats[base + BLUE_SIDE], stats[base + KILLS],
+                                stats[base + DEATHS], stats[base + GAME_LENGTH]));
+                    }
+                }
+                groupTeams.sort(Comparator.comparing(TeamRow::teamid));
+                teamRows.addAll(groupTeams);
+            }
+            return new SummaryTables(generatedAt, source, pickBans, teamRows);
+        }
+
+        private static boolean isTeamRow(byte[] record, int start, int end) {
+            return Arrays.equals(record, start, end, BLUE_TEAM, 0, 3) || Arrays.equals(record, start, end, RED_TEAM, 0, 3);
+        }
+
+        private static int intern(String value, Map<String, Integer> indexes, List<String> values) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+
+        private static long[] increment(long[] counts, int index) {
+            if (index >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+            }
+            counts[index]++;
+            return counts;
+        }
+
+        private static String text(byte[] record, int length, int column) {
+            String value = CsvRecordScanner.fieldString(record, length, column);
+            return value == null ? "" : value.trim();
+        }
+
+        private static long number(byte[] record, int length, int column) {
+            if (column < 0) {
+                return 0;
+            }
+            String value = text(record, length, column);
+            if (value.isEmpty()) {
+                return 0;
+            }
+            try {
+                return Math.round(Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class Group {
+        private final String league;
+        private final String patch;
+        private final LongLongHashMap seenGames = new LongLongHashMap(64);
+        private long games;
+        private long[] picks = new long[0];
+        private long[] bans = new long[0];
+        private long[] teamStats = new long[0];
+        private String[] teamNames = new String[0];
+
+        private Group(String league, String patch) {
+            this.league = league;
+            this.patch = patch;
+        }
+
+        void team(int team, String name) {
+            if (team >= teamNames.length) {
+                int size = Math.max(team + 1, teamNames.length * 2);
+                teamNames = Arrays.copyOf(teamNames, size);
+                teamStats = Arrays.copyOf(teamStats, size * STATS);
+            }
+            if (name != null && !name.isEmpty()) {
+                teamNames[team] = name;
+            }
+        }
+    }
+}
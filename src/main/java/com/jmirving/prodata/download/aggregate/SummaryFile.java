@@ -0,0 +1,7 @@
+package com.jmirving.prodata.download.aggregate;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SummaryFile<T>(Instant generatedAt, String source, List<T> rows) {
+}
@@ -0,0 +1,7 @@
+package com.jmirving.prodata.download.aggregate;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SummaryTables(Instant generatedAt, String source, List<PickBanRow> pickBans, List<TeamRow> teams) {
+}
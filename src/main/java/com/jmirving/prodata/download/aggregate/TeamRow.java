@@ -0,0 +1,15 @@
+package com.jmirving.prodata.download.aggregate;
+
+public record TeamRow(
+        String league,
+        String patch,
+        String teamid,
+        String teamname,
+        long games,
+        long wins,
+        long blueSideGames,
+        long kills,
+        long deaths,
+        long gameLengthSeconds
+) {
+}
@@ -1,14 +1,31 @@
 package com.jmirving.prodata.download.config;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Clock;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.aggregate.SummaryAggregator;
+import com.jmirving.prodata.download.diff.ChangeFeedWriter;
+import com.jmirving.prodata.download.diff.RowDiffer;
+import com.jmirving.prodata.download.export.ArrowExporter;
+import com.jmirving.prodata.download.generation.GenerationPublisher;
+import com.jmirving.prodata.download.job.DaemonSchedule;
+import com.jmirving.prodata.download.job.DownloadDaemon;
+import com.jmirving.prodata.download.job.PartialDownloadStore;
+import com.jmirving.prodata.download.partition.CsvPartitioner;
+import com.jmirving.prodata.download.poll.AdaptivePollInterval;
+import com.jmirving.prodata.download.poll.ChangeDetector;
+import com.jmirving.prodata.download.poll.ChangePoller;
 import com.jmirving.prodata.download.job.ProDataDownloadJob;
 import com.jmirving.prodata.download.provider.DownloadProvider;
 import com.jmirving.prodata.download.provider.GoogleDriveDownloadProvider;
+import com.jmirving.prodata.download.provider.TransferWatchdog;
 import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.GameIndexWriter;
 import com.jmirving.prodata.download.publish.ManifestWriter;
 import com.jmirving.prodata.download.select.YearFileSelector;
+import com.jmirving.prodata.download.validate.CsvBodyValidator;
 import com.jmirving.prodata.download.validate.CsvHeaderValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,13 +42,25 @@ public class DownloadJobConfiguration {
         return new ObjectMapper().findAndRegisterModules();
     }
 
+    @Bean(destroyMethod = "close")
+    public TransferWatchdog transferWatchdog(ProDataDownloadProperties properties, Clock clock) {
+        return new TransferWatchdog(
+                properties.getMinThroughput().toBytes(),
+                properties.getStallWindow(),
+                clock
+        );
+    }
+
     @Bean
-    public DownloadProvider downloadProvider(ProDataDownloadProperties properties) {
+    public DownloadProvider downloadProvider(ProDataDownloadProperties properties, TransferWatchdog transferWatchdog) {
         return new GoogleDriveDownloadProvider(
                 properties.getGoogleDriveFolderUrl(),
                 properties.getUserAgent(),
                 properties.getConnectTimeout(),
-                properties.getReadTimeout()
+                properties.getReadTimeout(),
+                properties.getSegmentCount(),
+                properties.getSegmentSize().toBytes(),
+                transferWatchdog
         );
     }
 
@@ -46,13 +75,67 @@ public class DownloadJobConfiguration {
     }
 
     @Bean
-    public AtomicFilePublisher atomicFilePublisher() {
-        return new AtomicFilePublisher();
+    public CsvBodyValidator csvBodyValidator(ProDataDownloadProperties properties) {
+        return new CsvBodyValidator(properties.getValidationParallelism());
+    }
+
+    @Bean
+    public AtomicFilePublisher atomicFilePublisher(ProDataDownloadProperties properties) {
+        return new AtomicFilePublisher(properties.getPublishDurability());
+    }
+
+    @Bean
+    public ManifestWriter manifestWriter(ProDataDownloadProperties properties, ObjectMapper objectMapper, Clock clock) {
+        return new ManifestWriter(
+                objectMapper,
+                clock,
+                properties.getChecksumAlgorithm(),
+                properties.getChecksumChunkSize().toBytes(),
+                properties.getRowChunkSize() == null ? 0 : properties.getRowChunkSize().toBytes()
+        );
+    }
+
+    @Bean
+    public PartialDownloadStore partialDownloadStore(ObjectMapper objectMapper, Clock clock) {
+        return new PartialDownloadStore(objectMapper, clock);
+    }
+
+    @Bean
+    public RowDiffer rowDiffer(ObjectMapper objectMapper, Clock clock) {
+        return new RowDiffer(objectMapper, clock);
+    }
+
+    @Bean
+    public ChangeFeedWriter changeFeedWriter(ObjectMapper objectMapper, Clock clock) {
+        return new ChangeFeedWriter(objectMapper, clock);
+    }
+
+    @Bean
+    public GameIndexWriter gameIndexWriter() {
+        return new GameIndexWriter();
+    }
+
+    @Bean
+    public ArrowExporter arrowExporter() {
+        return new ArrowExporter();
+    }
+
+    @Bean
+    public CsvPartitioner csvPartitioner(ManifestWriter manifestWriter, AtomicFilePublisher atomicFilePublisher) {
+        return new CsvPartitioner(manifestWriter, atomicFilePublisher);
+    }
+
+    @Bean
+    public SummaryAggregator summaryAggregator(ObjectMapper objectMapper, Clock clock) {
+        return new SummaryAggregator(objectMapper, clock);
     }
 
     @Bean
-    public ManifestWriter manifestWriter(ObjectMapper objectMapper, Clock clock) {
-        return new ManifestWriter(objectMapper, clock);
+    public GenerationPublisher generationPublisher(
+            ProDataDownloadProperties properties,
+            AtomicFilePublisher atomicFilePublisher
+    ) {
+        return new GenerationPublisher(properties.getGenerationsToKeep(), atomicFilePublisher);
     }
 
     @Bean
@@ -62,15 +145,80 @@ public class DownloadJobConfiguration {
             YearFileSelector yearFileSelector,
             CsvHeaderValidator csvHeaderValidator,
             AtomicFilePublisher atomicFilePublisher,
-            ManifestWriter manifestWriter
+            ManifestWriter manifestWriter,
+            PartialDownloadStore partialDownloadStore,
+            RowDiffer rowDiffer,
+            ChangeFeedWriter changeFeedWriter,
+            GameIndexWriter gameIndexWriter,
+            ArrowExporter arrowExporter,
+            CsvPartitioner csvPartitioner,
+            SummaryAggregator summaryAggregator,
+            CsvBodyValidator csvBodyValidator,
+            GenerationPublisher generationPublisher
+    ) {
+        return ProDataDownloadJob.builder()
+                .properties(properties)
+                .downloadProvider(downloadProvider)
+                .yearFileSelector(yearFileSelector)
+                .csvHeaderValidator(csvHeaderValidator)
+                .filePublisher(atomicFilePublisher)
+                .manifestWriter(manifestWriter)
+                .partialDownloads(partialDownloadStore)
+                .rowDiffer(rowDiffer)
+                .changeFeedWriter(changeFeedWriter)
+                .gameIndexWriter(gameIndexWriter)
+                .arrowExporter(arrowExporter)
+                .partitioner(csvPartitioner)
+                .summaryAggregator(summaryAggregator)
+                .csvBodyValidator(csvBodyValidator)
+                .generationPublisher(generationPublisher)
+                .build();
+    }
+
+    @Bean
+    public DownloadDaemon downloadDaemon(
+            ProDataDownloadProperties properties,
+            ProDataDownloadJob proDataDownloadJob,
+            DownloadProvider downloadProvider,
+            YearFileSelector yearFileSelector,
+            ObjectMapper objectMapper,
+            Clock clock
+    ) {
+        if (properties.isDaemon() && properties.isPoll()) {
+            ChangePoller poller = changePoller(properties, downloadProvider, yearFileSelector, objectMapper, clock);
+            return new DownloadDaemon(proDataDownloadJob::run, null, poller, statusFile(properties), objectMapper, clock);
+        }
+        DaemonSchedule schedule = properties.isDaemon()
+                ? DaemonSchedule.of(properties.getCron(), properties.getInterval(), clock.getZone())
+                : null;
+        return new DownloadDaemon(proDataDownloadJob::run, schedule, statusFile(properties), objectMapper, clock);
+    }
+
+    private static ChangePoller changePoller(
+            ProDataDownloadProperties properties,
+            DownloadProvider downloadProvider,
+            YearFileSelector yearFileSelector,
+            ObjectMapper objectMapper,
+            Clock clock
     ) {
-        return new ProDataDownloadJob(
-                properties,
-                downloadProvider,
-                yearFileSelector,
-                csvHeaderValidator,
-                atomicFilePublisher,
-                manifestWriter
+        ChangeDetector detector = new ChangeDetector(downloadProvider, files -> properties.isIncludeAllYears()
+                ? yearFileSelector.select(files, yearFileSelector.availableYears(files))
+                : yearFileSelector.select(files, properties.getYears()));
+        AdaptivePollInterval interval = new AdaptivePollInterval(
+                properties.getPollMinInterval(),
+                properties.getPollMaxInterval(),
+                properties.getPollWindow(),
+                clock.getZone()
         );
+        Path stateFile = statusFile(properties).resolveSibling(ChangePoller.STATE_FILE_NAME);
+        return new ChangePoller(detector, interval, properties.getPollHistorySize(), stateFile, objectMapper, clock);
+    }
+
+    private static Path statusFile(ProDataDownloadProperties properties) {
+        if (properties.getStatusFile() != null && !properties.getStatusFile().isBlank()) {
+            return Paths.get(properties.getStatusFile());
+        }
+        String outputDir = properties.getOutputDir();
+        return Paths.get(outputDir == null || outputDir.isBlank() ? "build/prodata" : outputDir).resolve(".status.json");
     }
 }
@@ -4,7 +4,10 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.jmirving.prodata.download.publish.ChecksumAlgorithm;
+import com.jmirving.prodata.download.publish.DurabilityPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "prodata.download")
 public class ProDataDownloadProperties {
@@ -18,6 +21,42 @@ public class ProDataDownloadProperties {
     private String userAgent = "lol-pro-data-download-cron";
     private Duration connectTimeout = Duration.ofSeconds(30);
     private Duration readTimeout = Duration.ofSeconds(120);
+    private int maxConcurrentDownloads = 1;
+    private boolean skipUnchanged = false;
+    private boolean incremental = false;
+    private int incrementalFullDownloadEvery = 10;
+    private boolean resumeDownloads = false;
+    private Duration orphanTempFileMaxAge = Duration.ofHours(24);
+    private int segmentCount = 1;
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+    private DataSize minThroughput = DataSize.ofKilobytes(1);
+    private Duration stallWindow = Duration.ofMinutes(2);
+    private Duration runTimeout;
+    private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.SHA256;
+    private DataSize checksumChunkSize = DataSize.ofMegabytes(8);
+    private DataSize rowChunkSize;
+    private boolean diffEnabled = false;
+    private boolean changeFeedEnabled = false;
+    private boolean gameIndexEnabled = false;
+    private boolean arrowExportEnabled = false;
+    private boolean partitionEnabled = false;
+    private boolean summariesEnabled = false;
+    private boolean fullValidation = false;
+    private int validationParallelism = 0;
+    private boolean generationsEnabled = false;
+    private int generationsToKeep = 3;
+    private boolean contentStoreEnabled = false;
+    private Duration contentStoreRetention = Duration.ofDays(7);
+    private DurabilityPolicy publishDurability = DurabilityPolicy.NONE;
+    private boolean daemon = false;
+    private String cron;
+    private Duration interval = Duration.ofHours(6);
+    private String statusFile;
+    private boolean poll = false;
+    private Duration pollMinInterval = Duration.ofMinutes(5);
+    private Duration pollMaxInterval = Duration.ofHours(1);
+    private Duration pollWindow = Duration.ofMinutes(45);
+    private int pollHistorySize = 30;
 
     public String getGoogleDriveFolderUrl() {
         return googleDriveFolderUrl;
@@ -90,4 +129,292 @@ public class ProDataDownloadProperties {
     public void setReadTimeout(Duration readTimeout) {
         this.readTimeout = readTimeout;
     }
+
+    public int getMaxConcurrentDownloads() {
+        return maxConcurrentDownloads;
+    }
+
+    public void setMaxConcurrentDownloads(int maxConcurrentDownloads) {
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+    }
+
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getIncrementalFullDownloadEvery() {
+        return incrementalFullDownloadEvery;
+    }
+
+    public void setIncrementalFullDownloadEvery(int incrementalFullDownloadEvery) {
+        this.incrementalFullDownloadEvery = incrementalFullDownloadEvery;
+    }
+
+    public boolean isResumeDownloads() {
+        return resumeDownloads;
+    }
+
+    public void setResumeDownloads(boolean resumeDownloads) {
+        this.resumeDownloads = resumeDownloads;
+    }
+
+    public Duration getOrphanTempFileMaxAge() {
+        return orphanTempFileMaxAge;
+    }
+
+    public void setOrphanTempFileMaxAge(Duration orphanTempFileMaxAge) {
+        this.orphanTempFileMaxAge = orphanTempFileMaxAge;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public void setSegmentCount(int segmentCount) {
+        this.segmentCount = segmentCount;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public DataSize getMinThroughput() {
+        return minThroughput;
+    }
+
+    public void setMinThroughput(DataSize minThroughput) {
+        this.minThroughput = minThroughput;
+    }
+
+    public Duration getStallWindow() {
+        return stallWindow;
+    }
+
+    public void setStallWindow(Duration stallWindow) {
+        this.stallWindow = stallWindow;
+    }
+
+    public Duration getRunTimeout() {
+        return runTimeout;
+    }
+
+    public void setRunTimeout(Duration runTimeout) {
+        this.runTimeout = runTimeout;
+    }
+
+    public ChecksumAlgorithm getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    public void setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+        this.checksumAlgorithm = checksumAlgorithm;
+    }
+
+    public DataSize getChecksumChunkSize() {
+        return checksumChunkSize;
+    }
+
+    public void setChecksumChunkSize(DataSize checksumChunkSize) {
+        this.checksumChunkSize = checksumChunkSize;
+    }
+
+    public DataSize getRowChunkSize() {
+        return rowChunkSize;
+    }
+
+    public void setRowChunkSize(DataSize rowChunkSize) {
+        this.rowChunkSize = rowChunkSize;
+    }
+
+    public boolean isDiffEnabled() {
+        return diffEnabled;
+    }
+
+    public void setDiffEnabled(boolean diffEnabled) {
+        this.diffEnabled = diffEnabled;
+    }
+
+    public boolean isChangeFeedEnabled() {
+        return changeFeedEnabled;
+    }
+
+    public void setChangeFeedEnabled(boolean changeFeedEnabled) {
+        this.changeFeedEnabled = changeFeedEnabled;
+    }
+
+    public boolean isGameIndexEnabled() {
+        return gameIndexEnabled;
+    }
+
+    public void setGameIndexEnabled(boolean gameIndexEnabled) {
+        this.gameIndexEnabled = gameIndexEnabled;
+    }
+
+    public boolean isArrowExportEnabled() {
+        return arrowExportEnabled;
+    }
+
+    public void setArrowExportEnabled(boolean arrowExportEnabled) {
+        this.arrowExportEnabled = arrowExportEnabled;
+    }
+
+    public boolean isPartitionEnabled() {
+        return partitionEnabled;
+    }
+
+    public void setPartitionEnabled(boolean partitionEnabled) {
+        this.partitionEnabled = partitionEnabled;
+    }
+
+    public boolean isSummariesEnabled() {
+        return summariesEnabled;
+    }
+
+    public void setSummariesEnabled(boolean summariesEnabled) {
+        this.summariesEnabled = summariesEnabled;
+    }
+
+    public boolean isFullValidation() {
+        return fullValidation;
+    }
+
+    public void setFullValidation(boolean fullValidation) {
+        this.fullValidation = fullValidation;
+    }
+
+    public int getValidationParallelism() {
+        return validationParallelism;
+    }
+
+    public void setValidationParallelism(int validationParallelism) {
+        this.validationParallelism = validationParallelism;
+    }
+
+    public boolean isGenerationsEnabled() {
+        return generationsEnabled;
+    }
+
+    public void setGenerationsEnabled(boolean generationsEnabled) {
+        this.generationsEnabled = generationsEnabled;
+    }
+
+    public int getGenerationsToKeep() {
+        return generationsToKeep;
+    }
+
+    public void setGenerationsToKeep(int generationsToKeep) {
+        this.generationsToKeep = generationsToKeep;
+    }
+
+    public boolean isContentStoreEnabled() {
+        return contentStoreEnabled;
+    }
+
+    public void setContentStoreEnabled(boolean contentStoreEnabled) {
+        this.contentStoreEnabled = contentStoreEnabled;
+    }
+
+    public Duration getContentStoreRetention() {
+        return contentStoreRetention;
+    }
+
+    public void setContentStoreRetention(Duration contentStoreRetention) {
+        this.contentStoreRetention = contentStoreRetention;
+    }
+
+    public DurabilityPolicy getPublishDurability() {
+        return publishDurability;
+    }
+
+    public void setPublishDurability(DurabilityPolicy publishDurability) {
+        this.publishDurability = publishDurability;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    public void setDaemon(boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public String getStatusFile() {
+        return statusFile;
+    }
+
+    public void setStatusFile(String statusFile) {
+        this.statusFile = statusFile;
+    }
+
+    public boolean isPoll() {
+        return poll;
+    }
+
+    public void setPoll(boolean poll) {
+        this.poll = poll;
+    }
+
+    public Duration getPollMinInterval() {
+        return pollMinInterval;
+    }
+
+    public void setPollMinInterval(Duration pollMinInterval) {
+        this.pollMinInterval = pollMinInterval;
+    }
+
+    public Duration getPollMaxInterval() {
+        return pollMaxInterval;
+    }
+
+    public void setPollMaxInterval(Duration pollMaxInterval) {
+        this.pollMaxInterval = pollMaxInterval;
+    }
+
+    public Duration getPollWindow() {
+        return pollWindow;
+    }
+
+    public void setPollWindow(Duration pollWindow) {
+        this.pollWindow = pollWindow;
+    }
+
+    public int getPollHistorySize() {
+        return pollHistorySize;
+    }
+
+    public void setPollHistorySize(int pollHistorySize) {
+        this.pollHistorySize = pollHistorySize;
+    }
 }
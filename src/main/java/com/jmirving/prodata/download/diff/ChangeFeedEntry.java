@@ -0,0 +1,20 @@
+package com.jmirving.prodata.download.diff;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.jmirving.prodata.download.publish.ChecksumAlgorithm;
+
+public record ChangeFeedEntry(
+        long sequence,
+        Instant runStartedAt,
+        Instant publishedAt,
+        String file,
+        long rowCount,
+        long byteCount,
+        String sha256,
+        ChecksumAlgorithm checksumAlgorithm,
+        String checksum,
+        List<GameRange> newGames
+) {
+}
@@ -0,0 +1,186 @@
+package com.jmirving.prodata.download.diff;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jmirving.prodata.download.publish.DownloadManifest;
+
+/**
+ * Appends {@link ChangeFeedEntry} lines to a JSON Lines feed. The next sequence number is recovered
+ * from the last line of the existing feed, and a torn last line left by a crash is cut off before
+ * appending, so the feed stays parseable and strictly increasing.
+ */
+public class ChangeFeedWriter {
+    public static final String FEED_FILE_NAME = "changes.jsonl";
+    public static final String PENDING_SUFFIX = ".feed-pending.json";
+    private static final int TAIL_CHUNK_BYTES = 8 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    private final Clock clock;
+
+    public ChangeFeedWriter() {
+        this(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
+    }
+
+    public ChangeFeedWriter(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.clock = clock;
+    }
+
+    public static Path pendingPath(Path publishedFile) {
+        return publishedFile.resolveSibling(publishedFile.getFileName() + PENDING_SUFFIX);
+    }
+
+    public void writePending(
+            Path pendingPath,
+            Instant runStartedAt,
+            Path publishedFile,
+            DownloadManifest manifest,
+            List<GameRange> newGames
+    ) throws IOException {
+        objectMapper.writeValue(pendingPath.toFile(), entry(runStartedAt, publishedFile, manifest, newGames));
+    }
+
+    public synchronized ChangeFeedEntry appendPending(Path feedPath, Path pendingPath) throws IOException {
+        ChangeFeedEntry pending = objectMapper.readValue(pendingPath.toFile(), ChangeFeedEntry.class);
+        ChangeFeedEntry last = repairAndReadLastEntry(feedPath);
+        ChangeFeedEntry appended = isSameEntry(last, pending) ? last : appendEntry(feedPath, pending, last);
+        Files.delete(pendingPath);
+        return appended;
+    }
+
+    public synchronized List<ChangeFeedEntry> recoverPending(Path feedPath, Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Pending> pending = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + PENDING_SUFFIX)) {
+            for (Path path : entries) {
+                pending.add(new Pending(path, objectMapper.readValue(path.toFile(), ChangeFeedEntry.class)));
+            }
+        }
+        pending.sort(Comparator.comparing((Pending p) -> p.entry().publishedAt()).thenComparing(p -> p.entry().file()));
+        List<ChangeFeedEntry> appended = new ArrayList<>();
+        for (Pending p : pending) {
+            appended.add(appendPending(feedPath, p.path()));
+        }
+        return appended;
+    }
+
+    private ChangeFeedEntry entry(Instant runStartedAt, Path publishedFile, DownloadManifest manifest, List<GameRange> newGames) {
+        return new ChangeFeedEntry(
+                0,
+                runStartedAt,
+                Instant.now(clock),
+                publishedFile.getFileName().toString(),
+                manifest.rowCount(),
+                manifest.byteCount(),
+                manifest.sha256(),
+                manifest.checksumAlgorithm(),
+                manifest.checksum(),
+                newGames
+        );
+    }
+
+    private ChangeFeedEntry appendEntry(Path feedPath, ChangeFeedEntry unsequenced, ChangeFeedEntry last)
+            throws IOException {
+        ChangeFeedEntry entry = new ChangeFeedEntry(
+                last == null ? 1 : last.sequence() + 1,
+                unsequenced.runStartedAt(),
+                unsequenced.publishedAt(),
+                unsequenced.file(),
+                unsequenced.rowCount(),
+                unsequenced.byteCount(),
+                unsequenced.sha256(),
+                unsequenced.checksumAlgorithm(),
+                unsequenced.checksum(),
+                unsequenced.newGames()
+        );
+        byte[] line = (lineWriter.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        boolean created = !Files.exists(feedPath);
+        try (FileChannel channel = FileChannel.open(feedPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // The pending entry is deleted next, so the line must be on disk first.
+            channel.force(true);
+        }
+        if (created) {
+            try (FileChannel directory = FileChannel.open(feedPath.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+        }
+        return entry;
+    }
+
+    private static boolean isSameEntry(ChangeFeedEntry last, ChangeFeedEntry pending) {
+        return last != null
+                && last.file().equals(pending.file())
+                && last.runStartedAt().equals(pending.runStartedAt())
+                && last.publishedAt().equals(pending.publishedAt());
+    }
+
+    ChangeFeedEntry repairAndReadLastEntry(Path feedPath) throws IOException {
+        if (!Files.exists(feedPath)) {
+            return null;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(feedPath.toFile(), "rw")) {
+            long length = file.length();
+            if (length > 0 && readByte(file, length - 1) != '\n') {
+                length = lastNewline(file, length) + 1;
+                file.setLength(length);
+            }
+            if (length == 0) {
+                return null;
+            }
+            long lineStart = lastNewline(file, length - 1) + 1;
+            byte[] line = new byte[(int) (length - 1 - lineStart)];
+            file.seek(lineStart);
+            file.readFully(line);
+            return objectMapper.readValue(line, ChangeFeedEntry.class);
+        }
+    }
+
+    private static long lastNewline(RandomAccessFile file, long end) throws IOException {
+        byte[] chunk = new byte[TAIL_CHUNK_BYTES];
+        long position = end;
+        while (position > 0) {
+            int length = (int) Math.min(chunk.length, position);
+            position -= length;
+            file.seek(position);
+            file.readFully(chunk, 0, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (chunk[i] == '\n') {
+                    return position + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int readByte(RandomAccessFile file, long position) throws IOException {
+        file.seek(position);
+        return file.read();
+    }
+
+    private record Pending(Path path, ChangeFeedEntry entry) {
+    }
+}
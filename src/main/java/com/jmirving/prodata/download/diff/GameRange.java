@@ -0,0 +1,8 @@
+package com.jmirving.prodata.download.diff;
+
+/**
+ * Contiguous rows of one game in a published CSV. {@code firstRow} is the 1-based data row number
+ * (the header is not counted).
+ */
+public record GameRange(String gameid, long firstRow, long rowCount) {
+}
@@ -0,0 +1,98 @@
+package com.jmirving.prodata.download.diff;
+
+/**
+ * Open-addressing {@code long} to {@code long} map with a "matched" mark per slot.
+ */
+public final class LongLongHashMap {
+    private static final byte EMPTY = 0;
+    private static final byte OCCUPIED = 1;
+    private static final byte MATCHED = 2;
+
+    private long[] keys;
+    private long[] values;
+    private byte[] states;
+    private int size;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean putIfAbsent(long key, long value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        for (int slot = spread(key) & mask; ; slot = (slot + 1) & mask) {
+            if (states[slot] == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                states[slot] = OCCUPIED;
+                size++;
+                return true;
+            }
+            if (keys[slot] == key) {
+                return false;
+            }
+        }
+    }
+
+    int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = spread(key) & mask; ; slot = (slot + 1) & mask) {
+            if (states[slot] == EMPTY) {
+                return -1;
+            }
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    long valueAt(int slot) {
+        return values[slot];
+    }
+
+    boolean isMatched(int slot) {
+        return states[slot] == MATCHED;
+    }
+
+    void markMatched(int slot) {
+        states[slot] = MATCHED;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] == EMPTY) {
+                continue;
+            }
+            int slot = spread(oldKeys[i]) & mask;
+            while (states[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            states[slot] = oldStates[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        states = new byte[capacity];
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,76 @@
+package com.jmirving.prodata.download.diff;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Finds the games in a new year file whose {@code gameid} does not appear in the previously
+ * published copy, with the row ranges they occupy. The previous file contributes only 64-bit gameid
+ * hashes, and strings are built for new games alone.
+ */
+public final class NewGameScanner {
+    private static final String GAMEID_COLUMN = "gameid";
+
+    private NewGameScanner() {
+    }
+
+    public static List<GameRange> newGames(Path previous, Path current) throws IOException {
+        LongLongHashMap previousGames = new LongLongHashMap(1024);
+        if (previous != null && Files.exists(previous)) {
+            scanGameIds(previous, (gameHash, record, length, column, row) -> previousGames.putIfAbsent(gameHash, 0));
+        }
+
+        List<GameRange> ranges = new ArrayList<>();
+        long[] open = new long[3];
+        String[] openGameId = new String[1];
+        scanGameIds(current, (gameHash, record, length, column, row) -> {
+            if (previousGames.find(gameHash) >= 0) {
+                return;
+            }
+            if (openGameId[0] != null && open[0] == gameHash && open[1] + open[2] == row) {
+                open[2]++;
+                return;
+            }
+            if (openGameId[0] != null) {
+                ranges.add(new GameRange(openGameId[0], open[1], open[2]));
+            }
+            openGameId[0] = CsvRecordScanner.fieldString(record, length, column);
+            open[0] = gameHash;
+            open[1] = row;
+            open[2] = 1;
+        });
+        if (openGameId[0] != null) {
+            ranges.add(new GameRange(openGameId[0], open[1], open[2]));
+        }
+        return ranges;
+    }
+
+    private static void scanGameIds(Path csvPath, GameIdHandler handler) throws IOException {
+        int[] column = new int[1];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                column[0] = CsvRecordScanner.columnIndex(record, length, GAMEID_COLUMN);
+                if (column[0] < 0) {
+                    throw new IOException("CSV " + csvPath + " has no " + GAMEID_COLUMN + " column");
+                }
+                return;
+            }
+            int[] bounds = CsvRecordScanner.field(record, length, column[0]);
+            if (bounds == null || bounds[1] == bounds[0]) {
+                return;
+            }
+            handler.row(XxHash64.hash(record, bounds[0], bounds[1] - bounds[0]), record, length, column[0], index);
+        });
+    }
+
+    @FunctionalInterface
+    private interface GameIdHandler {
+        void row(long gameHash, byte[] record, int length, int column, long row) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jmirving.prodata.download.diff;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Row-level changes between two copies of a year file. Only the first row of a repeated key takes
+ * part in the comparison; the rest are counted in {@code duplicateKeyCount}.
+ */
+public record RowDiff(
+        Instant generatedAt,
+        List<String> keyColumns,
+        long unchangedCount,
+        long duplicateKeyCount,
+        List<RowKey> added,
+        List<RowKey> changed,
+        List<RowKey> removed
+) {
+    public boolean hasChanges() {
+        return !added.isEmpty() || !changed.isEmpty() || !removed.isEmpty();
+    }
+}
@@ -0,0 +1,121 @@
+package com.jmirving.prodata.download.diff;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Compares a new year file with the published one row by row, keyed by
+ * {@code (gameid, participantid)}. Only 64-bit hashes of the previous file are kept in memory.
+ */
+public class RowDiffer {
+    public static final List<String> KEY_COLUMNS = List.of("gameid", "participantid");
+    static final String DIFF_SUFFIX = ".diff.json";
+    private static final long KEY_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public RowDiffer() {
+        this(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
+    }
+
+    public RowDiffer(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public static Path diffPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName().toString() + DIFF_SUFFIX);
+    }
+
+    public RowDiff diff(Path previous, Path current) throws IOException {
+        LongLongHashMap previousRows = new LongLongHashMap((int) Math.min(Integer.MAX_VALUE / 4, Files.size(previous) / 256));
+        long[] duplicates = new long[1];
+        scanRows(previous, (key, rowHash, record, length, columns) -> {
+            if (!previousRows.putIfAbsent(key, rowHash)) {
+                duplicates[0]++;
+            }
+        });
+
+        List<RowKey> added = new ArrayList<>();
+        List<RowKey> changed = new ArrayList<>();
+        long[] unchanged = new long[1];
+        scanRows(current, (key, rowHash, record, length, columns) -> {
+            int slot = previousRows.find(key);
+            if (slot < 0) {
+                // Stored already matched, so a repeat of a new key counts as a duplicate like any other.
+                previousRows.putIfAbsent(key, rowHash);
+                previousRows.markMatched(previousRows.find(key));
+                added.add(rowKey(record, length, columns));
+            } else if (previousRows.isMatched(slot)) {
+                duplicates[0]++;
+            } else {
+                previousRows.markMatched(slot);
+                if (previousRows.valueAt(slot) == rowHash) {
+                    unchanged[0]++;
+                } else {
+                    changed.add(rowKey(record, length, columns));
+                }
+            }
+        });
+
+        // Keys never matched by the new file were removed; a third pass recovers their strings.
+        List<RowKey> removed = new ArrayList<>();
+        scanRows(previous, (key, rowHash, record, length, columns) -> {
+            int slot = previousRows.find(key);
+            if (!previousRows.isMatched(slot)) {
+                previousRows.markMatched(slot);
+                removed.add(rowKey(record, length, columns));
+            }
+        });
+
+        return new RowDiff(Instant.now(clock), KEY_COLUMNS, unchanged[0], duplicates[0], added, changed, removed);
+    }
+
+    public void write(RowDiff diff, Path diffPath) throws IOException {
+        objectMapper.writeValue(diffPath.toFile(), diff);
+    }
+
+    private static void scanRows(Path csvPath, RowHandler handler) throws IOException {
+        int[] columns = new int[KEY_COLUMNS.size()];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = CsvRecordScanner.columnIndex(record, length, KEY_COLUMNS.get(i));
+                    if (columns[i] < 0) {
+                        throw new IOException("CSV " + csvPath + " has no " + KEY_COLUMNS.get(i) + " column");
+                    }
+                }
+                return;
+            }
+            long key = 0;
+            for (int column : columns) {
+                int[] bounds = CsvRecordScanner.field(record, length, column);
+                long fieldHash = bounds == null ? 0 : XxHash64.hash(record, bounds[0], bounds[1] - bounds[0]);
+                key = key * KEY_MULTIPLIER + fieldHash;
+            }
+            handler.row(key, XxHash64.hash(record, 0, length), record, length, columns);
+        });
+    }
+
+    private static RowKey rowKey(byte[] record, int length, int[] columns) {
+        return new RowKey(
+                CsvRecordScanner.fieldString(record, length, columns[0]),
+                CsvRecordScanner.fieldString(record, length, columns[1])
+        );
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void row(long key, long rowHash, byte[] record, int length, int[] columns) throws IOException;
+    }
+}
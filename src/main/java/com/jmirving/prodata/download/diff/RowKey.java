@@ -0,0 +1,4 @@
+package com.jmirving.prodata.download.diff;
+
+public record RowKey(String gameid, String participantid) {
+}
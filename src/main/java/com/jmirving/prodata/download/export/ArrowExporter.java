@@ -0,0 +1,341 @@
+package com.jmirving.prodata.download.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Exports a validated CSV to a ZSTD-compressed Arrow IPC file so readers can load only the columns
+ * they query.
+ */
+public class ArrowExporter {
+    public static final String ARROW_SUFFIX = ".arrow";
+    static final int DEFAULT_BATCH_ROWS = 64 * 1024;
+    static final int DEFAULT_MAX_DICTIONARY_VALUES = 1024;
+    private static final ArrowType.Int DICTIONARY_INDEX_TYPE = new ArrowType.Int(32, true);
+
+    private final int batchRows;
+    private final int maxDictionaryValues;
+
+    public ArrowExporter() {
+        this(DEFAULT_BATCH_ROWS, DEFAULT_MAX_DICTIONARY_VALUES);
+    }
+
+    ArrowExporter(int batchRows, int maxDictionaryValues) {
+        this.batchRows = batchRows;
+        this.maxDictionaryValues = maxDictionaryValues;
+    }
+
+    public static Path exportPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ARROW_SUFFIX);
+    }
+
+    public ExportResult export(Path csvPath, Path arrowPath) throws IOException {
+        List<ColumnProfile> columns = new ArrayList<>();
+        long rowCount = profile(csvPath, columns);
+        try (BufferAllocator allocator = new RootAllocator()) {
+            write(csvPath, arrowPath, columns, rowCount, allocator);
+        }
+        List<String> dictionaryColumns = columns.stream()
+                .filter(column -> column.type() == ColumnType.DICTIONARY)
+                .map(column -> column.name)
+                .toList();
+        return new ExportResult(rowCount, columns.size(), dictionaryColumns, Files.size(arrowPath));
+    }
+
+    private long profile(Path csvPath, List<ColumnProfile> columns) throws IOException {
+        long[] rows = new long[1];
+        int[][] bounds = new int[1][];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                bounds[0] = new int[2 * (countFields(record, length) + 1)];
+                int count = CsvRecordScanner.fields(record, length, bounds[0]);
+                for (int i = 0; i < count; i++) {
+                    String name = decode(record, bounds[0][2 * i], bounds[0][2 * i + 1]);
+                    if (i == 0 && name.startsWith("\uFEFF")) {
+                        name = name.substring(1);
+                    }
+                    columns.add(new ColumnProfile(name.trim(), maxDictionaryValues));
+                }
+                return;
+            }
+            rows[0]++;
+            int count = Math.min(CsvRecordScanner.fields(record, length, bounds[0]), columns.size());
+            for (int i = 0; i < count; i++) {
+                columns.get(i).observe(record, bounds[0][2 * i], bounds[0][2 * i + 1]);
+            }
+        });
+        if (columns.isEmpty()) {
+            throw new IOException("CSV " + csvPath + " has no header");
+        }
+        return rows[0];
+    }
+
+    private void write(
+            Path csvPath,
+            Path arrowPath,
+            List<ColumnProfile> columns,
+            long rowCount,
+            BufferAllocator allocator
+    ) throws IOException {
+        List<Field> fields = new ArrayList<>();
+        try (DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider()) {
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnProfile column = columns.get(i);
+                if (column.type() == ColumnType.DICTIONARY) {
+                    DictionaryEncoding encoding = new DictionaryEncoding(i, false, DICTIONARY_INDEX_TYPE);
+                    dictionaries.put(new Dictionary(column.dictionaryVector(allocator), encoding));
+                    fields.add(new Field(column.name, new FieldType(true, DICTIONARY_INDEX_TYPE, encoding), null));
+                } else {
+                    fields.add(new Field(column.name, FieldType.nullable(column.type().arrowType), null));
+                }
+            }
+            Map<String, String> metadata = Map.of(
+                    "source", csvPath.getFileName().toString(),
+                    "rowCount", Long.toString(rowCount)
+            );
+            try (VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+                 FileChannel channel = FileChannel.open(arrowPath, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 ArrowFileWriter writer = new ArrowFileWriter(root, dictionaries, channel, metadata,
+                         IpcOption.DEFAULT, CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD)) {
+                writer.start();
+                writeBatches(csvPath, columns, root, writer);
+                writer.end();
+            }
+        }
+    }
+
+    private void writeBatches(Path csvPath, List<ColumnProfile> columns, VectorSchemaRoot root, ArrowFileWriter writer)
+            throws IOException {
+        List<FieldVector> vectors = root.getFieldVectors();
+        vectors.forEach(FieldVector::allocateNew);
+        int[] bounds = new int[2 * columns.size()];
+        int[] batchRow = new int[1];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                return;
+            }
+            int count = CsvRecordScanner.fields(record, length, bounds);
+            int row = batchRow[0];
+            for (int i = 0; i < count; i++) {
+                int start = bounds[2 * i];
+                int end = bounds[2 * i + 1];
+                if (start < end) {
+                    columns.get(i).set(vectors.get(i), row, record, start, end);
+                }
+            }
+            if (++batchRow[0] == batchRows) {
+                flush(root, writer, batchRow[0]);
+                batchRow[0] = 0;
+            }
+        });
+        if (batchRow[0] > 0) {
+            flush(root, writer, batchRow[0]);
+        }
+    }
+
+    private static void flush(VectorSchemaRoot root, ArrowFileWriter writer, int rows) throws IOException {
+        root.setRowCount(rows);
+        writer.writeBatch();
+        root.getFieldVectors().forEach(FieldVector::reset);
+    }
+
+    private static int countFields(byte[] record, int length) {
+        int commas = 0;
+        for (int i = 0; i < length; i++) {
+            if (record[i] == ',') {
+                commas++;
+            }
+        }
+        return commas + 1;
+    }
+
+    private static String decode(byte[] record, int start, int end) {
+        String value = new String(record, start, end - start, StandardCharsets.UTF_8);
+        return value.indexOf('"') >= 0 ? value.replace("\"\"", "\"") : value;
+    }
+
+    private static boolean hasQuote(byte[] record, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (record[i] == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isLong(byte[] record, int start, int end) {
+        int i = record[start] == '-' ? start + 1 : start;
+        int digits = end - i;
+        if (digits < 1 || digits > 18 || digits > 1 && record[i] == '0' || i > start && record[i] == '0') {
+            return false;
+        }
+        for (; i < end; i++) {
+            if (record[i] < '0' || record[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isDouble(byte[] record, int start, int end) {
+        int i = start;
+        if (i < end && (record[i] == '-' || record[i] == '+')) {
+            i++;
+        }
+        int integerDigits = 0;
+        while (i < end && record[i] >= '0' && record[i] <= '9') {
+            i++;
+            integerDigits++;
+        }
+        int fractionDigits = 0;
+        if (i < end && record[i] == '.') {
+            i++;
+            while (i < end && record[i] >= '0' && record[i] <= '9') {
+                i++;
+                fractionDigits++;
+            }
+        }
+        if (integerDigits + fractionDigits == 0) {
+            return false;
+        }
+        if (i < end && (record[i] == 'e' || record[i] == 'E')) {
+            i++;
+            if (i < end && (record[i] == '-' || record[i] == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && record[i] >= '0' && record[i] <= '9') {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == end;
+    }
+
+    private static long parseLong(byte[] record, int start, int end) {
+        boolean negative = record[start] == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            value = value * 10 + (record[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    enum ColumnType {
+        BIGINT(new ArrowType.Int(64, true)),
+        FLOAT8(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+        DICTIONARY(ArrowType.Utf8.INSTANCE),
+        UTF8(ArrowType.Utf8.INSTANCE);
+
+        private final ArrowType arrowType;
+
+        ColumnType(ArrowType arrowType) {
+            this.arrowType = arrowType;
+        }
+    }
+
+    private static final class ColumnProfile {
+        private final String name;
+        private boolean integral = true;
+        private boolean decimal = true;
+        private ByteDictionary dictionary;
+        private ColumnType type;
+
+        private ColumnProfile(String name, int maxDictionaryValues) {
+            this.name = name;
+            this.dictionary = new ByteDictionary(maxDictionaryValues);
+        }
+
+        void observe(byte[] record, int start, int end) {
+            if (start == end) {
+                return;
+            }
+            if (integral && !isLong(record, start, end)) {
+                integral = false;
+            }
+            if (!integral && decimal && !isDouble(record, start, end)) {
+                decimal = false;
+            }
+            if (dictionary != null && dictionaryIndex(record, start, end, true) < 0) {
+                dictionary = null;
+            }
+        }
+
+        ColumnType type() {
+            if (type == null) {
+                type = integral ? ColumnType.BIGINT
+                        : dictionary != null ? ColumnType.DICTIONARY
+                        : decimal ? ColumnType.FLOAT8
+                        : ColumnType.UTF8;
+            }
+            return type;
+        }
+
+        VarCharVector dictionaryVector(BufferAllocator allocator) {
+            VarCharVector vector = new VarCharVector(name, allocator);
+            vector.allocateNew();
+            for (int i = 0; i < dictionary.size(); i++) {
+                vector.setSafe(i, dictionary.value(i));
+            }
+            vector.setValueCount(dictionary.size());
+            return vector;
+        }
+
+        private int dictionaryIndex(byte[] record, int start, int end, boolean add) {
+            if (hasQuote(record, start, end)) {
+                byte[] value = decode(record, start, end).getBytes(StandardCharsets.UTF_8);
+                return add ? dictionary.add(value, 0, value.length) : dictionary.indexOf(value, 0, value.length);
+            }
+            return add ? dictionary.add(record, start, end) : dictionary.indexOf(record, start, end);
+        }
+
+        void set(FieldVector vector, int row, byte[] record, int start, int end) {
+            switch (type()) {
+                case BIGINT -> ((BigIntVector) vector).setSafe(row, parseLong(record, start, end));
+                case FLOAT8 -> ((Float8Vector) vector).setSafe(row,
+                        Double.parseDouble(new String(record, start, end - start, StandardCharsets.ISO_8859_1)));
+                case DICTIONARY -> ((IntVector) vector).setSafe(row, dictionaryIndex(record, start, end, false));
+                case UTF8 -> {
+                    if (hasQuote(record, start, end)) {
+                        ((VarCharVector) vector).setSafe(row, decode(record, start, end).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        ((VarCharVector) vector).setSafe(row, record, start, end - start);
+                    }
+                }
+            }
+        }
+    }
+}
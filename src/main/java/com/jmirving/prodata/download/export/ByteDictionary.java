@@ -0,0 +1,74 @@
+package com.jmirving.prodata.download.export;
+
+import java.util.Arrays;
+
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Insertion-ordered set of byte strings, capped at {@code maxSize} values, that assigns each value
+ * a dense index. Values are looked up straight from the record buffer, so building and probing a
+ * column dictionary decodes no strings and boxes nothing.
+ */
+final class ByteDictionary {
+    private final int maxSize;
+    private final int[] table;
+    private final long[] hashes;
+    private final int[] offsets;
+    private byte[] pool = new byte[4096];
+    private int size;
+
+    ByteDictionary(int maxSize) {
+        this.maxSize = maxSize;
+        this.table = new int[Integer.highestOneBit(Math.max(8, maxSize * 2)) << 1];
+        this.hashes = new long[maxSize];
+        this.offsets = new int[maxSize + 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int add(byte[] buffer, int start, int end) {
+        long hash = XxHash64.hash(buffer, start, end - start);
+        int slot = slot(hash, buffer, start, end);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (size == maxSize) {
+            return -1;
+        }
+        int length = end - start;
+        int offset = offsets[size];
+        if (offset + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, offset + length));
+        }
+        System.arraycopy(buffer, start, pool, offset, length);
+        hashes[size] = hash;
+        offsets[size + 1] = offset + length;
+        table[slot] = ++size;
+        return size - 1;
+    }
+
+    int indexOf(byte[] buffer, int start, int end) {
+        int slot = slot(XxHash64.hash(buffer, start, end - start), buffer, start, end);
+        return table[slot] - 1;
+    }
+
+    byte[] value(int index) {
+        return Arrays.copyOfRange(pool, offsets[index], offsets[index + 1]);
+    }
+
+    private int slot(long hash, byte[] buffer, int start, int end) {
+        int mask = table.length - 1;
+        for (int slot = (int) (hash ^ (hash >>> 32)) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return slot;
+            }
+            int index = entry - 1;
+            if (hashes[index] == hash && Arrays.equals(pool, offsets[index], offsets[index + 1], buffer, start, end)) {
+                return slot;
+            }
+        }
+    }
+}
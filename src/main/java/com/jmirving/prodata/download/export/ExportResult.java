@@ -0,0 +1,6 @@
+package com.jmirving.prodata.download.export;
+
+import java.util.List;
+
+public record ExportResult(long rowCount, int columnCount, List<String> dictionaryColumns, long byteCount) {
+}
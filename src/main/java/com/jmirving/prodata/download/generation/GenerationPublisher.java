@@ -0,0 +1,163 @@
+package com.jmirving.prodata.download.generation;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.jmirving.prodata.download.diff.ChangeFeedWriter;
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.ContentStore;
+import com.jmirving.prodata.download.publish.PublishGroup;
+
+/**
+ * Publishes the output directory as a numbered generation of hard links, {@code generations/<n>},
+ * and swaps the {@code current} symlink to it, so a reader that resolves {@code current} once sees
+ * every year from the same run.
+ */
+public class GenerationPublisher {
+    public static final String GENERATIONS_DIR = "generations";
+    public static final String CURRENT_LINK = "current";
+    public static final int DEFAULT_GENERATIONS_TO_KEEP = 3;
+    private static final List<String> TEMP_SUFFIXES = List.of(".download", ".tmp");
+
+    private final int generationsToKeep;
+    private final AtomicFilePublisher filePublisher;
+
+    public GenerationPublisher() {
+        this(DEFAULT_GENERATIONS_TO_KEEP);
+    }
+
+    public GenerationPublisher(int generationsToKeep) {
+        this(generationsToKeep, new AtomicFilePublisher());
+    }
+
+    public GenerationPublisher(int generationsToKeep, AtomicFilePublisher filePublisher) {
+        this.generationsToKeep = Math.max(1, generationsToKeep);
+        this.filePublisher = filePublisher;
+    }
+
+    public Path publish(Path outputDir) throws IOException {
+        return publish(outputDir, null);
+    }
+
+    public Path publish(Path outputDir, Path tempDir) throws IOException {
+        Path link = outputDir.resolve(CURRENT_LINK);
+        if (Files.exists(link, LinkOption.NOFOLLOW_LINKS) && !Files.isSymbolicLink(link)) {
+            throw new IOException("Current path exists and is not a symlink: " + link);
+        }
+        Path generations = outputDir.resolve(GENERATIONS_DIR);
+        Files.createDirectories(generations);
+        deleteAbandonedStaging(generations);
+        List<Long> existing = generationNumbers(generations);
+        String name = String.valueOf(existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1);
+        Path staging = generations.resolve("." + name);
+        Path generation = generations.resolve(name);
+        try {
+            Files.createDirectory(staging);
+            Path excluded = tempDir == null ? null : tempDir.toAbsolutePath().normalize();
+            linkTree(outputDir, staging, true, excluded);
+            // Synced before current can point at it.
+            try (PublishGroup group = filePublisher.openGroup()) {
+                filePublisher.publishDirectory(staging, generation, group);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(staging);
+            throw e;
+        }
+        swapCurrent(outputDir, generation);
+        prune(generations);
+        return generation;
+    }
+
+    public Optional<Path> current(Path outputDir) throws IOException {
+        Path link = outputDir.resolve(CURRENT_LINK);
+        if (!Files.isSymbolicLink(link)) {
+            return Optional.empty();
+        }
+        return Optional.of(link.resolveSibling(Files.readSymbolicLink(link)));
+    }
+
+    private void linkTree(Path source, Path target, boolean top, Path excluded) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (!include(name, top) || entry.toAbsolutePath().normalize().equals(excluded)) {
+                    continue;
+                }
+                Path linked = target.resolve(name);
+                if (Files.isDirectory(entry)) {
+                    Files.createDirectory(linked);
+                    linkTree(entry, linked, false, excluded);
+                } else if (Files.isRegularFile(entry)) {
+                    Files.createLink(linked, entry.toRealPath());
+                }
+            }
+        }
+    }
+
+    private static boolean include(String name, boolean top) {
+        if (name.startsWith(".") || TEMP_SUFFIXES.stream().anyMatch(name::endsWith)) {
+            return false;
+        }
+        return !top || !name.equals(GENERATIONS_DIR) && !name.equals(CURRENT_LINK)
+                && !name.equals(ChangeFeedWriter.FEED_FILE_NAME) && !name.equals(ContentStore.STORE_DIR);
+    }
+
+    private void swapCurrent(Path outputDir, Path generation) throws IOException {
+        Path link = outputDir.resolve(CURRENT_LINK);
+        Path newLink = outputDir.resolve("." + CURRENT_LINK + "-" + generation.getFileName() + ".link");
+        Files.deleteIfExists(newLink);
+        Files.createSymbolicLink(newLink, outputDir.relativize(generation));
+        try (PublishGroup group = filePublisher.openGroup()) {
+            filePublisher.publishLink(newLink, link, group);
+        }
+    }
+
+    private void prune(Path generations) throws IOException {
+        List<Long> numbers = generationNumbers(generations);
+        for (int i = 0; i < numbers.size() - generationsToKeep; i++) {
+            deleteRecursively(generations.resolve(String.valueOf(numbers.get(i))));
+        }
+    }
+
+    private static List<Long> generationNumbers(Path generations) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(generations)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+                    numbers.add(Long.parseLong(name));
+                }
+            }
+        }
+        numbers.sort(Comparator.naturalOrder());
+        return numbers;
+    }
+
+    private static void deleteAbandonedStaging(Path generations) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(generations, ".*")) {
+            for (Path entry : entries) {
+                deleteRecursively(entry);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> sorted = paths.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : sorted) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
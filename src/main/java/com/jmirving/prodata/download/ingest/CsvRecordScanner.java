@@ -0,0 +1,149 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Walks a CSV one record at a time over raw bytes. Records end at {@code \n}, {@code \r\n} or
+ * {@code \r} outside double quotes, as in {@link IngestAccumulator}; the terminator is not part of
+ * the record. The record buffer is reused, so handlers must copy anything they keep.
+ */
+public final class CsvRecordScanner {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private CsvRecordScanner() {
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void record(byte[] record, int length, long offset, long index) throws IOException;
+    }
+
+    public static void scan(Path csvPath, RecordHandler handler) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(csvPath)) {
+            scan(inputStream, handler);
+        }
+    }
+
+    public static void scan(InputStream inputStream, RecordHandler handler) throws IOException {
+        byte[] buffer = new byte[BUFFER_BYTES];
+        byte[] record = new byte[4096];
+        int length = 0;
+        long position = 0;
+        long recordOffset = 0;
+        long index = 0;
+        boolean inQuotes = false;
+        boolean pendingCarriageReturn = false;
+        boolean hasRecord = false;
+        int read;
+        while ((read = inputStream.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++, position++) {
+                byte b = buffer[i];
+                if (pendingCarriageReturn) {
+                    pendingCarriageReturn = false;
+                    if (b == '\n') {
+                        recordOffset = position + 1;
+                        continue;
+                    }
+                }
+                if (!inQuotes && (b == '\n' || b == '\r')) {
+                    handler.record(record, length, recordOffset, index++);
+                    length = 0;
+                    hasRecord = false;
+                    recordOffset = position + 1;
+                    pendingCarriageReturn = b == '\r';
+                    continue;
+                }
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                }
+                if (length == record.length) {
+                    record = Arrays.copyOf(record, record.length * 2);
+                }
+                record[length++] = b;
+                hasRecord = true;
+            }
+        }
+        if (hasRecord) {
+            handler.record(record, length, recordOffset, index);
+        }
+    }
+
+    public static int[] field(byte[] record, int length, int column) {
+        int current = 0;
+        int start = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && record[i] == '"') {
+                inQuotes = !inQuotes;
+                continue;
+            }
+            if (i == length || !inQuotes && record[i] == ',') {
+                if (current == column) {
+                    int end = i;
+                    if (end - start >= 2 && record[start] == '"' && record[end - 1] == '"') {
+                        return new int[] {start + 1, end - 1};
+                    }
+                    return new int[] {start, end};
+                }
+                current++;
+                start = i + 1;
+            }
+        }
+        return null;
+    }
+
+    public static int fields(byte[] record, int length, int[] bounds) {
+        int max = bounds.length / 2;
+        int count = 0;
+        int start = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i <= length && count < max; i++) {
+            if (i < length && record[i] == '"') {
+                inQuotes = !inQuotes;
+                continue;
+            }
+            if (i == length || !inQuotes && record[i] == ',') {
+                int end = i;
+                if (end - start >= 2 && record[start] == '"' && record[end - 1] == '"') {
+                    bounds[2 * count] = start + 1;
+                    bounds[2 * count + 1] = end - 1;
+                } else {
+                    bounds[2 * count] = start;
+                    bounds[2 * count + 1] = end;
+                }
+                count++;
+                start = i + 1;
+            }
+        }
+        return count;
+    }
+
+    public static String fieldString(byte[] record, int length, int column) {
+        int[] bounds = field(record, length, column);
+        if (bounds == null) {
+            return null;
+        }
+        String value = new String(record, bounds[0], bounds[1] - bounds[0], StandardCharsets.UTF_8);
+        return value.indexOf('"') >= 0 ? value.replace("\"\"", "\"") : value;
+    }
+
+    public static int columnIndex(byte[] header, int length, String name) {
+        for (int column = 0; ; column++) {
+            String value = fieldString(header, length, column);
+            if (value == null) {
+                return -1;
+            }
+            if (column == 0 && value.startsWith("\uFEFF")) {
+                value = value.substring(1);
+            }
+            if (value.trim().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Counts CSV data rows (records after the header) straight from the file bytes. {@code \n},
+ * {@code \r} and {@code \r\n} end a record only outside double quotes, so quoted fields with
+ * embedded line breaks are counted once, matching {@link IngestAccumulator}.
+ */
+public final class CsvRowCounter {
+    private CsvRowCounter() {
+    }
+
+    public static long countRows(Path csvPath) throws IOException {
+        return countRows(csvPath, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    static long countRows(Path csvPath, int parallelism, long segmentBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            long segment = segmentBytes > 0
+                    ? segmentBytes
+                    : CsvSplitter.segmentBytes(size, parallelism, CsvSplitter.DEFAULT_MIN_SEGMENT_BYTES);
+            CsvSplitter.Split split = CsvSplitter.scan(channel, 0, size, parallelism, segment);
+            byte last = readByte(channel, size - 1);
+            boolean endsWithTerminator = !split.endsInQuotes() && (last == '\n' || last == '\r');
+            long lines = endsWithTerminator ? split.terminators() : split.terminators() + 1;
+            return lines - 1;
+        }
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position) < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+        }
+        return buffer.get(0);
+    }
+}
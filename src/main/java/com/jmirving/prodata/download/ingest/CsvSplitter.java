@@ -0,0 +1,258 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Splits a byte range of a CSV into record-aligned chunks for parallel processing, finding quote
+ * state and record terminators with a parallel segment scan.
+ */
+public final class CsvSplitter {
+    public static final long DEFAULT_MIN_SEGMENT_BYTES = 8L * 1024 * 1024;
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
+    private static final int READ_BYTES = 64 * 1024;
+    private static final long QUOTES = 0x2222222222222222L;
+    private static final long LINE_FEEDS = 0x0A0A0A0A0A0A0A0AL;
+    private static final long CARRIAGE_RETURNS = 0x0D0D0D0D0D0D0D0DL;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private CsvSplitter() {
+    }
+
+    public static long segmentBytes(long length, int parallelism, long minSegmentBytes) {
+        return segmentBytes(length, parallelism, minSegmentBytes, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    static long segmentBytes(long length, int parallelism, long minSegmentBytes, long maxSegmentBytes) {
+        int threads = Math.max(1, parallelism);
+        long max = Math.max(1, Math.min(maxSegmentBytes, Integer.MAX_VALUE));
+        return Math.min(max, Math.max(Math.max(1, minSegmentBytes), (length + threads - 1) / threads));
+    }
+
+    public static Split scan(FileChannel channel, long start, long end, int parallelism, long segmentBytes)
+            throws IOException {
+        if (segmentBytes <= 0 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + Integer.MAX_VALUE
+                    + " bytes, got " + segmentBytes);
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (long position = start; position < end; position += segmentBytes) {
+            ranges.add(new long[] {position, Math.min(segmentBytes, end - position)});
+        }
+        List<Segment> segments = parallel(ranges, parallelism, "scan CSV segments",
+                range -> () -> scanSegment(channel, range[0], range[1]));
+        return new Split(start, end, segments);
+    }
+
+    public static <T, R> List<R> parallel(List<T> items, int parallelism, String action,
+            Function<T, Callable<R>> tasks) throws IOException {
+        List<R> results = new ArrayList<>(items.size());
+        int threads = Math.min(Math.max(1, parallelism), items.size());
+        if (threads <= 1) {
+            for (T item : items) {
+                try {
+                    results.add(tasks.apply(item).call());
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Failed to " + action, e);
+                }
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "prodata-csv-split-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<R>> futures = new ArrayList<>();
+            for (T item : items) {
+                futures.add(executor.submit(tasks.apply(item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to " + action, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while trying to " + action, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Segment scanSegment(FileChannel channel, long start, long length) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        SegmentScan scan = new SegmentScan(start == 0 ? 0 : readByte(channel, start - 1));
+        int limit = (int) length;
+        int i = 0;
+        // Most words of a CSV hold no quote or line break and are skipped whole.
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            long word = mapped.getLong(i);
+            if ((hasByte(word, QUOTES) | hasByte(word, LINE_FEEDS) | hasByte(word, CARRIAGE_RETURNS)) == 0) {
+                scan.previous = (byte) (word >>> 56);
+                continue;
+            }
+            for (int b = 0; b < Long.BYTES; b++) {
+                scan.accept((byte) (word >>> (b * 8)));
+            }
+        }
+        for (; i < limit; i++) {
+            scan.accept(mapped.get(i));
+        }
+        return new Segment(start, scan.even, scan.odd, scan.parity == 1);
+    }
+
+    private static long hasByte(long word, long pattern) {
+        long x = word ^ pattern;
+        return (x - 0x0101010101010101L) & ~x & 0x8080808080808080L;
+    }
+
+    private static long alignToRecord(FileChannel channel, long position, boolean inQuotes, long end)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BYTES);
+        long bufferStart = position - 1;
+        fill(channel, buffer, bufferStart);
+        byte previous = buffer.get(0);
+        int i = 1;
+        boolean pendingCarriageReturn = false;
+        if (!inQuotes && (previous == '\n' || previous == '\r')) {
+            if (previous != '\r') {
+                return position;
+            }
+            pendingCarriageReturn = true;
+        }
+        while (true) {
+            if (i == buffer.limit()) {
+                bufferStart += i;
+                if (bufferStart >= end) {
+                    return end;
+                }
+                fill(channel, buffer, bufferStart);
+                i = 0;
+            }
+            byte b = buffer.get(i);
+            long offset = bufferStart + i;
+            if (offset >= end) {
+                return end;
+            }
+            if (pendingCarriageReturn) {
+                return b == '\n' ? offset + 1 : offset;
+            }
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && b == '\n') {
+                return offset + 1;
+            } else if (!inQuotes && b == '\r') {
+                pendingCarriageReturn = true;
+            }
+            i++;
+        }
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position) < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+        }
+        return buffer.get(0);
+    }
+
+    public record Split(long start, long end, List<Segment> segments) {
+        public long terminators() {
+            long terminators = 0;
+            boolean inQuotes = false;
+            for (Segment segment : segments) {
+                terminators += inQuotes ? segment.oddParityTerminators() : segment.evenParityTerminators();
+                inQuotes ^= segment.oddQuotes();
+            }
+            return terminators;
+        }
+
+        public boolean endsInQuotes() {
+            boolean inQuotes = false;
+            for (Segment segment : segments) {
+                inQuotes ^= segment.oddQuotes();
+            }
+            return inQuotes;
+        }
+
+        public List<long[]> recordAlignedChunks(FileChannel channel) throws IOException {
+            List<long[]> chunks = new ArrayList<>();
+            long chunkStart = start;
+            boolean inQuotes = false;
+            for (int i = 1; i < segments.size(); i++) {
+                inQuotes ^= segments.get(i - 1).oddQuotes();
+                long cut = segments.get(i).start();
+                if (cut < chunkStart) {
+                    continue;
+                }
+                long chunkEnd = alignToRecord(channel, cut, inQuotes, end);
+                if (chunkEnd > chunkStart) {
+                    chunks.add(new long[] {chunkStart, chunkEnd});
+                    chunkStart = chunkEnd;
+                }
+            }
+            if (chunkStart < end) {
+                chunks.add(new long[] {chunkStart, end});
+            }
+            return chunks;
+        }
+    }
+
+    public record Segment(long start, long evenParityTerminators, long oddParityTerminators, boolean oddQuotes) {
+    }
+
+    private static final class SegmentScan {
+        private byte previous;
+        private int parity;
+        private long even;
+        private long odd;
+
+        private SegmentScan(byte previous) {
+            this.previous = previous;
+        }
+
+        private void accept(byte b) {
+            if (b == '"') {
+                parity ^= 1;
+            } else if (b == '\r' || b == '\n' && previous != '\r') {
+                if (parity == 0) {
+                    even++;
+                } else {
+                    odd++;
+                }
+            }
+            previous = b;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Rebuilds an append-only CSV from its previously published copy plus a ranged download of the
+ * bytes that follow it.
+ */
+public final class IncrementalIngest {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private IncrementalIngest() {
+    }
+
+    public static Optional<IngestResult> append(
+            Path published,
+            long overlapLength,
+            String overlapSha256,
+            InputStream tail,
+            Path destination,
+            long sourceLength
+    ) throws IOException {
+        return append(published, overlapLength, overlapSha256, tail, destination, sourceLength, IngestChecksums.NONE);
+    }
+
+    public static Optional<IngestResult> append(
+            Path published,
+            long overlapLength,
+            String overlapSha256,
+            InputStream tail,
+            Path destination,
+            long sourceLength,
+            IngestChecksums checksums
+    ) throws IOException {
+        if (overlapLength > IngestAccumulator.OVERLAP_BYTES) {
+            return Optional.empty();
+        }
+        byte[] overlap = tail.readNBytes((int) overlapLength);
+        if (overlap.length != overlapLength || !overlapSha256.equals(sha256Hex(overlap))) {
+            return Optional.empty();
+        }
+        byte[] firstChunk = new byte[BUFFER_SIZE];
+        int firstRead = tail.read(firstChunk);
+        if (firstRead == -1) {
+            return Optional.empty();
+        }
+
+        IngestAccumulator accumulator = new IngestAccumulator(checksums);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        try (OutputStream outputStream = Files.newOutputStream(destination)) {
+            try (InputStream previous = Files.newInputStream(published)) {
+                while ((read = previous.read(buffer)) != -1) {
+                    accumulator.update(buffer, 0, read);
+                    outputStream.write(buffer, 0, read);
+                }
+            }
+            accumulator.update(firstChunk, 0, firstRead);
+            outputStream.write(firstChunk, 0, firstRead);
+            while ((read = tail.read(buffer)) != -1) {
+                accumulator.update(buffer, 0, read);
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        IngestResult result = accumulator.result();
+        return result.byteCount() == sourceLength ? Optional.of(result) : Optional.empty();
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
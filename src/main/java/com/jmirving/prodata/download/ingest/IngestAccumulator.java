@@ -0,0 +1,156 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 digest, row count and header line of a CSV as its bytes stream past. Line
+ * breaks inside double-quoted fields do not end a record.
+ */
+public class IngestAccumulator {
+    public static final int OVERLAP_BYTES = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 1024 * 1024;
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private final MessageDigest digest;
+    private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+    private final byte[] overlap = new byte[OVERLAP_BYTES];
+    private final XxHash64 xxHash64;
+    private final long treeChunkSize;
+    private final MessageDigest treeRoot;
+    private final MessageDigest treeLeaf;
+    private long treeLeafBytes;
+    private boolean headerComplete;
+    private long byteCount;
+    private long lineCount;
+    private boolean pendingCarriageReturn;
+    private boolean lineHasContent;
+    private boolean inQuotes;
+
+    public IngestAccumulator() {
+        this(IngestChecksums.NONE);
+    }
+
+    public IngestAccumulator(IngestChecksums checksums) {
+        digest = newSha256();
+        xxHash64 = checksums.xxHash64() ? new XxHash64() : null;
+        treeChunkSize = checksums.treeChunkSize();
+        treeRoot = treeChunkSize > 0 ? newSha256() : null;
+        treeLeaf = treeChunkSize > 0 ? newSha256() : null;
+        if (treeRoot != null) {
+            treeRoot.update(NODE_PREFIX);
+        }
+    }
+
+    public void update(byte[] buffer, int offset, int length) {
+        digest.update(buffer, offset, length);
+        if (xxHash64 != null) {
+            xxHash64.update(buffer, offset, length);
+        }
+        if (treeRoot != null) {
+            updateTree(buffer, offset, length);
+        }
+        retainOverlap(buffer, offset, length);
+        byteCount += length;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            }
+            if (inQuotes || b != '\n' && b != '\r') {
+                pendingCarriageReturn = false;
+                lineHasContent = true;
+                if (!headerComplete && header.size() < MAX_HEADER_BYTES) {
+                    header.write(b);
+                }
+            } else if (b == '\n') {
+                if (!pendingCarriageReturn) {
+                    lineCount++;
+                }
+                pendingCarriageReturn = false;
+                lineHasContent = false;
+                headerComplete = true;
+            } else {
+                lineCount++;
+                pendingCarriageReturn = true;
+                lineHasContent = false;
+                headerComplete = true;
+            }
+        }
+    }
+
+    public IngestResult result() {
+        long lines = lineHasContent ? lineCount + 1 : lineCount;
+        String headerLine = lines == 0 ? null : header.toString(StandardCharsets.UTF_8);
+        return new IngestResult(
+                byteCount,
+                Math.max(0, lines - 1),
+                HexFormat.of().formatHex(digest.digest()),
+                headerLine,
+                Math.min(byteCount, OVERLAP_BYTES),
+                HexFormat.of().formatHex(overlapDigest()),
+                xxHash64 == null ? null : xxHash64.hexDigest(),
+                treeRoot == null ? 0 : treeChunkSize,
+                treeRoot == null ? null : treeDigest()
+        );
+    }
+
+    private void updateTree(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            if (treeLeafBytes == 0) {
+                treeLeaf.update(LEAF_PREFIX);
+            }
+            int count = (int) Math.min(end - offset, treeChunkSize - treeLeafBytes);
+            treeLeaf.update(buffer, offset, count);
+            treeLeafBytes += count;
+            offset += count;
+            if (treeLeafBytes == treeChunkSize) {
+                treeRoot.update(treeLeaf.digest());
+                treeLeafBytes = 0;
+            }
+        }
+    }
+
+    private String treeDigest() {
+        if (treeLeafBytes > 0) {
+            treeRoot.update(treeLeaf.digest());
+            treeLeafBytes = 0;
+        }
+        return HexFormat.of().formatHex(treeRoot.digest());
+    }
+
+    private void retainOverlap(byte[] buffer, int offset, int length) {
+        int start = offset + Math.max(0, length - OVERLAP_BYTES);
+        int count = offset + length - start;
+        int position = (int) ((byteCount + (start - offset)) % OVERLAP_BYTES);
+        int firstPart = Math.min(count, OVERLAP_BYTES - position);
+        System.arraycopy(buffer, start, overlap, position, firstPart);
+        System.arraycopy(buffer, start + firstPart, overlap, 0, count - firstPart);
+    }
+
+    private byte[] overlapDigest() {
+        MessageDigest overlapDigest = newSha256();
+        if (byteCount <= OVERLAP_BYTES) {
+            overlapDigest.update(overlap, 0, (int) byteCount);
+        } else {
+            int oldest = (int) (byteCount % OVERLAP_BYTES);
+            overlapDigest.update(overlap, oldest, OVERLAP_BYTES - oldest);
+            overlapDigest.update(overlap, 0, oldest);
+        }
+        return overlapDigest.digest();
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jmirving.prodata.download.ingest;
+
+public record IngestChecksums(boolean xxHash64, long treeChunkSize) {
+    public static final IngestChecksums NONE = new IngestChecksums(false, 0);
+
+    public IngestChecksums {
+        if (treeChunkSize < 0) {
+            throw new IllegalArgumentException("Tree chunk size must not be negative");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.jmirving.prodata.download.ingest;
+
+public record IngestResult(
+        long byteCount,
+        long rowCount,
+        String sha256,
+        String headerLine,
+        long overlapLength,
+        String overlapSha256,
+        String xxHash64,
+        long treeChunkSize,
+        String sha256Tree
+) {
+    public IngestResult(
+            long byteCount,
+            long rowCount,
+            String sha256,
+            String headerLine,
+            long overlapLength,
+            String overlapSha256
+    ) {
+        this(byteCount, rowCount, sha256, headerLine, overlapLength, overlapSha256, null, 0, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class StreamingIngest {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private StreamingIngest() {
+    }
+
+    public static IngestResult copy(InputStream source, Path destination) throws IOException {
+        return copy(source, destination, IngestChecksums.NONE);
+    }
+
+    public static IngestResult copy(InputStream source, Path destination, IngestChecksums checksums)
+            throws IOException {
+        IngestAccumulator accumulator = new IngestAccumulator(checksums);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        try (OutputStream outputStream = Files.newOutputStream(destination)) {
+            while ((read = source.read(buffer)) != -1) {
+                accumulator.update(buffer, 0, read);
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return accumulator.result();
+    }
+
+    public static IngestResult scan(Path path) throws IOException {
+        return scan(path, IngestChecksums.NONE);
+    }
+
+    public static IngestResult scan(Path path, IngestChecksums checksums) throws IOException {
+        IngestAccumulator accumulator = new IngestAccumulator(checksums);
+        accumulate(path, accumulator, new byte[BUFFER_SIZE]);
+        return accumulator.result();
+    }
+
+    public static IngestResult resume(Path partial, InputStream tail) throws IOException {
+        return resume(partial, tail, IngestChecksums.NONE);
+    }
+
+    public static IngestResult resume(Path partial, InputStream tail, IngestChecksums checksums)
+            throws IOException {
+        IngestAccumulator accumulator = new IngestAccumulator(checksums);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        accumulate(partial, accumulator, buffer);
+        int read;
+        try (OutputStream outputStream = Files.newOutputStream(partial, StandardOpenOption.APPEND)) {
+            while ((read = tail.read(buffer)) != -1) {
+                accumulator.update(buffer, 0, read);
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return accumulator.result();
+    }
+
+    private static void accumulate(Path path, IngestAccumulator accumulator, byte[] buffer) throws IOException {
+        int read;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            while ((read = inputStream.read(buffer)) != -1) {
+                accumulator.update(buffer, 0, read);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.jmirving.prodata.download.ingest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming xxHash64 with seed 0, following the reference specification.
+ */
+public final class XxHash64 {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] pending = new byte[32];
+    private int pendingLength;
+    private long totalLength;
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+
+    public static long hash(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        long hash;
+        if (length >= 32) {
+            long v1 = PRIME1 + PRIME2;
+            long v2 = PRIME2;
+            long v3 = 0;
+            long v4 = -PRIME1;
+            for (; offset + 32 <= end; offset += 32) {
+                v1 = round(v1, readLong(buffer, offset));
+                v2 = round(v2, readLong(buffer, offset + 8));
+                v3 = round(v3, readLong(buffer, offset + 16));
+                v4 = round(v4, readLong(buffer, offset + 24));
+            }
+            hash = converge(v1, v2, v3, v4);
+        } else {
+            hash = PRIME5;
+        }
+        return finish(hash + length, buffer, offset, end);
+    }
+
+    public void update(byte[] buffer, int offset, int length) {
+        totalLength += length;
+        int end = offset + length;
+        if (pendingLength > 0) {
+            int fill = Math.min(32 - pendingLength, length);
+            System.arraycopy(buffer, offset, pending, pendingLength, fill);
+            pendingLength += fill;
+            offset += fill;
+            if (pendingLength < 32) {
+                return;
+            }
+            consumeStripe(pending, 0);
+            pendingLength = 0;
+        }
+        for (; offset + 32 <= end; offset += 32) {
+            consumeStripe(buffer, offset);
+        }
+        pendingLength = end - offset;
+        System.arraycopy(buffer, offset, pending, 0, pendingLength);
+    }
+
+    public long digest() {
+        long hash = totalLength >= 32 ? converge(v1, v2, v3, v4) : PRIME5;
+        return finish(hash + totalLength, pending, 0, pendingLength);
+    }
+
+    public String hexDigest() {
+        return String.format("%016x", digest());
+    }
+
+    private void consumeStripe(byte[] buffer, int offset) {
+        v1 = round(v1, readLong(buffer, offset));
+        v2 = round(v2, readLong(buffer, offset + 8));
+        v3 = round(v3, readLong(buffer, offset + 16));
+        v4 = round(v4, readLong(buffer, offset + 24));
+    }
+
+    private static long converge(long v1, long v2, long v3, long v4) {
+        long hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+        hash = mergeRound(hash, v1);
+        hash = mergeRound(hash, v2);
+        hash = mergeRound(hash, v3);
+        return mergeRound(hash, v4);
+    }
+
+    private static long finish(long hash, byte[] buffer, int offset, int end) {
+        int i = offset;
+        for (; i + 8 <= end; i += 8) {
+            hash ^= round(0, readLong(buffer, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+        if (i + 4 <= end) {
+            hash ^= (readInt(buffer, i) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            i += 4;
+        }
+        for (; i < end; i++) {
+            hash ^= (buffer[i] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+
+    private static long readLong(byte[] buffer, int offset) {
+        return (long) LONG_LE.get(buffer, offset);
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (int) INT_LE.get(buffer, offset);
+    }
+}
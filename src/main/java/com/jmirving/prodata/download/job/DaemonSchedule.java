@@ -0,0 +1,56 @@
+package com.jmirving.prodata.download.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.springframework.scheduling.support.CronExpression;
+
+/**
+ * When the daemon runs the job next: at the next match of a cron expression, or a fixed interval
+ * after the previous run started. Runs never overlap: after a run that overruns its interval the
+ * next one starts straight away, while cron matches missed during a run are skipped.
+ */
+public final class DaemonSchedule {
+    private final CronExpression cron;
+    private final Duration interval;
+    private final ZoneId zone;
+
+    private DaemonSchedule(CronExpression cron, Duration interval, ZoneId zone) {
+        this.cron = cron;
+        this.interval = interval;
+        this.zone = zone;
+    }
+
+    public static DaemonSchedule of(String cron, Duration interval, ZoneId zone) {
+        if (cron != null && !cron.isBlank()) {
+            return new DaemonSchedule(CronExpression.parse(cron), null, zone);
+        }
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Daemon mode needs a cron expression or a positive interval");
+        }
+        return new DaemonSchedule(null, interval, zone);
+    }
+
+    public Instant next(Instant lastStart, Instant now) {
+        if (cron == null) {
+            if (lastStart == null) {
+                return now;
+            }
+            Instant due = lastStart.plus(interval);
+            return due.isAfter(now) ? due : now;
+        }
+        Instant after = lastStart == null || now.isAfter(lastStart) ? now : lastStart;
+        ZonedDateTime next = cron.next(after.atZone(zone));
+        if (next == null) {
+            throw new IllegalStateException("Cron expression " + cron + " has no future match");
+        }
+        return next.toInstant();
+    }
+
+    @Override
+    public String toString() {
+        return cron != null ? "cron " + cron + " (" + zone + ")" : "every " + interval;
+    }
+}
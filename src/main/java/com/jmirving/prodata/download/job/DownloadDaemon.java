@@ -0,0 +1,175 @@
+package com.jmirving.prodata.download.job;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.poll.ChangePoller;
+import com.jmirving.prodata.download.poll.ListingSnapshot;
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the download job on a {@link DaemonSchedule}, or whenever the {@link ChangePoller} sees a
+ * change, inside one long-lived process. The scheduler thread keeps the JVM alive until the context
+ * is closed.
+ */
+public class DownloadDaemon implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadDaemon.class);
+
+    private final IntSupplier job;
+    private final DaemonSchedule schedule;
+    private final ChangePoller poller;
+    private final Path statusFile;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private ScheduledExecutorService executor;
+    private volatile RunStatus status;
+
+    public DownloadDaemon(IntSupplier job, DaemonSchedule schedule, Path statusFile, ObjectMapper objectMapper, Clock clock) {
+        this(job, schedule, null, statusFile, objectMapper, clock);
+    }
+
+    public DownloadDaemon(
+            IntSupplier job,
+            DaemonSchedule schedule,
+            ChangePoller poller,
+            Path statusFile,
+            ObjectMapper objectMapper,
+            Clock clock
+    ) {
+        this.job = job;
+        this.schedule = schedule;
+        this.poller = poller;
+        this.statusFile = statusFile;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            throw new IllegalStateException("Daemon already started");
+        }
+        if (schedule == null && poller == null) {
+            throw new IllegalStateException("Daemon mode is not enabled");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "prodata-daemon"));
+        Instant now = clock.instant();
+        Instant next = poller != null ? now : schedule.next(null, now);
+        updateStatus(RunStatus.initial(next));
+        if (poller != null) {
+            logger.info("Daemon started; polling for changes {}", poller);
+        } else {
+            logger.info("Daemon started; running {}, first run at {}", schedule, next);
+        }
+        scheduleAt(next, now);
+    }
+
+    public RunStatus status() {
+        return status;
+    }
+
+    int runOnce() {
+        Instant startedAt = clock.instant();
+        updateStatus(currentStatus().started(startedAt));
+        int exitCode;
+        try {
+            exitCode = job.getAsInt();
+        } catch (RuntimeException e) {
+            logger.error("Scheduled download run failed", e);
+            exitCode = 1;
+        }
+        Instant finishedAt = clock.instant();
+        Instant next = poller != null ? poller.nextPoll(finishedAt) : schedule.next(startedAt, finishedAt);
+        updateStatus(status.finished(finishedAt, exitCode, next));
+        logger.info("Run {} finished with exit code {} in {} ms; next run at {}",
+                status.runCount(), exitCode, status.lastDurationMillis(), next);
+        return exitCode;
+    }
+
+    Optional<Integer> pollOnce() {
+        Instant polledAt = clock.instant();
+        Optional<ListingSnapshot> change;
+        try {
+            change = poller.poll();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to poll the source for changes", e);
+            change = Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        if (change.isEmpty()) {
+            Instant next = poller.nextPoll(clock.instant());
+            updateStatus(currentStatus().polled(polledAt, next));
+            logger.debug("No change at {}; next poll at {}", polledAt, next);
+            return Optional.empty();
+        }
+        updateStatus(currentStatus().polled(polledAt, null));
+        int exitCode = runOnce();
+        if (exitCode == 0) {
+            try {
+                poller.published(change.get());
+            } catch (IOException e) {
+                logger.warn("Failed to record the published snapshot; the next poll will run the job again", e);
+            }
+        }
+        return Optional.of(exitCode);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Download run did not stop within 30s of shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleAt(Instant next, Instant now) {
+        long delayMillis = Math.max(0, Duration.between(now, next).toMillis());
+        executor.schedule(this::runAndReschedule, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runAndReschedule() {
+        if (poller != null) {
+            pollOnce();
+        } else {
+            runOnce();
+        }
+        if (!Thread.currentThread().isInterrupted() && !executor.isShutdown()) {
+            scheduleAt(status.nextRunAt(), clock.instant());
+        }
+    }
+
+    private RunStatus currentStatus() {
+        return status == null ? RunStatus.initial(null) : status;
+    }
+
+    private void updateStatus(RunStatus updated) {
+        status = updated;
+        if (statusFile == null) {
+            return;
+        }
+        try {
+            AtomicFilePublisher.replace(statusFile, path -> objectMapper.writeValue(path.toFile(), updated));
+        } catch (IOException e) {
+            logger.warn("Failed to write daemon status to {}", statusFile, e);
+        }
+    }
+}
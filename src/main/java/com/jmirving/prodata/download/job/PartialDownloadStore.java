@@ -0,0 +1,120 @@
+package com.jmirving.prodata.download.job;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
+
+/**
+ * Tracks interrupted downloads in the temp directory. Each file id gets a stable
+ * {@code .download} path plus a {@code .download.state.json} record of the validators the transfer
+ * started with, so a later run can continue the same content with a range request.
+ */
+public class PartialDownloadStore {
+    static final String PARTIAL_SUFFIX = ".download";
+    static final String STATE_SUFFIX = ".download.state.json";
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public PartialDownloadStore() {
+        this(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
+    }
+
+    public PartialDownloadStore(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public Path partialPath(Path tempDir, RemoteFile file) {
+        String prefix = file.name().toLowerCase(Locale.ROOT).replace(".csv", "");
+        return tempDir.resolve(prefix + "-" + file.id() + PARTIAL_SUFFIX);
+    }
+
+    public Optional<Resume> resumable(Path partial, RemoteFile file, RemoteFileMetadata current)
+            throws IOException {
+        Path statePath = statePath(partial);
+        if (!Files.exists(partial) || !Files.exists(statePath)) {
+            return Optional.empty();
+        }
+        State state;
+        try {
+            state = objectMapper.readValue(statePath.toFile(), State.class);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+        long length = Files.size(partial);
+        if (length == 0 || !file.id().equals(state.fileId()) || !sameContent(state, current)) {
+            return Optional.empty();
+        }
+        if (current.contentLength() >= 0 && length >= current.contentLength()) {
+            return Optional.empty();
+        }
+        String ifRange = new RemoteFileMetadata(state.etag(), state.lastModified(), state.contentLength())
+                .ifRangeValidator();
+        return Optional.of(new Resume(length, ifRange));
+    }
+
+    public void begin(Path partial, RemoteFile file, RemoteFileMetadata metadata) throws IOException {
+        objectMapper.writeValue(statePath(partial).toFile(), new State(
+                file.id(),
+                metadata.etag(),
+                metadata.lastModified(),
+                metadata.contentLength()
+        ));
+    }
+
+    public void clear(Path partial) throws IOException {
+        Files.deleteIfExists(statePath(partial));
+    }
+
+    public int cleanupOrphans(Path tempDir, Duration maxAge) throws IOException {
+        Instant cutoff = Instant.now(clock).minus(maxAge);
+        int deleted = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(tempDir)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (!name.endsWith(PARTIAL_SUFFIX) && !name.endsWith(STATE_SUFFIX)) {
+                    continue;
+                }
+                if (Files.isRegularFile(entry) && Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(entry);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private boolean sameContent(State state, RemoteFileMetadata current) {
+        if (state.contentLength() >= 0 && current.contentLength() >= 0
+                && state.contentLength() != current.contentLength()) {
+            return false;
+        }
+        if (state.etag() != null && current.etag() != null) {
+            return state.etag().equals(current.etag());
+        }
+        return state.lastModified() != null && Objects.equals(state.lastModified(), current.lastModified());
+    }
+
+    private Path statePath(Path partial) {
+        String name = partial.getFileName().toString();
+        return partial.resolveSibling(name.substring(0, name.length() - PARTIAL_SUFFIX.length()) + STATE_SUFFIX);
+    }
+
+    public record Resume(long length, String ifRange) {
+    }
+
+    record State(String fileId, String etag, String lastModified, long contentLength) {
+    }
+}
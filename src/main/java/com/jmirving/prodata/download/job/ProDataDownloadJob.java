@@ -1,22 +1,60 @@
 package com.jmirving.prodata.download.job;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.jmirving.prodata.download.aggregate.SummaryAggregator;
+import com.jmirving.prodata.download.aggregate.SummaryTables;
 import com.jmirving.prodata.download.config.ProDataDownloadProperties;
+import com.jmirving.prodata.download.diff.ChangeFeedEntry;
+import com.jmirving.prodata.download.diff.ChangeFeedWriter;
+import com.jmirving.prodata.download.diff.GameRange;
+import com.jmirving.prodata.download.diff.NewGameScanner;
+import com.jmirving.prodata.download.diff.RowDiff;
+import com.jmirving.prodata.download.diff.RowDiffer;
+import com.jmirving.prodata.download.export.ArrowExporter;
+import com.jmirving.prodata.download.export.ExportResult;
+import com.jmirving.prodata.download.generation.GenerationPublisher;
+import com.jmirving.prodata.download.ingest.IncrementalIngest;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+import com.jmirving.prodata.download.partition.CsvPartitioner;
+import com.jmirving.prodata.download.partition.StagedPartitions;
 import com.jmirving.prodata.download.provider.DownloadProvider;
 import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
+import com.jmirving.prodata.download.provider.TransferAbortedException;
+import com.jmirving.prodata.download.provider.TransferWatchdog;
 import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.ContentStore;
 import com.jmirving.prodata.download.publish.DownloadManifest;
+import com.jmirving.prodata.download.publish.GameIndex;
+import com.jmirving.prodata.download.publish.GameIndexWriter;
 import com.jmirving.prodata.download.publish.ManifestWriter;
+import com.jmirving.prodata.download.publish.PublishGroup;
+import com.jmirving.prodata.download.publish.StoreCollection;
 import com.jmirving.prodata.download.select.YearFileSelector;
+import com.jmirving.prodata.download.validate.CsvBodyValidator;
 import com.jmirving.prodata.download.validate.CsvHeaderValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,21 +68,36 @@ public class ProDataDownloadJob {
     private final CsvHeaderValidator csvHeaderValidator;
     private final AtomicFilePublisher filePublisher;
     private final ManifestWriter manifestWriter;
+    private final PartialDownloadStore partialDownloads;
+    private final RowDiffer rowDiffer;
+    private final ChangeFeedWriter changeFeedWriter;
+    private final GameIndexWriter gameIndexWriter;
+    private final ArrowExporter arrowExporter;
+    private final CsvPartitioner partitioner;
+    private final SummaryAggregator summaryAggregator;
+    private final CsvBodyValidator csvBodyValidator;
+    private final GenerationPublisher generationPublisher;
 
-    public ProDataDownloadJob(
-            ProDataDownloadProperties properties,
-            DownloadProvider downloadProvider,
-            YearFileSelector yearFileSelector,
-            CsvHeaderValidator csvHeaderValidator,
-            AtomicFilePublisher filePublisher,
-            ManifestWriter manifestWriter
-    ) {
-        this.properties = properties;
-        this.downloadProvider = downloadProvider;
-        this.yearFileSelector = yearFileSelector;
-        this.csvHeaderValidator = csvHeaderValidator;
-        this.filePublisher = filePublisher;
-        this.manifestWriter = manifestWriter;
+    private ProDataDownloadJob(Builder builder) {
+        this.properties = Objects.requireNonNull(builder.properties, "properties");
+        this.downloadProvider = Objects.requireNonNull(builder.downloadProvider, "downloadProvider");
+        this.yearFileSelector = Objects.requireNonNull(builder.yearFileSelector, "yearFileSelector");
+        this.csvHeaderValidator = Objects.requireNonNull(builder.csvHeaderValidator, "csvHeaderValidator");
+        this.filePublisher = Objects.requireNonNull(builder.filePublisher, "filePublisher");
+        this.manifestWriter = Objects.requireNonNull(builder.manifestWriter, "manifestWriter");
+        this.partialDownloads = Objects.requireNonNull(builder.partialDownloads, "partialDownloads");
+        this.rowDiffer = Objects.requireNonNull(builder.rowDiffer, "rowDiffer");
+        this.changeFeedWriter = Objects.requireNonNull(builder.changeFeedWriter, "changeFeedWriter");
+        this.gameIndexWriter = Objects.requireNonNull(builder.gameIndexWriter, "gameIndexWriter");
+        this.arrowExporter = Objects.requireNonNull(builder.arrowExporter, "arrowExporter");
+        this.partitioner = Objects.requireNonNull(builder.partitioner, "partitioner");
+        this.summaryAggregator = Objects.requireNonNull(builder.summaryAggregator, "summaryAggregator");
+        this.csvBodyValidator = Objects.requireNonNull(builder.csvBodyValidator, "csvBodyValidator");
+        this.generationPublisher = Objects.requireNonNull(builder.generationPublisher, "generationPublisher");
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     public int run() {
@@ -58,9 +111,12 @@ public class ProDataDownloadJob {
     }
 
     private void execute() throws IOException, InterruptedException {
+        Instant runStartedAt = Instant.now();
         Path outputDir = resolveOutputDir();
         Path tempDir = resolveTempDir(outputDir);
         ensureSameFileStore(outputDir, tempDir);
+        cleanupOrphans(tempDir);
+        recoverChangeFeed(outputDir);
 
         List<RemoteFile> availableFiles = downloadProvider.listFiles();
         List<Integer> targetYears;
@@ -81,29 +137,392 @@ public class ProDataDownloadJob {
         }
 
         logger.info("Downloading years {} from {}", targetYears, properties.getGoogleDriveFolderUrl());
-        for (RemoteFile file : selectedFiles) {
-            Path tempFile = createTempFile(tempDir, file.name());
-            downloadProvider.download(file, tempFile);
-            csvHeaderValidator.validate(tempFile);
+        if ((properties.isSkipUnchanged() || properties.isIncremental()) && !properties.isManifestEnabled()) {
+            logger.warn("skipUnchanged and incremental require manifestEnabled; every selected year will be downloaded in full");
+        }
+        List<FileOutcome> outcomes = downloadAll(selectedFiles, outputDir, tempDir, runStartedAt);
+
+        List<String> failedFiles = new ArrayList<>();
+        for (FileOutcome outcome : outcomes) {
+            if (outcome.failure() != null) {
+                failedFiles.add(outcome.file().name());
+                logger.error("Failed to publish {}", outcome.file().name(), outcome.failure());
+                continue;
+            }
+            if (outcome.skipped()) {
+                logger.info(
+                        "Skipped unchanged {} (rows={}, sha256={}, source={})",
+                        outcome.destination(),
+                        outcome.manifest().rowCount(),
+                        outcome.manifest().sha256(),
+                        outcome.manifest().sourceUrl()
+                );
+                continue;
+            }
+            logger.info(
+                    "Published {} (rows={}, sha256={}, source={})",
+                    outcome.destination(),
+                    outcome.manifest().rowCount(),
+                    outcome.manifest().sha256(),
+                    outcome.manifest().sourceUrl()
+            );
+            if (outcome.newGames() != null) {
+                appendChangeFeed(outputDir, outcome);
+            }
+        }
+        if (!failedFiles.isEmpty()) {
+            if (properties.isGenerationsEnabled()) {
+                logger.warn("Not cutting a generation; {} stays at {}", GenerationPublisher.CURRENT_LINK,
+                        generationPublisher.current(outputDir).map(Path::getFileName).orElse(null));
+            }
+            throw new IllegalStateException("Failed to publish files: " + failedFiles);
+        }
+        if (properties.isGenerationsEnabled()) {
+            publishGeneration(outputDir, tempDir, outcomes);
+        }
+        if (properties.isContentStoreEnabled()) {
+            collectStoreGarbage(outputDir);
+        }
+    }
+
+    private void collectStoreGarbage(Path outputDir) {
+        try {
+            StoreCollection collection = contentStore(outputDir).collectGarbage(properties.getContentStoreRetention());
+            logger.info("Content store: {} referenced, {} unreferenced within {}, {} deleted ({} bytes freed)",
+                    collection.referencedObjects(), collection.unreferencedObjects(),
+                    properties.getContentStoreRetention(), collection.deletedObjects(), collection.freedBytes());
+        } catch (IOException e) {
+            logger.warn("Failed to collect content store garbage in {}", outputDir, e);
+        }
+    }
+
+    private static ContentStore contentStore(Path outputDir) {
+        return new ContentStore(outputDir.resolve(ContentStore.STORE_DIR));
+    }
+
+    private void publishGeneration(Path outputDir, Path tempDir, List<FileOutcome> outcomes) throws IOException {
+        boolean changed = outcomes.stream().anyMatch(outcome -> !outcome.skipped());
+        if (!changed && generationPublisher.current(outputDir).isPresent()) {
+            logger.info("All years unchanged; {} stays at {}", GenerationPublisher.CURRENT_LINK,
+                    generationPublisher.current(outputDir).get().getFileName());
+            return;
+        }
+        Path generation = generationPublisher.publish(outputDir, tempDir);
+        logger.info("Published generation {} as {}", generation.getFileName(), GenerationPublisher.CURRENT_LINK);
+    }
+
+    private List<FileOutcome> downloadAll(List<RemoteFile> selectedFiles, Path outputDir, Path tempDir,
+            Instant runStartedAt) throws InterruptedException {
+        int parallelism = Math.min(Math.max(1, properties.getMaxConcurrentDownloads()), selectedFiles.size());
+        Duration runTimeout = properties.getRunTimeout();
+        RunBudget budget = runTimeout == null || runTimeout.isZero() || runTimeout.isNegative()
+                ? null
+                : new RunBudget(Instant.now().plus(runTimeout), selectedFiles.size(), parallelism, Clock.systemUTC());
+        List<FileOutcome> outcomes = new ArrayList<>();
+        if (parallelism <= 1) {
+            for (RemoteFile file : selectedFiles) {
+                outcomes.add(processFileWithinBudget(file, outputDir, tempDir, runStartedAt, budget));
+            }
+            return outcomes;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DownloadThreadFactory());
+        try {
+            List<Future<FileOutcome>> futures = new ArrayList<>();
+            for (RemoteFile file : selectedFiles) {
+                futures.add(executor.submit(() -> processFileWithinBudget(file, outputDir, tempDir, runStartedAt, budget)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(FileOutcome.failed(selectedFiles.get(i), e.getCause()));
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FileOutcome processFileWithinBudget(RemoteFile file, Path outputDir, Path tempDir, Instant runStartedAt,
+            RunBudget budget) throws InterruptedException {
+        if (budget == null) {
+            return processFile(file, outputDir, tempDir, runStartedAt);
+        }
+        Instant deadline = budget.nextFileDeadline();
+        if (!deadline.isAfter(Instant.now())) {
+            return FileOutcome.failed(file, new TransferAbortedException("Run timeout exhausted before download started"));
+        }
+        TransferWatchdog.DeadlineScope scope = TransferWatchdog.withDeadline(deadline);
+        try {
+            return processFile(file, outputDir, tempDir, runStartedAt);
+        } finally {
+            scope.close();
+        }
+    }
 
+    private FileOutcome processFile(RemoteFile file, Path outputDir, Path tempDir, Instant runStartedAt)
+            throws InterruptedException {
+        Path tempFile = null;
+        Path tempExport = null;
+        StagedPartitions partitions = null;
+        Path tempPickBans = null;
+        Path tempTeams = null;
+        boolean resumable = false;
+        try {
             Path destination = outputDir.resolve(file.name());
-            filePublisher.publish(tempFile, destination);
+            Path manifestPath = manifestPath(destination);
+            boolean usePreviousManifest = (properties.isSkipUnchanged() || properties.isIncremental())
+                    && properties.isManifestEnabled();
+            RemoteFileMetadata metadata = null;
+            Optional<DownloadManifest> previous = Optional.empty();
+            if (usePreviousManifest || properties.isResumeDownloads()) {
+                metadata = downloadProvider.probe(file).orElse(null);
+            }
+            if (usePreviousManifest) {
+                previous = manifestWriter.read(manifestPath);
+            }
+            if (properties.isSkipUnchanged() && metadata != null && previous.isPresent()
+                    && isUnchanged(previous.get(), metadata, destination)) {
+                return new FileOutcome(file, destination, previous.get(), true, null, null);
+            }
 
+            // Resuming needs validators to prove the partial bytes belong to the current content.
+            resumable = properties.isResumeDownloads() && metadata != null;
+            tempFile = resumable ? partialDownloads.partialPath(tempDir, file) : createTempFile(tempDir, file.name());
+            IngestResult ingest = null;
+            if (resumable) {
+                ingest = resumeDownload(file, metadata, tempFile).orElse(null);
+                if (ingest == null) {
+                    partialDownloads.begin(tempFile, file, metadata);
+                }
+            }
+            int incrementalRuns = 0;
+            if (ingest == null && properties.isIncremental() && previous.isPresent()) {
+                ingest = downloadIncrement(file, previous.get(), metadata, destination, tempFile).orElse(null);
+                if (ingest != null) {
+                    incrementalRuns = previous.get().incrementalRuns() + 1;
+                }
+            }
+            if (ingest == null) {
+                ingest = downloadProvider.download(file, tempFile, manifestWriter.ingestChecksums());
+            }
+            if (resumable) {
+                partialDownloads.clear(tempFile);
+            }
+            csvHeaderValidator.validateHeader(ingest.headerLine());
+            if (properties.isFullValidation()) {
+                csvBodyValidator.validate(tempFile);
+            }
+
+            RowDiff diff = properties.isDiffEnabled() && Files.exists(destination)
+                    ? rowDiffer.diff(destination, tempFile)
+                    : null;
+            List<GameRange> newGames = properties.isChangeFeedEnabled()
+                    ? NewGameScanner.newGames(destination, tempFile)
+                    : null;
+            GameIndex gameIndex = properties.isGameIndexEnabled() ? gameIndexWriter.build(tempFile, ingest.sha256()) : null;
+            ExportResult export = null;
+            if (properties.isArrowExportEnabled()) {
+                tempExport = tempSibling(tempFile, ArrowExporter.ARROW_SUFFIX);
+                export = arrowExporter.export(tempFile, tempExport);
+            }
             String sourceUrl = downloadProvider.sourceUrl(file);
-            DownloadManifest manifest = properties.isManifestEnabled()
-                    ? manifestWriter.write(destination, manifestPath(destination), sourceUrl)
-                    : manifestWriter.buildManifest(destination, sourceUrl);
+            if (properties.isPartitionEnabled()) {
+                partitions = partitioner.stage(tempFile, outputDir.resolve(CsvPartitioner.PARTITIONS_DIR),
+                        partitionName(file), sourceUrl);
+            }
+            SummaryTables summaries = null;
+            if (properties.isSummariesEnabled()) {
+                summaries = summaryAggregator.aggregate(tempFile, file.name());
+                tempPickBans = tempSibling(tempFile, SummaryAggregator.PICK_BAN_SUFFIX);
+                tempTeams = tempSibling(tempFile, SummaryAggregator.TEAMS_SUFFIX);
+                summaryAggregator.write(summaries, tempPickBans, tempTeams);
+            }
+            // Every file of this year is renamed into place first; the directory syncs run once at the end.
+            try (PublishGroup group = filePublisher.openGroup()) {
+                if (properties.isContentStoreEnabled()) {
+                    filePublisher.publish(tempFile, destination, contentStore(outputDir), ingest.sha256(), group);
+                } else {
+                    filePublisher.publish(tempFile, destination, group);
+                }
+                if (summaries != null) {
+                    filePublisher.publish(tempPickBans, SummaryAggregator.pickBanPath(destination), group);
+                    filePublisher.publish(tempTeams, SummaryAggregator.teamsPath(destination), group);
+                    logger.info("Published summaries for {} ({} pick/ban rows, {} team rows)",
+                            destination.getFileName(), summaries.pickBans().size(), summaries.teams().size());
+                }
+                if (partitions != null) {
+                    partitioner.publish(partitions, group);
+                    logger.info("Published {} partition shards ({} rows) at {}",
+                            partitions.shardCount(), partitions.rowCount(), partitions.link());
+                    partitions = null;
+                }
+                if (export != null) {
+                    // The CSV stays the source of truth, so the export is only swapped in after it.
+                    filePublisher.publish(tempExport, ArrowExporter.exportPath(destination), group);
+                    logger.info("Exported {} rows of {} to Arrow ({} bytes, dictionary columns {})",
+                            export.rowCount(), destination.getFileName(), export.byteCount(), export.dictionaryColumns());
+                }
+                if (properties.isDiffEnabled()) {
+                    writeDiff(diff, tempFile, destination, group);
+                }
+                if (gameIndex != null) {
+                    publishSidecar(tempFile, destination, GameIndexWriter.indexPath(destination), group,
+                            path -> gameIndexWriter.write(gameIndex, path));
+                }
 
-            logger.info(
-                    "Published {} (rows={}, sha256={}, source={})",
+                DownloadManifest manifest = manifestWriter.buildManifest(ingest, destination, sourceUrl, metadata,
+                        incrementalRuns);
+                if (properties.isManifestEnabled()) {
+                    publishSidecar(tempFile, destination, manifestPath, group, path -> manifestWriter.write(manifest, path));
+                }
+                if (newGames != null) {
+                    // Published with the year, so a crash before the feed append cannot lose the entry.
+                    publishSidecar(tempFile, destination, ChangeFeedWriter.pendingPath(destination), group,
+                            path -> changeFeedWriter.writePending(path, runStartedAt, destination, manifest, newGames));
+                }
+                return new FileOutcome(file, destination, manifest, false, newGames, null);
+            }
+        } catch (InterruptedException e) {
+            discardTempFile(tempFile, resumable);
+            discardTempFile(tempExport, false);
+            discardTempFile(tempPickBans, false);
+            discardTempFile(tempTeams, false);
+            discardPartitions(partitions);
+            throw e;
+        } catch (IOException e) {
+            // Transfer failures keep their partial bytes and state so the next run can resume.
+            discardTempFile(tempFile, resumable);
+            discardTempFile(tempExport, false);
+            discardTempFile(tempPickBans, false);
+            discardTempFile(tempTeams, false);
+            discardPartitions(partitions);
+            return FileOutcome.failed(file, e);
+        } catch (Exception e) {
+            discardTempFile(tempFile, false);
+            discardTempFile(tempExport, false);
+            discardTempFile(tempPickBans, false);
+            discardTempFile(tempTeams, false);
+            discardPartitions(partitions);
+            return FileOutcome.failed(file, e);
+        }
+    }
+
+    private void appendChangeFeed(Path outputDir, FileOutcome outcome) throws IOException {
+        Path feedPath = outputDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+        changeFeedWriter.appendPending(feedPath, ChangeFeedWriter.pendingPath(outcome.destination()));
+        logger.info("Change feed: {} new games in {}", outcome.newGames().size(), outcome.destination().getFileName());
+    }
+
+    private void recoverChangeFeed(Path outputDir) throws IOException {
+        List<ChangeFeedEntry> recovered = changeFeedWriter.recoverPending(
+                outputDir.resolve(ChangeFeedWriter.FEED_FILE_NAME), outputDir);
+        for (ChangeFeedEntry entry : recovered) {
+            logger.warn("Change feed: recovered entry {} for {} published by the run started at {}",
+                    entry.sequence(), entry.file(), entry.runStartedAt());
+        }
+    }
+
+    private void writeDiff(RowDiff diff, Path tempFile, Path destination, PublishGroup group) throws IOException {
+        Path diffPath = RowDiffer.diffPath(destination);
+        if (diff == null) {
+            Files.deleteIfExists(diffPath);
+            return;
+        }
+        publishSidecar(tempFile, destination, diffPath, group, path -> rowDiffer.write(diff, path));
+        logger.info("Row diff for {}: {} added, {} changed, {} removed",
+                destination.getFileName(), diff.added().size(), diff.changed().size(), diff.removed().size());
+    }
+
+    private void publishSidecar(
+            Path tempFile,
+            Path destination,
+            Path sidecar,
+            PublishGroup group,
+            AtomicFilePublisher.ContentWriter writer
+    ) throws IOException {
+        String suffix = sidecar.getFileName().toString().substring(destination.getFileName().toString().length());
+        Path tempSidecar = tempSibling(tempFile, suffix);
+        try {
+            writer.write(tempSidecar);
+            filePublisher.publish(tempSidecar, sidecar, group);
+        } finally {
+            Files.deleteIfExists(tempSidecar);
+        }
+    }
+
+    private Optional<IngestResult> resumeDownload(RemoteFile file, RemoteFileMetadata metadata, Path partial)
+            throws IOException, InterruptedException {
+        Optional<PartialDownloadStore.Resume> resume = partialDownloads.resumable(partial, file, metadata);
+        if (resume.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<InputStream> tail = downloadProvider.openRange(file, resume.get().length(), resume.get().ifRange());
+        if (tail.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = tail.get()) {
+            return Optional.of(StreamingIngest.resume(partial, inputStream, manifestWriter.ingestChecksums()));
+        }
+    }
+
+    private Optional<IngestResult> downloadIncrement(
+            RemoteFile file,
+            DownloadManifest previous,
+            RemoteFileMetadata metadata,
+            Path destination,
+            Path tempFile
+    ) throws IOException, InterruptedException {
+        if (previous.overlapSha256() == null || !Files.exists(destination)
+                || Files.size(destination) != previous.byteCount()) {
+            return Optional.empty();
+        }
+        if (metadata == null || metadata.contentLength() <= previous.byteCount()) {
+            return Optional.empty();
+        }
+        int fullDownloadEvery = properties.getIncrementalFullDownloadEvery();
+        if (fullDownloadEvery > 0 && previous.incrementalRuns() >= fullDownloadEvery) {
+            logger.info("{} was built incrementally {} times in a row; downloading it in full",
+                    file.name(), previous.incrementalRuns());
+            return Optional.empty();
+        }
+        Optional<InputStream> tail = downloadProvider.openRange(file, previous.byteCount() - previous.overlapLength(),
+                metadata.ifRangeValidator());
+        if (tail.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = tail.get()) {
+            return IncrementalIngest.append(
                     destination,
-                    manifest.rowCount(),
-                    manifest.sha256(),
-                    manifest.sourceUrl()
+                    previous.overlapLength(),
+                    previous.overlapSha256(),
+                    inputStream,
+                    tempFile,
+                    metadata.contentLength(),
+                    manifestWriter.ingestChecksums()
             );
         }
     }
 
+    private boolean isUnchanged(DownloadManifest previous, RemoteFileMetadata current, Path destination)
+            throws IOException {
+        if (!Files.exists(destination) || Files.size(destination) != previous.byteCount()) {
+            return false;
+        }
+        if (current.contentLength() >= 0 && current.contentLength() != previous.byteCount()) {
+            return false;
+        }
+        if (current.etag() != null && previous.etag() != null) {
+            return current.etag().equals(previous.etag());
+        }
+        if (current.lastModified() != null && previous.lastModified() != null) {
+            return current.lastModified().equals(previous.lastModified());
+        }
+        return false;
+    }
+
     private Path resolveOutputDir() {
         String outputDir = properties.getOutputDir();
         String resolved = (outputDir == null || outputDir.isBlank()) ? "build/prodata" : outputDir;
@@ -159,7 +578,177 @@ public class ProDataDownloadJob {
         return targetYears.stream().filter(year -> !present.contains(year)).toList();
     }
 
+    private void cleanupOrphans(Path tempDir) {
+        try {
+            int deleted = partialDownloads.cleanupOrphans(tempDir, properties.getOrphanTempFileMaxAge());
+            if (deleted > 0) {
+                logger.info("Deleted {} orphaned temp files older than {} from {}",
+                        deleted, properties.getOrphanTempFileMaxAge(), tempDir);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to clean up orphaned temp files in {}", tempDir, e);
+        }
+    }
+
+    private void discardTempFile(Path tempFile, boolean keepForResume) {
+        if (tempFile == null || keepForResume) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+            if (tempFile.getFileName().toString().endsWith(PartialDownloadStore.PARTIAL_SUFFIX)) {
+                partialDownloads.clear(tempFile);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp file {}", tempFile, e);
+        }
+    }
+
+    private static Path tempSibling(Path tempFile, String suffix) {
+        return tempFile.resolveSibling(tempFile.getFileName() + suffix + PartialDownloadStore.PARTIAL_SUFFIX);
+    }
+
+    private void discardPartitions(StagedPartitions partitions) {
+        if (partitions == null) {
+            return;
+        }
+        try {
+            partitioner.discard(partitions);
+        } catch (IOException e) {
+            logger.warn("Failed to delete staged partitions {}", partitions.stagingDir(), e);
+        }
+    }
+
+    private static String partitionName(RemoteFile file) {
+        String name = file.name();
+        if (name.length() >= 4 && name.substring(0, 4).chars().allMatch(Character::isDigit)) {
+            return name.substring(0, 4);
+        }
+        return name.toLowerCase(Locale.ROOT).replace(".csv", "");
+    }
+
     private Path manifestPath(Path destination) {
         return destination.resolveSibling(destination.getFileName() + ".manifest.json");
     }
+
+    private record FileOutcome(
+            RemoteFile file,
+            Path destination,
+            DownloadManifest manifest,
+            boolean skipped,
+            List<GameRange> newGames,
+            Throwable failure
+    ) {
+        static FileOutcome failed(RemoteFile file, Throwable failure) {
+            return new FileOutcome(file, null, null, false, null, failure);
+        }
+    }
+
+    private static final class DownloadThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "prodata-download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public static final class Builder {
+        private ProDataDownloadProperties properties;
+        private DownloadProvider downloadProvider;
+        private YearFileSelector yearFileSelector;
+        private CsvHeaderValidator csvHeaderValidator;
+        private AtomicFilePublisher filePublisher;
+        private ManifestWriter manifestWriter;
+        private PartialDownloadStore partialDownloads;
+        private RowDiffer rowDiffer;
+        private ChangeFeedWriter changeFeedWriter;
+        private GameIndexWriter gameIndexWriter;
+        private ArrowExporter arrowExporter;
+        private CsvPartitioner partitioner;
+        private SummaryAggregator summaryAggregator;
+        private CsvBodyValidator csvBodyValidator;
+        private GenerationPublisher generationPublisher;
+
+        public Builder properties(ProDataDownloadProperties properties) {
+            this.properties = properties;
+            return this;
+        }
+
+        public Builder downloadProvider(DownloadProvider downloadProvider) {
+            this.downloadProvider = downloadProvider;
+            return this;
+        }
+
+        public Builder yearFileSelector(YearFileSelector yearFileSelector) {
+            this.yearFileSelector = yearFileSelector;
+            return this;
+        }
+
+        public Builder csvHeaderValidator(CsvHeaderValidator csvHeaderValidator) {
+            this.csvHeaderValidator = csvHeaderValidator;
+            return this;
+        }
+
+        public Builder filePublisher(AtomicFilePublisher filePublisher) {
+            this.filePublisher = filePublisher;
+            return this;
+        }
+
+        public Builder manifestWriter(ManifestWriter manifestWriter) {
+            this.manifestWriter = manifestWriter;
+            return this;
+        }
+
+        public Builder partialDownloads(PartialDownloadStore partialDownloads) {
+            this.partialDownloads = partialDownloads;
+            return this;
+        }
+
+        public Builder rowDiffer(RowDiffer rowDiffer) {
+            this.rowDiffer = rowDiffer;
+            return this;
+        }
+
+        public Builder changeFeedWriter(ChangeFeedWriter changeFeedWriter) {
+            this.changeFeedWriter = changeFeedWriter;
+            return this;
+        }
+
+        public Builder gameIndexWriter(GameIndexWriter gameIndexWriter) {
+            this.gameIndexWriter = gameIndexWriter;
+            return this;
+        }
+
+        public Builder arrowExporter(ArrowExporter arrowExporter) {
+            this.arrowExporter = arrowExporter;
+            return this;
+        }
+
+        public Builder partitioner(CsvPartitioner partitioner) {
+            this.partitioner = partitioner;
+            return this;
+        }
+
+        public Builder summaryAggregator(SummaryAggregator summaryAggregator) {
+            this.summaryAggregator = summaryAggregator;
+            return this;
+        }
+
+        public Builder csvBodyValidator(CsvBodyValidator csvBodyValidator) {
+            this.csvBodyValidator = csvBodyValidator;
+            return this;
+        }
+
+        public Builder generationPublisher(GenerationPublisher generationPublisher) {
+            this.generationPublisher = generationPublisher;
+            return this;
+        }
+
+        public ProDataDownloadJob build() {
+            return new ProDataDownloadJob(this);
+        }
+    }
 }
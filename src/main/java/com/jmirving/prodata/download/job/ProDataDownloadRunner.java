@@ -1,5 +1,6 @@
 package com.jmirving.prodata.download.job;
 
+import com.jmirving.prodata.download.config.ProDataDownloadProperties;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
@@ -7,13 +8,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class ProDataDownloadRunner implements ApplicationRunner {
     private final ProDataDownloadJob job;
+    private final ProDataDownloadProperties properties;
+    private final DownloadDaemon daemon;
 
-    public ProDataDownloadRunner(ProDataDownloadJob job) {
+    public ProDataDownloadRunner(ProDataDownloadJob job, ProDataDownloadProperties properties, DownloadDaemon daemon) {
         this.job = job;
+        this.properties = properties;
+        this.daemon = daemon;
     }
 
     @Override
     public void run(ApplicationArguments args) {
+        if (properties.isDaemon()) {
+            daemon.start();
+            return;
+        }
         int exitCode = job.run();
         System.exit(exitCode);
     }
@@ -0,0 +1,33 @@
+package com.jmirving.prodata.download.job;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Splits what is left of a run-wide time budget across the files that have not started yet.
+ */
+final class RunBudget {
+    private final Instant runDeadline;
+    private final int parallelism;
+    private final Clock clock;
+    private int outstanding;
+
+    RunBudget(Instant runDeadline, int fileCount, int parallelism, Clock clock) {
+        this.runDeadline = runDeadline;
+        this.outstanding = fileCount;
+        this.parallelism = Math.max(1, parallelism);
+        this.clock = clock;
+    }
+
+    synchronized Instant nextFileDeadline() {
+        Instant now = Instant.now(clock);
+        int waves = Math.max(1, (outstanding + parallelism - 1) / parallelism);
+        outstanding = Math.max(0, outstanding - 1);
+        Duration remaining = Duration.between(now, runDeadline);
+        if (remaining.isNegative() || remaining.isZero()) {
+            return runDeadline;
+        }
+        return now.plus(remaining.dividedBy(waves));
+    }
+}
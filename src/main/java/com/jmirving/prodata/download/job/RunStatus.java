@@ -0,0 +1,48 @@
+package com.jmirving.prodata.download.job;
+
+import java.time.Instant;
+
+public record RunStatus(
+        boolean running,
+        long runCount,
+        Instant lastStartedAt,
+        Instant lastFinishedAt,
+        Long lastDurationMillis,
+        Integer lastExitCode,
+        Instant lastSuccessAt,
+        int consecutiveFailures,
+        Instant nextRunAt,
+        long pollCount,
+        Instant lastPollAt
+) {
+    static RunStatus initial(Instant nextRunAt) {
+        return new RunStatus(false, 0, null, null, null, null, null, 0, nextRunAt, 0, null);
+    }
+
+    RunStatus started(Instant startedAt) {
+        return new RunStatus(true, runCount, startedAt, lastFinishedAt, lastDurationMillis, lastExitCode,
+                lastSuccessAt, consecutiveFailures, null, pollCount, lastPollAt);
+    }
+
+    RunStatus polled(Instant polledAt, Instant nextRunAt) {
+        return new RunStatus(running, runCount, lastStartedAt, lastFinishedAt, lastDurationMillis, lastExitCode,
+                lastSuccessAt, consecutiveFailures, nextRunAt, pollCount + 1, polledAt);
+    }
+
+    RunStatus finished(Instant finishedAt, int exitCode, Instant nextRunAt) {
+        boolean succeeded = exitCode == 0;
+        return new RunStatus(
+                false,
+                runCount + 1,
+                lastStartedAt,
+                finishedAt,
+                finishedAt.toEpochMilli() - lastStartedAt.toEpochMilli(),
+                exitCode,
+                succeeded ? finishedAt : lastSuccessAt,
+                succeeded ? 0 : consecutiveFailures + 1,
+                nextRunAt,
+                pollCount,
+                lastPollAt
+        );
+    }
+}
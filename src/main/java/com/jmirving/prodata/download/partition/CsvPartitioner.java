@@ -0,0 +1,270 @@
+package com.jmirving.prodata.download.partition;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.ManifestWriter;
+import com.jmirving.prodata.download.publish.PublishGroup;
+
+/**
+ * Splits a year CSV into {@code <league>/<yyyy-MM>.csv} shards in one streaming pass. Every shard
+ * starts with the original header, and its records end with {@code \n}. Each shard gets a manifest
+ * next to it, built from the digest and row count taken while writing.
+ */
+public class CsvPartitioner {
+    public static final String PARTITIONS_DIR = "partitions";
+    static final int MAX_OPEN_SHARDS = 64;
+    private static final String LEAGUE_COLUMN = "league";
+    private static final String DATE_COLUMN = "date";
+    private static final String UNKNOWN = "unknown";
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+
+    private final ManifestWriter manifestWriter;
+    private final AtomicFilePublisher filePublisher;
+
+    public CsvPartitioner() {
+        this(new ManifestWriter());
+    }
+
+    public CsvPartitioner(ManifestWriter manifestWriter) {
+        this(manifestWriter, new AtomicFilePublisher());
+    }
+
+    public CsvPartitioner(ManifestWriter manifestWriter, AtomicFilePublisher filePublisher) {
+        this.manifestWriter = manifestWriter;
+        this.filePublisher = filePublisher;
+    }
+
+    public StagedPartitions stage(Path csvPath, Path partitionsRoot, String year, String sourceUrl) throws IOException {
+        Files.createDirectories(partitionsRoot);
+        Path link = partitionsRoot.resolve(year);
+        deleteAbandonedStaging(link);
+        Path stagingDir = Files.createTempDirectory(partitionsRoot, stagingPrefix(year));
+        try {
+            Map<String, ShardWriter> shards = split(csvPath, stagingDir);
+            long rowCount = 0;
+            for (ShardWriter shard : shards.values()) {
+                IngestResult ingest = shard.result();
+                manifestWriter.write(ingest, shard.path, shard.path.resolveSibling(shard.path.getFileName() + MANIFEST_SUFFIX),
+                        sourceUrl, null);
+                rowCount += ingest.rowCount();
+            }
+            return new StagedPartitions(link, stagingDir, shards.size(), rowCount);
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(stagingDir);
+            throw e;
+        }
+    }
+
+    public void publish(StagedPartitions staged) throws IOException {
+        try (PublishGroup group = filePublisher.openGroup()) {
+            publish(staged, group);
+        }
+    }
+
+    public void publish(StagedPartitions staged, PublishGroup group) throws IOException {
+        Path link = staged.link();
+        Path previous = Files.isSymbolicLink(link) ? link.resolveSibling(Files.readSymbolicLink(link)) : null;
+        if (previous == null && Files.exists(link, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException("Partition path exists and is not a symlink: " + link);
+        }
+        Path newLink = link.resolveSibling(staged.stagingDir().getFileName() + ".link");
+        Files.deleteIfExists(newLink);
+        filePublisher.syncTree(staged.stagingDir());
+        Files.createSymbolicLink(newLink, staged.stagingDir().getFileName());
+        filePublisher.publishLink(newLink, link, group);
+        if (previous != null && !previous.equals(staged.stagingDir())) {
+            deleteRecursively(previous);
+        }
+    }
+
+    public void discard(StagedPartitions staged) throws IOException {
+        deleteRecursively(staged.stagingDir());
+    }
+
+    private Map<String, ShardWriter> split(Path csvPath, Path stagingDir) throws IOException {
+        Map<String, ShardWriter> shards = new LinkedHashMap<>();
+        LinkedHashMap<String, ShardWriter> open = new LinkedHashMap<>(16, 0.75f, true);
+        byte[][] header = new byte[1][];
+        int[] columns = new int[2];
+        try {
+            CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+                if (index == 0) {
+                    header[0] = Arrays.copyOf(record, length);
+                    columns[0] = requireColumn(csvPath, record, length, LEAGUE_COLUMN);
+                    columns[1] = requireColumn(csvPath, record, length, DATE_COLUMN);
+                    return;
+                }
+                String key = league(record, length, columns[0]) + "/" + month(record, length, columns[1]);
+                ShardWriter shard = shards.get(key);
+                if (shard == null) {
+                    shard = new ShardWriter(stagingDir.resolve(key + ".csv"), header[0]);
+                    shards.put(key, shard);
+                }
+                if (open.get(key) == null) {
+                    // Files are mostly ordered by date, so few shards are active at once.
+                    if (open.size() == MAX_OPEN_SHARDS) {
+                        Iterator<ShardWriter> eldest = open.values().iterator();
+                        eldest.next().close();
+                        eldest.remove();
+                    }
+                    shard.open();
+                    open.put(key, shard);
+                }
+                shard.write(record, length);
+            });
+        } finally {
+            for (ShardWriter shard : open.values()) {
+                shard.close();
+            }
+        }
+        return shards;
+    }
+
+    private static int requireColumn(Path csvPath, byte[] header, int length, String name) throws IOException {
+        int column = CsvRecordScanner.columnIndex(header, length, name);
+        if (column < 0) {
+            throw new IOException("CSV " + csvPath + " has no " + name + " column");
+        }
+        return column;
+    }
+
+    static String league(byte[] record, int length, int column) {
+        String league = CsvRecordScanner.fieldString(record, length, column);
+        if (league == null || league.isBlank()) {
+            return UNKNOWN;
+        }
+        StringBuilder safe = new StringBuilder(league.length());
+        for (int i = 0; i < league.length(); i++) {
+            char c = league.charAt(i);
+            safe.append(c < 128 && (Character.isLetterOrDigit(c) || c == '-' || c == '_') ? c : '_');
+        }
+        return safe.toString();
+    }
+
+    static String month(byte[] record, int length, int column) {
+        int[] bounds = CsvRecordScanner.field(record, length, column);
+        if (bounds == null || bounds[1] - bounds[0] < 7 || record[bounds[0] + 4] != '-') {
+            return UNKNOWN;
+        }
+        for (int i : new int[] {0, 1, 2, 3, 5, 6}) {
+            byte b = record[bounds[0] + i];
+            if (b < '0' || b > '9') {
+                return UNKNOWN;
+            }
+        }
+        return new String(record, bounds[0], 7, StandardCharsets.US_ASCII);
+    }
+
+    private static String stagingPrefix(String year) {
+        return "." + year + "-";
+    }
+
+    private static void deleteAbandonedStaging(Path link) throws IOException {
+        Path current = Files.isSymbolicLink(link) ? link.resolveSibling(Files.readSymbolicLink(link)) : null;
+        String prefix = stagingPrefix(link.getFileName().toString());
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(link.getParent(), prefix + "*")) {
+            for (Path entry : entries) {
+                if (!entry.equals(current)) {
+                    if (Files.isSymbolicLink(entry)) {
+                        Files.delete(entry);
+                    } else {
+                        deleteRecursively(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            List<Path> sorted = paths.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : sorted) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static final class ShardWriter {
+        private final Path path;
+        private final byte[] header;
+        private final MessageDigest digest;
+        private OutputStream output;
+        private long byteCount;
+        private long rowCount;
+
+        private ShardWriter(Path path, byte[] header) {
+            this.path = path;
+            this.header = header;
+            this.digest = newSha256();
+        }
+
+        void open() throws IOException {
+            boolean created = byteCount == 0;
+            if (created) {
+                Files.createDirectories(path.getParent());
+            }
+            output = new BufferedOutputStream(Files.newOutputStream(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+            if (created) {
+                append(header, header.length);
+            }
+        }
+
+        void write(byte[] record, int length) throws IOException {
+            append(record, length);
+            rowCount++;
+        }
+
+        private void append(byte[] bytes, int length) throws IOException {
+            output.write(bytes, 0, length);
+            output.write('\n');
+            digest.update(bytes, 0, length);
+            digest.update((byte) '\n');
+            byteCount += length + 1;
+        }
+
+        void close() throws IOException {
+            if (output != null) {
+                output.close();
+                output = null;
+            }
+        }
+
+        IngestResult result() {
+            String headerLine = new String(header, StandardCharsets.UTF_8);
+            return new IngestResult(byteCount, rowCount, HexFormat.of().formatHex(digest.digest()), headerLine, 0, null);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.jmirving.prodata.download.partition;
+
+import java.nio.file.Path;
+
+public record StagedPartitions(Path link, Path stagingDir, int shardCount, long rowCount) {
+}
@@ -0,0 +1,64 @@
+package com.jmirving.prodata.download.poll;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Polls every {@code minInterval} within {@code window} of the times of day at which changes were
+ * seen before, and every {@code maxInterval} elsewhere, never sleeping past the next window.
+ */
+public class AdaptivePollInterval {
+    private static final long MINUTES_PER_DAY = Duration.ofDays(1).toMinutes();
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration window;
+    private final ZoneId zone;
+
+    public AdaptivePollInterval(Duration minInterval, Duration maxInterval, Duration window, ZoneId zone) {
+        if (minInterval.isZero() || minInterval.isNegative() || maxInterval.compareTo(minInterval) < 0) {
+            throw new IllegalArgumentException(
+                    "Poll intervals need 0 < min <= max, got " + minInterval + " and " + maxInterval);
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.window = window;
+        this.zone = zone;
+    }
+
+    public Instant next(Instant now, List<Instant> changes) {
+        if (changes.isEmpty()) {
+            return now.plus(minInterval);
+        }
+        ZonedDateTime local = now.atZone(zone);
+        long minuteOfDay = local.toLocalTime().toSecondOfDay() / 60;
+        long windowMinutes = window.toMinutes();
+        Instant nextWindow = null;
+        for (Instant change : changes) {
+            long changeMinute = change.atZone(zone).toLocalTime().toSecondOfDay() / 60;
+            long distance = Math.floorMod(minuteOfDay - changeMinute, MINUTES_PER_DAY);
+            if (Math.min(distance, MINUTES_PER_DAY - distance) <= windowMinutes) {
+                return now.plus(minInterval);
+            }
+            long opensAt = Math.floorMod(changeMinute - windowMinutes, MINUTES_PER_DAY);
+            ZonedDateTime opening = local.with(LocalTime.ofSecondOfDay(opensAt * 60));
+            if (!opening.isAfter(local)) {
+                opening = opening.plusDays(1);
+            }
+            if (nextWindow == null || opening.toInstant().isBefore(nextWindow)) {
+                nextWindow = opening.toInstant();
+            }
+        }
+        Instant idle = now.plus(maxInterval);
+        return nextWindow.isBefore(idle) ? nextWindow : idle;
+    }
+
+    @Override
+    public String toString() {
+        return "every " + minInterval + " within " + window + " of past changes, otherwise every " + maxInterval;
+    }
+}
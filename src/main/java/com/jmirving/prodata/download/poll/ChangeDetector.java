@@ -0,0 +1,65 @@
+package com.jmirving.prodata.download.poll;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import com.jmirving.prodata.download.provider.DownloadProvider;
+import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
+
+/**
+ * Takes a {@link ListingSnapshot} with one folder listing and one {@link DownloadProvider#probe} per
+ * selected file. A probe costs at most a confirmation page and a one-byte ranged request, so a poll
+ * never downloads a file.
+ */
+public class ChangeDetector {
+    private final DownloadProvider downloadProvider;
+    private final UnaryOperator<List<RemoteFile>> selector;
+
+    public ChangeDetector(DownloadProvider downloadProvider, UnaryOperator<List<RemoteFile>> selector) {
+        this.downloadProvider = downloadProvider;
+        this.selector = selector;
+    }
+
+    public ListingSnapshot snapshot() throws IOException, InterruptedException {
+        List<RemoteFile> listed = downloadProvider.listFiles();
+        Map<String, String> files = new LinkedHashMap<>();
+        for (RemoteFile file : selector.apply(listed)) {
+            RemoteFileMetadata metadata = downloadProvider.probe(file).orElse(null);
+            files.put(file.name(), validator(metadata));
+        }
+        return new ListingSnapshot(fingerprint(listed), files);
+    }
+
+    private static String fingerprint(List<RemoteFile> files) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        List<RemoteFile> sorted = files.stream()
+                .sorted(Comparator.comparing(RemoteFile::name).thenComparing(RemoteFile::id))
+                .toList();
+        for (RemoteFile file : sorted) {
+            digest.update((file.id() + "\t" + file.name() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String validator(RemoteFileMetadata metadata) {
+        if (metadata == null
+                || metadata.etag() == null && metadata.lastModified() == null && metadata.contentLength() < 0) {
+            return null;
+        }
+        return metadata.etag() + "|" + metadata.lastModified() + "|" + metadata.contentLength();
+    }
+}
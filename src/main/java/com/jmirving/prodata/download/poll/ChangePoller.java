@@ -0,0 +1,122 @@
+package com.jmirving.prodata.download.poll;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether the source changed since the last published run, and when to look again.
+ */
+public class ChangePoller {
+    public static final String STATE_FILE_NAME = ".poll.json";
+    private static final Logger logger = LoggerFactory.getLogger(ChangePoller.class);
+
+    private final ChangeDetector detector;
+    private final AdaptivePollInterval interval;
+    private final int historySize;
+    private final Path stateFile;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private PollState state;
+    private ListingSnapshot lastSeen;
+
+    public ChangePoller(
+            ChangeDetector detector,
+            AdaptivePollInterval interval,
+            int historySize,
+            Path stateFile,
+            ObjectMapper objectMapper,
+            Clock clock
+    ) {
+        this.detector = detector;
+        this.interval = interval;
+        this.historySize = Math.max(1, historySize);
+        this.stateFile = stateFile;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public synchronized Optional<ListingSnapshot> poll() throws IOException, InterruptedException {
+        PollState current = state();
+        ListingSnapshot snapshot = detector.snapshot();
+        List<String> changes = snapshot.changesSince(current.published());
+        if (changes.isEmpty()) {
+            lastSeen = snapshot;
+            return Optional.empty();
+        }
+        ListingSnapshot previous = lastSeen != null ? lastSeen : current.published();
+        if (previous != null && !snapshot.changesSince(previous).isEmpty()) {
+            List<Instant> history = new ArrayList<>(current.changes());
+            history.add(clock.instant());
+            if (history.size() > historySize) {
+                history = new ArrayList<>(history.subList(history.size() - historySize, history.size()));
+            }
+            state = new PollState(current.published(), history);
+            save();
+        }
+        lastSeen = snapshot;
+        logger.info("Source changed: {}", changes);
+        return Optional.of(snapshot);
+    }
+
+    public synchronized void published(ListingSnapshot snapshot) throws IOException {
+        state = new PollState(snapshot, state().changes());
+        save();
+    }
+
+    public synchronized Instant nextPoll(Instant now) {
+        return interval.next(now, stateOrEmpty().changes());
+    }
+
+    public synchronized List<Instant> changes() {
+        return stateOrEmpty().changes();
+    }
+
+    @Override
+    public String toString() {
+        return interval.toString();
+    }
+
+    private PollState stateOrEmpty() {
+        try {
+            return state();
+        } catch (IOException e) {
+            return PollState.EMPTY;
+        }
+    }
+
+    private PollState state() throws IOException {
+        if (state == null) {
+            state = stateFile != null && Files.exists(stateFile)
+                    ? objectMapper.readValue(stateFile.toFile(), PollState.class)
+                    : PollState.EMPTY;
+        }
+        return state;
+    }
+
+    private void save() throws IOException {
+        if (stateFile == null) {
+            return;
+        }
+        PollState saved = state;
+        AtomicFilePublisher.replace(stateFile, path -> objectMapper.writeValue(path.toFile(), saved));
+    }
+
+    record PollState(ListingSnapshot published, List<Instant> changes) {
+        static final PollState EMPTY = new PollState(null, List.of());
+
+        PollState {
+            changes = changes == null ? List.of() : List.copyOf(changes);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jmirving.prodata.download.poll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public record ListingSnapshot(String listing, Map<String, String> files) {
+    public List<String> changesSince(ListingSnapshot previous) {
+        List<String> changes = new ArrayList<>();
+        if (previous == null || !listing.equals(previous.listing())) {
+            changes.add("listing");
+        }
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            if (previous == null || !previous.files().containsKey(file.getKey())
+                    || !Objects.equals(file.getValue(), previous.files().get(file.getKey()))) {
+                changes.add(file.getKey());
+            }
+        }
+        if (previous != null) {
+            for (String name : previous.files().keySet()) {
+                if (!files.containsKey(name)) {
+                    changes.add(name);
+                }
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,256 @@
+package com.jmirving.prodata.download.provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.jmirving.prodata.download.provider.GoogleDriveDownloadProvider.DownloadForm;
+
+/**
+ * Single-pass scanner for the Google Drive virus-scan confirmation page. It reads the page in
+ * small chunks and stops as soon as it has a complete download form, so the page is never
+ * materialized and no backtracking regex runs over it. At most {@code maxBytes} bytes are consumed.
+ */
+final class ConfirmPageScanner {
+    private static final char[] CONFIRM_PREFIX = "confirm=".toCharArray();
+    private static final int MAX_TAG_CHARS = 16 * 1024;
+
+    private final Map<String, String> formParameters = new LinkedHashMap<>();
+    private final StringBuilder tag = new StringBuilder();
+    private final StringBuilder token = new StringBuilder();
+    private boolean inTag;
+    private char tagQuote;
+    private int confirmMatched;
+    private boolean collectingToken;
+    private String formAction;
+    private DownloadForm form;
+    private String confirmToken;
+
+    private ConfirmPageScanner() {
+    }
+
+    record Result(DownloadForm form, String confirmToken) {
+    }
+
+    static Result scan(InputStream inputStream, int maxBytes) throws IOException {
+        ConfirmPageScanner scanner = new ConfirmPageScanner();
+        Reader reader = new InputStreamReader(new BoundedInputStream(inputStream, maxBytes), StandardCharsets.UTF_8);
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (scanner.accept(buffer[i])) {
+                    return scanner.result();
+                }
+            }
+        }
+        scanner.finishToken();
+        return scanner.result();
+    }
+
+    private Result result() {
+        return new Result(form, form == null ? confirmToken : null);
+    }
+
+    private boolean accept(char c) {
+        if (acceptTokenChar(c)) {
+            return true;
+        }
+        if (inTag) {
+            if (tagQuote != 0) {
+                if (c == tagQuote) {
+                    tagQuote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                tagQuote = c;
+            } else if (c == '>') {
+                inTag = false;
+                return processTag();
+            }
+            if (tag.length() < MAX_TAG_CHARS) {
+                tag.append(c);
+            }
+        } else if (c == '<') {
+            inTag = true;
+            tagQuote = 0;
+            tag.setLength(0);
+        }
+        return false;
+    }
+
+    private boolean acceptTokenChar(char c) {
+        if (collectingToken) {
+            if (isTokenChar(c)) {
+                token.append(c);
+                return false;
+            }
+            return finishToken();
+        }
+        if (c == CONFIRM_PREFIX[confirmMatched]) {
+            confirmMatched++;
+            if (confirmMatched == CONFIRM_PREFIX.length) {
+                confirmMatched = 0;
+                collectingToken = true;
+                token.setLength(0);
+            }
+        } else {
+            confirmMatched = c == CONFIRM_PREFIX[0] ? 1 : 0;
+        }
+        return false;
+    }
+
+    private boolean finishToken() {
+        collectingToken = false;
+        if (token.length() > 0 && confirmToken == null) {
+            confirmToken = token.toString();
+        }
+        // Keep reading: a form later on the page takes precedence over a bare token.
+        return false;
+    }
+
+    private boolean processTag() {
+        String name = tagName();
+        if (name.equals("form")) {
+            String action = attribute("action");
+            if (action != null) {
+                formAction = action;
+                formParameters.clear();
+            }
+        } else if (name.equals("input")) {
+            String inputName = attribute("name");
+            String value = attribute("value");
+            if (inputName != null && value != null) {
+                if (formAction != null) {
+                    formParameters.put(inputName, value);
+                }
+                if (inputName.equals("confirm") && confirmToken == null && isToken(value)) {
+                    confirmToken = value;
+                }
+            }
+        } else if (name.equals("/form") && formAction != null) {
+            if (!formParameters.isEmpty()) {
+                form = new DownloadForm(formAction, new LinkedHashMap<>(formParameters));
+                return true;
+            }
+            formAction = null;
+        }
+        return false;
+    }
+
+    private String tagName() {
+        int end = tag.length() > 0 && tag.charAt(0) == '/' ? 1 : 0;
+        while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != '/') {
+            end++;
+        }
+        return tag.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private String attribute(String name) {
+        int length = tag.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isWhitespace(tag.charAt(i))) {
+                char c = tag.charAt(i);
+                if (c == '"' || c == '\'') {
+                    i = skipQuoted(i, c);
+                } else {
+                    i++;
+                }
+            }
+            while (i < length && Character.isWhitespace(tag.charAt(i))) {
+                i++;
+            }
+            int nameStart = i;
+            while (i < length && tag.charAt(i) != '=' && !Character.isWhitespace(tag.charAt(i))
+                    && tag.charAt(i) != '/') {
+                i++;
+            }
+            boolean matches = i - nameStart == name.length()
+                    && tag.substring(nameStart, i).equalsIgnoreCase(name);
+            if (i >= length || tag.charAt(i) != '=') {
+                continue;
+            }
+            i++;
+            if (i < length && (tag.charAt(i) == '"' || tag.charAt(i) == '\'')) {
+                char quote = tag.charAt(i);
+                int end = tag.indexOf(String.valueOf(quote), i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                if (matches) {
+                    return tag.substring(i + 1, end);
+                }
+                i = end + 1;
+            } else {
+                int valueStart = i;
+                while (i < length && !Character.isWhitespace(tag.charAt(i))) {
+                    i++;
+                }
+                if (matches) {
+                    return tag.substring(valueStart, i);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int skipQuoted(int start, char quote) {
+        int end = tag.indexOf(String.valueOf(quote), start + 1);
+        return end < 0 ? tag.length() : end + 1;
+    }
+
+    private static boolean isToken(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isTokenChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '_' || c == '-';
+    }
+
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream delegate;
+        private long remaining;
+
+        private BoundedInputStream(InputStream delegate, long maxBytes) {
+            this.delegate = delegate;
+            this.remaining = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = delegate.read();
+            if (value != -1) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = delegate.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
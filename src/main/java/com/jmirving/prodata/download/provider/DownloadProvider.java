@@ -1,13 +1,32 @@
 package com.jmirving.prodata.download.provider;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+
+import com.jmirving.prodata.download.ingest.IngestChecksums;
+import com.jmirving.prodata.download.ingest.IngestResult;
 
 public interface DownloadProvider {
     List<RemoteFile> listFiles() throws IOException, InterruptedException;
 
-    void download(RemoteFile file, Path destination) throws IOException, InterruptedException;
+    IngestResult download(RemoteFile file, Path destination, IngestChecksums checksums)
+            throws IOException, InterruptedException;
+
+    default Optional<RemoteFileMetadata> probe(RemoteFile file) throws IOException, InterruptedException {
+        return Optional.empty();
+    }
+
+    /**
+     * Opens the body from {@code offset}, sending {@code ifRange} as {@code If-Range}. Empty means the
+     * range or that version is not available and the caller should download the whole file.
+     */
+    default Optional<InputStream> openRange(RemoteFile file, long offset, String ifRange)
+            throws IOException, InterruptedException {
+        return Optional.empty();
+    }
 
     String sourceUrl(RemoteFile file);
 }
@@ -6,38 +6,58 @@ import java.net.CookieManager;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
-import java.util.LinkedHashMap;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.jmirving.prodata.download.ingest.IngestChecksums;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+
 public class GoogleDriveDownloadProvider implements DownloadProvider {
-    private static final Pattern CONFIRM_TOKEN_PATTERN = Pattern.compile("confirm=([0-9A-Za-z_-]+)");
-    private static final Pattern CONFIRM_INPUT_PATTERN =
-            Pattern.compile("name=\\\"confirm\\\"\\s+value=\\\"([0-9A-Za-z_-]+)\\\"");
-    private static final Pattern FORM_PATTERN =
-            Pattern.compile("<form[^>]+action=\\\"([^\\\"]+)\\\"[^>]*>(.*?)</form>", Pattern.DOTALL);
-    private static final Pattern INPUT_PATTERN =
-            Pattern.compile("name=\\\"([^\\\"]+)\\\"\\s+value=\\\"([^\\\"]*)\\\"");
+    static final int CONFIRM_PAGE_MAX_BYTES = 256 * 1024;
     private static final Pattern DOWNLOAD_WARNING_COOKIE_PATTERN = Pattern.compile("download_warning[^=]*=([^;]+)");
     private final HttpClient httpClient;
     private final String folderUrl;
     private final String userAgent;
     private final Duration readTimeout;
+    private final int segmentCount;
+    private final long segmentSize;
+    private final TransferWatchdog watchdog;
 
-    public GoogleDriveDownloadProvider(String folderUrl, String userAgent, Duration connectTimeout, Duration readTimeout) {
+    public GoogleDriveDownloadProvider(
+            String folderUrl,
+            String userAgent,
+            Duration connectTimeout,
+            Duration readTimeout,
+            int segmentCount,
+            long segmentSize,
+            TransferWatchdog watchdog
+    ) {
         this.folderUrl = folderUrl;
         this.userAgent = userAgent;
         this.readTimeout = readTimeout;
+        this.segmentCount = segmentCount;
+        this.segmentSize = segmentSize;
+        this.watchdog = watchdog;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(connectTimeout)
                 .followRedirects(HttpClient.Redirect.NORMAL)
@@ -52,52 +72,59 @@ public class GoogleDriveDownloadProvider implements DownloadProvider {
                 .timeout(readTimeout)
                 .GET()
                 .build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-        if (response.statusCode() != 200) {
-            throw new IOException("Google Drive listing failed with status " + response.statusCode());
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream inputStream = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Google Drive listing failed with status " + response.statusCode());
+            }
+            return GoogleDriveFolderParser.parse(inputStream);
         }
-        return GoogleDriveFolderParser.parse(response.body());
     }
 
     @Override
-    public void download(RemoteFile file, Path destination) throws IOException, InterruptedException {
-        URI downloadUri = buildDownloadUri(file.id(), Optional.empty());
-        HttpRequest request = HttpRequest.newBuilder(downloadUri)
-                .header("User-Agent", userAgent)
-                .timeout(readTimeout)
-                .GET()
-                .build();
-
-        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        String contentType = response.headers().firstValue("content-type").orElse("");
-        if (response.statusCode() != 200) {
-            throw new IOException("Google Drive download failed with status " + response.statusCode());
+    public IngestResult download(RemoteFile file, Path destination, IngestChecksums checksums)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = openDownload(file, null, null);
+        long contentLength = response.headers().firstValueAsLong("content-length").orElse(-1);
+        if (segmentCount > 1 && contentLength > segmentSize && acceptsByteRanges(response.headers())
+                && ifRangeValidator(response.headers()) != null) {
+            return downloadSegmented(response, contentLength, destination, checksums);
+        }
+        try (InputStream inputStream = watchdog.guard(response.body())) {
+            return StreamingIngest.copy(inputStream, destination, checksums);
         }
+    }
 
-        if (contentType.contains("text/html")) {
-            String body;
-            try (InputStream inputStream = response.body()) {
-                body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            }
-            DownloadForm form = extractDownloadForm(body);
-            if (form != null) {
-                fetchConfirmed(form, destination);
-                return;
-            }
-            String confirmToken = extractConfirmToken(body);
-            if (confirmToken == null) {
-                confirmToken = extractConfirmTokenFromCookies(response.headers().allValues("set-cookie"));
-            }
-            if (confirmToken == null) {
-                throw new IOException("Google Drive download confirmation token not found");
-            }
-            fetchConfirmed(file, confirmToken, destination);
-            return;
+    @Override
+    public Optional<RemoteFileMetadata> probe(RemoteFile file) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = openDownload(file, "bytes=0-0", null);
+        if (response == null) {
+            return Optional.empty();
+        }
+        // Closing the body before reading it cancels the transfer when the range was ignored.
+        response.body().close();
+        RemoteFileMetadata metadata = extractMetadata(response.headers());
+        if (response.statusCode() == 206) {
+            metadata = new RemoteFileMetadata(metadata.etag(), metadata.lastModified(),
+                    contentRangeTotal(response.headers()));
         }
+        return Optional.of(metadata);
+    }
 
-        try (InputStream inputStream = response.body()) {
-            Files.copy(inputStream, destination, StandardCopyOption.REPLACE_EXISTING);
+    @Override
+    public Optional<InputStream> openRange(RemoteFile file, long offset, String ifRange)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = openDownload(file, "bytes=" + offset + "-", ifRange);
+        if (response == null) {
+            return Optional.empty();
+        }
+        // A 200 means the range was ignored or the version changed; either way the caller starts over.
+        if (response.statusCode() != 206 || !rangeStartsAt(response.headers(), offset)
+                || ifRange != null && !hasValidator(response.headers(), ifRange)) {
+            response.body().close();
+            return Optional.empty();
         }
+        return Optional.of(watchdog.guard(response.body()));
     }
 
     @Override
@@ -105,52 +132,183 @@ public class GoogleDriveDownloadProvider implements DownloadProvider {
         return buildDownloadUri(file.id(), Optional.empty()).toString();
     }
 
-    private void fetchConfirmed(RemoteFile file, String confirmToken, Path destination)
-            throws IOException, InterruptedException {
-        URI confirmedUri = buildDownloadUri(file.id(), Optional.of(confirmToken));
-        HttpRequest confirmedRequest = HttpRequest.newBuilder(confirmedUri)
-                .header("User-Agent", userAgent)
-                .timeout(readTimeout)
-                .GET()
-                .build();
-        HttpResponse<InputStream> confirmedResponse = httpClient.send(
-                confirmedRequest,
-                HttpResponse.BodyHandlers.ofInputStream()
-        );
+    private IngestResult downloadSegmented(
+            HttpResponse<InputStream> firstResponse,
+            long contentLength,
+            Path destination,
+            IngestChecksums checksums
+    ) throws IOException, InterruptedException {
+        URI uri = firstResponse.uri();
+        HttpHeaders firstHeaders = firstResponse.headers();
+        Instant deadline = TransferWatchdog.currentDeadline();
+        List<long[]> segments = planSegments(contentLength, segmentSize);
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(segmentCount, segments.size()), runnable -> {
+            Thread thread = new Thread(runnable, "prodata-segment-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(
+                destination,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            channel.write(ByteBuffer.wrap(new byte[1]), contentLength - 1);
 
-        if (confirmedResponse.statusCode() != 200) {
-            throw new IOException("Google Drive confirmed download failed with status " + confirmedResponse.statusCode());
-        }
+            List<Future<Long>> futures = new ArrayList<>();
+            long[] first = segments.get(0);
+            futures.add(executor.submit(() -> {
+                try (InputStream inputStream = watchdog.guard(firstResponse.body(), deadline)) {
+                    return writeSegment(inputStream, channel, first[0], first[1]);
+                }
+            }));
+            for (long[] segment : segments.subList(1, segments.size())) {
+                futures.add(executor.submit(() -> fetchSegment(uri, firstHeaders, contentLength, channel,
+                        segment[0], segment[1], deadline)));
+            }
 
-        try (InputStream inputStream = confirmedResponse.body()) {
-            Files.copy(inputStream, destination, StandardCopyOption.REPLACE_EXISTING);
+            long written = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    written += future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(pending -> pending.cancel(true));
+                    throw new IOException("Google Drive segmented download failed", e.getCause());
+                }
+            }
+            if (written != contentLength || channel.size() != contentLength) {
+                throw new IOException("Google Drive segmented download wrote " + written
+                        + " bytes, expected " + contentLength);
+            }
+        } finally {
+            executor.shutdownNow();
         }
+        return StreamingIngest.scan(destination, checksums);
     }
 
-    private void fetchConfirmed(DownloadForm form, Path destination) throws IOException, InterruptedException {
-        URI confirmedUri = buildFormUri(form);
-        HttpRequest confirmedRequest = HttpRequest.newBuilder(confirmedUri)
+    private long fetchSegment(
+            URI uri,
+            HttpHeaders firstHeaders,
+            long contentLength,
+            FileChannel channel,
+            long start,
+            long length,
+            Instant deadline
+    ) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .version(HttpClient.Version.HTTP_1_1)
                 .header("User-Agent", userAgent)
+                .header("Range", "bytes=" + start + "-" + (start + length - 1))
+                .header("If-Range", ifRangeValidator(firstHeaders))
                 .timeout(readTimeout)
                 .GET()
                 .build();
-        HttpResponse<InputStream> confirmedResponse = httpClient.send(
-                confirmedRequest,
-                HttpResponse.BodyHandlers.ofInputStream()
-        );
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream inputStream = watchdog.guard(response.body(), deadline)) {
+            if (response.statusCode() != 206 || !rangeStartsAt(response.headers(), start)) {
+                throw new IOException("Google Drive segment request at offset " + start
+                        + " failed with status " + response.statusCode());
+            }
+            if (!sameRepresentation(firstHeaders, response.headers(), contentLength)) {
+                throw new IOException("Google Drive segment at offset " + start
+                        + " belongs to a different version of the file");
+            }
+            return writeSegment(inputStream, channel, start, length);
+        }
+    }
+
+    private long writeSegment(InputStream inputStream, FileChannel channel, long start, long length)
+            throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long written = 0;
+        while (written < length) {
+            int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+            if (read == -1) {
+                throw new IOException("Google Drive segment at offset " + start + " ended after "
+                        + written + " of " + length + " bytes");
+            }
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer, start + written + (read - byteBuffer.remaining()));
+            }
+            written += read;
+        }
+        return written;
+    }
+
+    private HttpResponse<InputStream> openDownload(RemoteFile file, String range, String ifRange)
+            throws IOException, InterruptedException {
+        URI downloadUri = buildDownloadUri(file.id(), Optional.empty());
+        HttpResponse<InputStream> response = send(downloadUri, null, null);
+        String contentType = response.headers().firstValue("content-type").orElse("");
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Google Drive download failed with status " + response.statusCode());
+        }
+
+        if (!contentType.contains("text/html")) {
+            if (range == null) {
+                return response;
+            }
+            response.body().close();
+            return openConfirmed(downloadUri, range, ifRange, false);
+        }
+
+        ConfirmPageScanner.Result page;
+        try (InputStream inputStream = response.body()) {
+            page = ConfirmPageScanner.scan(inputStream, CONFIRM_PAGE_MAX_BYTES);
+        }
+        if (page.form() != null) {
+            return openConfirmed(buildFormUri(page.form()), range, ifRange, true);
+        }
+        String confirmToken = page.confirmToken();
+        if (confirmToken == null) {
+            confirmToken = extractConfirmTokenFromCookies(response.headers().allValues("set-cookie"));
+        }
+        if (confirmToken == null) {
+            throw new IOException("Google Drive download confirmation token not found");
+        }
+        return openConfirmed(buildDownloadUri(file.id(), Optional.of(confirmToken)), range, ifRange, false);
+    }
 
-        if (confirmedResponse.statusCode() != 200) {
+    private HttpResponse<InputStream> openConfirmed(URI confirmedUri, String range, String ifRange, boolean rejectHtml)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> confirmedResponse = send(confirmedUri, range, ifRange);
+        if (range != null && confirmedResponse.statusCode() == 416) {
+            confirmedResponse.body().close();
+            return null;
+        }
+        if (!isSuccess(confirmedResponse.statusCode())) {
+            confirmedResponse.body().close();
             throw new IOException("Google Drive confirmed download failed with status " + confirmedResponse.statusCode());
         }
 
         String contentType = confirmedResponse.headers().firstValue("content-type").orElse("");
-        if (contentType.contains("text/html")) {
+        if (rejectHtml && contentType.contains("text/html")) {
+            confirmedResponse.body().close();
             throw new IOException("Google Drive confirmed download returned HTML instead of CSV");
         }
+        return confirmedResponse;
+    }
 
-        try (InputStream inputStream = confirmedResponse.body()) {
-            Files.copy(inputStream, destination, StandardCopyOption.REPLACE_EXISTING);
+    private HttpResponse<InputStream> send(URI uri, String range, String ifRange)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .header("User-Agent", userAgent)
+                .timeout(readTimeout)
+                .GET();
+        if (range != null) {
+            request.header("Range", range);
         }
+        if (ifRange != null) {
+            request.header("If-Range", ifRange);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private boolean isSuccess(int statusCode) {
+        return statusCode == 200 || statusCode == 206;
     }
 
     private URI buildDownloadUri(String fileId, Optional<String> confirmToken) {
@@ -178,34 +336,62 @@ public class GoogleDriveDownloadProvider implements DownloadProvider {
         return URI.create(uri.toString());
     }
 
-    static String extractConfirmToken(String body) {
-        Matcher matcher = CONFIRM_TOKEN_PATTERN.matcher(body);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        Matcher inputMatcher = CONFIRM_INPUT_PATTERN.matcher(body);
-        if (inputMatcher.find()) {
-            return inputMatcher.group(1);
+    static RemoteFileMetadata extractMetadata(HttpHeaders headers) {
+        return new RemoteFileMetadata(
+                headers.firstValue("etag").orElse(null),
+                headers.firstValue("last-modified").orElse(null),
+                headers.firstValueAsLong("content-length").orElse(-1)
+        );
+    }
+
+    static List<long[]> planSegments(long contentLength, long segmentSize) {
+        List<long[]> segments = new ArrayList<>();
+        for (long start = 0; start < contentLength; start += segmentSize) {
+            segments.add(new long[] {start, Math.min(segmentSize, contentLength - start)});
         }
-        return null;
+        return segments;
     }
 
-    static DownloadForm extractDownloadForm(String body) {
-        Matcher formMatcher = FORM_PATTERN.matcher(body);
-        if (!formMatcher.find()) {
-            return null;
+    static boolean acceptsByteRanges(HttpHeaders headers) {
+        return headers.allValues("accept-ranges").stream().anyMatch(value -> value.contains("bytes"));
+    }
+
+    static boolean rangeStartsAt(HttpHeaders headers, long offset) {
+        return headers.firstValue("content-range")
+                .map(value -> value.startsWith("bytes " + offset + "-"))
+                .orElse(false);
+    }
+
+    static String ifRangeValidator(HttpHeaders headers) {
+        return extractMetadata(headers).ifRangeValidator();
+    }
+
+    static boolean hasValidator(HttpHeaders headers, String validator) {
+        return headers.firstValue("etag").map(validator::equals).orElse(false)
+                || headers.firstValue("last-modified").map(validator::equals).orElse(false);
+    }
+
+    static boolean sameRepresentation(HttpHeaders first, HttpHeaders segment, long contentLength) {
+        for (String validator : List.of("etag", "last-modified")) {
+            Optional<String> expected = first.firstValue(validator);
+            if (expected.isPresent() && !expected.equals(segment.firstValue(validator))) {
+                return false;
+            }
         }
-        String action = formMatcher.group(1);
-        String formBody = formMatcher.group(2);
-        Map<String, String> params = new LinkedHashMap<>();
-        Matcher inputMatcher = INPUT_PATTERN.matcher(formBody);
-        while (inputMatcher.find()) {
-            params.put(inputMatcher.group(1), inputMatcher.group(2));
+        return contentRangeTotal(segment) == contentLength;
+    }
+
+    static long contentRangeTotal(HttpHeaders headers) {
+        String value = headers.firstValue("content-range").orElse("");
+        int slash = value.lastIndexOf('/');
+        if (slash < 0) {
+            return -1;
         }
-        if (params.isEmpty()) {
-            return null;
+        try {
+            return Long.parseLong(value.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
         }
-        return new DownloadForm(action, params);
     }
 
     static String extractConfirmTokenFromCookies(List<String> cookies) {
@@ -225,7 +411,7 @@ public class GoogleDriveDownloadProvider implements DownloadProvider {
         private final String action;
         private final Map<String, String> parameters;
 
-        private DownloadForm(String action, Map<String, String> parameters) {
+        DownloadForm(String action, Map<String, String> parameters) {
             this.action = action;
             this.parameters = parameters;
         }
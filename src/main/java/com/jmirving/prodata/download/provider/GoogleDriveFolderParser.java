@@ -1,30 +1,242 @@
 package com.jmirving.prodata.download.provider;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
+/**
+ * Extracts the year CSV entries from a Google Drive folder page in a single pass over the body.
+ * {@code &quot;} and {@code &amp;} are decoded as characters arrive, and each file is emitted as
+ * soon as its name is seen, so the page is never held in memory.
+ */
 final class GoogleDriveFolderParser {
-    private static final Pattern CSV_FILE_PATTERN = Pattern.compile(
-            "\\[\\[null,\\\"([A-Za-z0-9_-]{6,})\\\"\\],null,null,null,\\\"text/csv\\\".*?\\\"(\\d{4}_LoL_esports_match_data_from_OraclesElixir\\.csv)\\\"",
-            Pattern.DOTALL
-    );
+    private static final char[] ENTRY_PREFIX = "[[null,\"".toCharArray();
+    private static final char[] ENTRY_SUFFIX = "],null,null,null,\"text/csv\"".toCharArray();
+    private static final String NAME_SUFFIX = "_LoL_esports_match_data_from_OraclesElixir.csv";
+    private static final int MIN_ID_LENGTH = 6;
+    private static final int MAX_ID_LENGTH = 256;
+    private static final int MAX_ENTITY_LENGTH = 6;
 
-    private GoogleDriveFolderParser() {
+    private enum State { PREFIX, ID, SUFFIX, NAME }
+
+    private final Consumer<RemoteFile> sink;
+    private final int[] prefixFailure = failureTable(ENTRY_PREFIX);
+    private final StringBuilder id = new StringBuilder();
+    private final char[] entity = new char[MAX_ENTITY_LENGTH];
+    private final char[] nameWindow = new char[NAME_SUFFIX.length() + 6];
+    private State state = State.PREFIX;
+    private int matched;
+    private int windowLength;
+    private int entityLength;
+
+    private GoogleDriveFolderParser(Consumer<RemoteFile> sink) {
+        this.sink = sink;
     }
 
     static List<RemoteFile> parse(String html) {
-        String normalized = unescapeHtml(html);
-        List<RemoteFile> files = new ArrayList<>();
-        Matcher matcher = CSV_FILE_PATTERN.matcher(normalized);
-        while (matcher.find()) {
-            files.add(new RemoteFile(matcher.group(1), matcher.group(2)));
+        try {
+            return parse(new StringReader(html));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    static List<RemoteFile> parse(InputStream inputStream) throws IOException {
+        return parse(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    static List<RemoteFile> parse(Reader reader) throws IOException {
+        List<RemoteFile> files = new ArrayList<>();
+        parse(reader, files::add);
         return files;
     }
 
-    private static String unescapeHtml(String html) {
-        return html.replace("&quot;", "\"").replace("&amp;", "&");
+    static void parse(Reader reader, Consumer<RemoteFile> sink) throws IOException {
+        GoogleDriveFolderParser parser = new GoogleDriveFolderParser(sink);
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            parser.feed(buffer, read);
+        }
+        parser.flushEntity();
+    }
+
+    private void feed(char[] buffer, int length) {
+        int i = 0;
+        while (i < length) {
+            if (state == State.PREFIX && matched == 0 && entityLength == 0) {
+                // Fast path: nothing can start outside an entry prefix or an entity.
+                while (i < length && buffer[i] != '[' && buffer[i] != '&') {
+                    i++;
+                }
+                if (i == length) {
+                    return;
+                }
+            }
+            decode(buffer[i++]);
+        }
+    }
+
+    private void decode(char c) {
+        if (entityLength > 0) {
+            entity[entityLength++] = c;
+            if (c == ';') {
+                if (isEntity("&quot;")) {
+                    entityLength = 0;
+                    accept('"');
+                } else if (isEntity("&amp;")) {
+                    entityLength = 0;
+                    accept('&');
+                } else {
+                    replayEntity();
+                }
+            } else if (c == '&' || entityLength == MAX_ENTITY_LENGTH) {
+                replayEntity();
+            }
+            return;
+        }
+        if (c == '&') {
+            entity[entityLength++] = c;
+        } else {
+            accept(c);
+        }
+    }
+
+    private boolean isEntity(String value) {
+        if (entityLength != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < entityLength; i++) {
+            if (entity[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void replayEntity() {
+        int last = entityLength - 1;
+        char lastChar = entity[last];
+        entityLength = 0;
+        for (int i = 0; i < last; i++) {
+            accept(entity[i]);
+        }
+        decode(lastChar);
+    }
+
+    private void flushEntity() {
+        int length = entityLength;
+        entityLength = 0;
+        for (int i = 0; i < length; i++) {
+            accept(entity[i]);
+        }
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case PREFIX -> acceptPrefix(c);
+            case ID -> acceptId(c);
+            case SUFFIX -> acceptSuffix(c);
+            case NAME -> acceptName(c);
+        }
+    }
+
+    private void acceptPrefix(char c) {
+        while (matched > 0 && ENTRY_PREFIX[matched] != c) {
+            matched = prefixFailure[matched - 1];
+        }
+        if (ENTRY_PREFIX[matched] == c) {
+            matched++;
+        }
+        if (matched == ENTRY_PREFIX.length) {
+            matched = 0;
+            id.setLength(0);
+            state = State.ID;
+        }
+    }
+
+    private void acceptId(char c) {
+        if (isIdChar(c) && id.length() < MAX_ID_LENGTH) {
+            id.append(c);
+        } else if (c == '"' && id.length() >= MIN_ID_LENGTH) {
+            state = State.SUFFIX;
+        } else {
+            restart(c);
+        }
+    }
+
+    private void acceptSuffix(char c) {
+        if (ENTRY_SUFFIX[matched] != c) {
+            restart(c);
+            return;
+        }
+        matched++;
+        if (matched == ENTRY_SUFFIX.length) {
+            matched = 0;
+            windowLength = 0;
+            state = State.NAME;
+        }
+    }
+
+    private void acceptName(char c) {
+        if (c == '"' && windowLength == nameWindow.length - 1 && isFileName()) {
+            sink.accept(new RemoteFile(id.toString(), new String(nameWindow, 1, nameWindow.length - 2)));
+            state = State.PREFIX;
+            return;
+        }
+        if (c == '"') {
+            nameWindow[0] = c;
+            windowLength = 1;
+        } else if (windowLength > 0 && windowLength < nameWindow.length - 1) {
+            nameWindow[windowLength++] = c;
+        } else {
+            windowLength = 0;
+        }
+    }
+
+    private boolean isFileName() {
+        for (int i = 1; i <= 4; i++) {
+            if (nameWindow[i] < '0' || nameWindow[i] > '9') {
+                return false;
+            }
+        }
+        for (int i = 0; i < NAME_SUFFIX.length(); i++) {
+            if (nameWindow[5 + i] != NAME_SUFFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void restart(char c) {
+        state = State.PREFIX;
+        matched = 0;
+        acceptPrefix(c);
+    }
+
+    private static boolean isIdChar(char c) {
+        return c >= '0' && c <= '9' || c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c == '_' || c == '-';
+    }
+
+    private static int[] failureTable(char[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
     }
 }
@@ -0,0 +1,10 @@
+package com.jmirving.prodata.download.provider;
+
+/**
+ * HTTP validators for a remote file. {@code contentLength} is -1 when the server did not send one.
+ */
+public record RemoteFileMetadata(String etag, String lastModified, long contentLength) {
+    public String ifRangeValidator() {
+        return etag != null && !etag.startsWith("W/") ? etag : lastModified;
+    }
+}
@@ -0,0 +1,15 @@
+package com.jmirving.prodata.download.provider;
+
+import java.io.IOException;
+
+public class TransferAbortedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public TransferAbortedException(String message) {
+        super(message);
+    }
+
+    public TransferAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,189 @@
+package com.jmirving.prodata.download.provider;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aborts response body transfers that stall or run past their deadline. The HTTP client timeout
+ * only covers the wait for response headers; once the body is streaming, a trickling or silent
+ * server would otherwise block a read forever.
+ */
+public class TransferWatchdog implements AutoCloseable {
+    private static final ThreadLocal<Instant> DEADLINE = new ThreadLocal<>();
+
+    private final long minBytesPerSecond;
+    private final Duration window;
+    private final Clock clock;
+    private final Set<GuardedInputStream> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    public TransferWatchdog(long minBytesPerSecond, Duration window, Clock clock) {
+        this.minBytesPerSecond = minBytesPerSecond;
+        this.window = window;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prodata-transfer-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(10, Math.min(1000, window.toMillis() / 4));
+        scheduler.scheduleAtFixedRate(this::check, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static DeadlineScope withDeadline(Instant deadline) {
+        Instant previous = DEADLINE.get();
+        DEADLINE.set(deadline);
+        return () -> {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        };
+    }
+
+    public static Instant currentDeadline() {
+        return DEADLINE.get();
+    }
+
+    public InputStream guard(InputStream inputStream) {
+        return guard(inputStream, currentDeadline());
+    }
+
+    public InputStream guard(InputStream inputStream, Instant deadline) {
+        GuardedInputStream guarded = new GuardedInputStream(inputStream, deadline, System.nanoTime());
+        active.add(guarded);
+        return guarded;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        Instant wallClock = Instant.now(clock);
+        for (GuardedInputStream guarded : active) {
+            if (guarded.deadline != null && wallClock.isAfter(guarded.deadline)) {
+                guarded.abort("Transfer exceeded its deadline of " + guarded.deadline);
+                continue;
+            }
+            long elapsed = now - guarded.windowStartNanos;
+            if (elapsed < window.toNanos()) {
+                continue;
+            }
+            long bytes = guarded.bytes.get();
+            double bytesPerSecond = (bytes - guarded.windowStartBytes) / (elapsed / 1_000_000_000.0);
+            if (minBytesPerSecond > 0 && bytesPerSecond < minBytesPerSecond) {
+                guarded.abort(String.format(
+                        "Transfer stalled at %.0f B/s over %s (minimum %d B/s)",
+                        bytesPerSecond,
+                        window,
+                        minBytesPerSecond
+                ));
+                continue;
+            }
+            guarded.windowStartNanos = now;
+            guarded.windowStartBytes = bytes;
+        }
+    }
+
+    @FunctionalInterface
+    public interface DeadlineScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final class GuardedInputStream extends FilterInputStream {
+        private final Instant deadline;
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile Thread reader;
+        private volatile String abortReason;
+        private boolean closed;
+        // Only touched by the scheduler thread.
+        private long windowStartNanos;
+        private long windowStartBytes;
+
+        private GuardedInputStream(InputStream inputStream, Instant deadline, long startNanos) {
+            super(inputStream);
+            this.deadline = deadline;
+            this.windowStartNanos = startNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            reader = Thread.currentThread();
+            throwIfAborted(null);
+            int read;
+            try {
+                read = super.read(buffer, offset, length);
+            } catch (IOException e) {
+                throwIfAborted(e);
+                throw e;
+            }
+            throwIfAborted(null);
+            if (read > 0) {
+                bytes.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            active.remove(this);
+            synchronized (this) {
+                closed = true;
+            }
+            try {
+                super.close();
+            } finally {
+                if (abortReason != null && reader == Thread.currentThread()) {
+                    // Clear the interrupt used to unblock the read so later work on this thread is unaffected.
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private synchronized void abort(String reason) {
+            if (closed || abortReason != null) {
+                return;
+            }
+            abortReason = reason;
+            active.remove(this);
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // The stream is being abandoned; the reader sees the abort reason instead.
+            }
+            Thread current = reader;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        private void throwIfAborted(IOException cause) throws TransferAbortedException {
+            String reason = abortReason;
+            if (reason != null) {
+                throw cause == null ? new TransferAbortedException(reason) : new TransferAbortedException(reason, cause);
+            }
+        }
+    }
+}
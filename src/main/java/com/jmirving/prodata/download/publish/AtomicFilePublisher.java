@@ -1,13 +1,117 @@
 package com.jmirving.prodata.download.publish;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class AtomicFilePublisher {
+    private final DurabilityPolicy durability;
+
+    public AtomicFilePublisher() {
+        this(DurabilityPolicy.NONE);
+    }
+
+    public AtomicFilePublisher(DurabilityPolicy durability) {
+        this.durability = durability;
+    }
+
+    public PublishGroup openGroup() {
+        return new PublishGroup(durability);
+    }
+
     public void publish(Path tempFile, Path destination) throws IOException {
+        try (PublishGroup group = openGroup()) {
+            publish(tempFile, destination, group);
+        }
+    }
+
+    public void publish(Path tempFile, Path destination, PublishGroup group) throws IOException {
         Files.createDirectories(destination.getParent());
+        if (durability != DurabilityPolicy.NONE) {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
         Files.move(tempFile, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        group.renamedInto(destination.getParent());
+    }
+
+    public static void replace(Path destination, ContentWriter writer) throws IOException {
+        Path tempFile = destination.resolveSibling(destination.getFileName() + ".tmp");
+        Files.createDirectories(destination.toAbsolutePath().getParent());
+        try {
+            writer.write(tempFile);
+            Files.move(tempFile, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public void syncTree(Path directory) throws IOException {
+        if (durability == DurabilityPolicy.NONE) {
+            return;
+        }
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(path)) {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    }
+                } else if (Files.isDirectory(path)) {
+                    directories.add(path);
+                }
+            }
+        }
+        if (durability == DurabilityPolicy.FILE_AND_DIRECTORY) {
+            directories.add(directory.toAbsolutePath().getParent());
+            for (Path path : directories) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    channel.force(true);
+                }
+            }
+        }
+    }
+
+    public void publishDirectory(Path staging, Path destination, PublishGroup group) throws IOException {
+        syncTree(staging);
+        Files.move(staging, destination, StandardCopyOption.ATOMIC_MOVE);
+        group.renamedInto(destination.getParent());
+    }
+
+    public void publishLink(Path newLink, Path link, PublishGroup group) throws IOException {
+        Files.move(newLink, link, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        group.renamedInto(link.getParent());
+    }
+
+    public void publish(Path tempFile, Path destination, ContentStore store, String sha256) throws IOException {
+        try (PublishGroup group = openGroup()) {
+            publish(tempFile, destination, store, sha256, group);
+        }
+    }
+
+    public void publish(Path tempFile, Path destination, ContentStore store, String sha256, PublishGroup group)
+            throws IOException {
+        Path object = store.adopt(tempFile, sha256);
+        // Garbage collection counts links, so the object's link and its prefix directory must survive too.
+        group.renamedInto(object.getParent());
+        group.renamedInto(object.getParent().getParent());
+        // Renaming a link over another link to the same file is a no-op that leaves both names.
+        if (Files.exists(destination) && Files.isSameFile(tempFile, destination)) {
+            Files.delete(tempFile);
+            return;
+        }
+        publish(tempFile, destination, group);
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(Path path) throws IOException;
     }
 }
@@ -0,0 +1,13 @@
+package com.jmirving.prodata.download.publish;
+
+public enum ChecksumAlgorithm {
+    /** Plain SHA-256 of the file; the same value as {@code sha256}. */
+    SHA256,
+    /**
+     * SHA-256 over fixed-size chunks hashed in parallel: the root is SHA-256 of {@code 0x01}
+     * followed by each chunk's SHA-256 of {@code 0x00 || chunk}.
+     */
+    SHA256_TREE,
+    /** Non-cryptographic xxHash64 (seed 0) of the file, as 16 hex digits. */
+    XXHASH64
+}
@@ -0,0 +1,146 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Content-addressed store of published files, laid out as {@code <root>/<ab>/<sha256>}. Published
+ * files are hard links to their object, so identical content is stored once however many years,
+ * generations or copies refer to it.
+ */
+public class ContentStore {
+    public static final String STORE_DIR = "objects";
+    static final String UNREFERENCED_SUFFIX = ".unreferenced";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final Clock clock;
+
+    public ContentStore(Path root) {
+        this(root, Clock.systemUTC());
+    }
+
+    public ContentStore(Path root, Clock clock) {
+        this.root = root;
+        this.clock = clock;
+    }
+
+    public Path objectPath(String sha256) {
+        String key = sha256.toLowerCase(Locale.ROOT);
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    public Path adopt(Path file, String sha256) throws IOException {
+        if (sha256 == null || sha256.length() < 2) {
+            throw new IllegalArgumentException("A SHA-256 is required to store " + file);
+        }
+        Path object = objectPath(sha256);
+        Files.createDirectories(object.getParent());
+        while (true) {
+            try {
+                Files.createLink(object, file);
+                return object;
+            } catch (FileAlreadyExistsException e) {
+                // Identical content is already stored; link to it below.
+            }
+            if (Files.isSameFile(object, file)) {
+                return object;
+            }
+            if (Files.size(object) != Files.size(file)) {
+                throw new IOException("Stored object " + object + " does not match the size of " + file);
+            }
+            Path pending = object.resolveSibling(object.getFileName() + "-" + UUID.randomUUID() + TEMP_SUFFIX);
+            try {
+                Files.createLink(pending, object);
+            } catch (NoSuchFileException e) {
+                // Collected between the two links; store this copy instead.
+                continue;
+            }
+            try {
+                Files.move(pending, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(pending);
+            }
+            return object;
+        }
+    }
+
+    public StoreCollection collectGarbage(Duration retention) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new StoreCollection(0, 0, 0, 0);
+        }
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(retention);
+        long referenced = 0;
+        long unreferenced = 0;
+        long deleted = 0;
+        long freedBytes = 0;
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(root)) {
+            for (Path prefix : prefixes) {
+                if (!Files.isDirectory(prefix)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(prefix)) {
+                    for (Path entry : entries) {
+                        String name = entry.getFileName().toString();
+                        if (name.endsWith(UNREFERENCED_SUFFIX)) {
+                            if (!Files.exists(entry.resolveSibling(
+                                    name.substring(0, name.length() - UNREFERENCED_SUFFIX.length())))) {
+                                Files.deleteIfExists(entry);
+                            }
+                            continue;
+                        }
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            if (Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                                Files.deleteIfExists(entry);
+                            }
+                            continue;
+                        }
+                        Path marker = entry.resolveSibling(name + UNREFERENCED_SUFFIX);
+                        if (linkCount(entry) > 1) {
+                            Files.deleteIfExists(marker);
+                            referenced++;
+                            continue;
+                        }
+                        Instant unreferencedSince = now;
+                        if (Files.exists(marker)) {
+                            unreferencedSince = Files.getLastModifiedTime(marker).toInstant();
+                        } else {
+                            Files.createFile(marker);
+                            Files.setLastModifiedTime(marker, FileTime.from(now));
+                        }
+                        if (unreferencedSince.isAfter(cutoff)) {
+                            unreferenced++;
+                            continue;
+                        }
+                        long size = Files.size(entry);
+                        Files.deleteIfExists(entry);
+                        Files.deleteIfExists(marker);
+                        deleted++;
+                        freedBytes += size;
+                    }
+                }
+            }
+        }
+        return new StoreCollection(referenced, unreferenced, deleted, freedBytes);
+    }
+
+    private static int linkCount(Path object) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(object, "unix:nlink");
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -1,6 +1,23 @@
 package com.jmirving.prodata.download.publish;
 
 import java.time.Instant;
+import java.util.List;
 
-public record DownloadManifest(Instant generatedAt, long rowCount, String sha256, String sourceUrl) {
+public record DownloadManifest(
+        Instant generatedAt,
+        long rowCount,
+        String sha256,
+        String sourceUrl,
+        long byteCount,
+        String etag,
+        String lastModified,
+        long overlapLength,
+        String overlapSha256,
+        ChecksumAlgorithm checksumAlgorithm,
+        long checksumChunkSize,
+        String checksum,
+        String merkleRoot,
+        List<ManifestChunk> chunks,
+        int incrementalRuns
+) {
 }
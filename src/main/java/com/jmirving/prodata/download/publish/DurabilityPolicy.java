@@ -0,0 +1,16 @@
+package com.jmirving.prodata.download.publish;
+
+/**
+ * How hard {@link AtomicFilePublisher} works to make a publish survive a host crash.
+ */
+public enum DurabilityPolicy {
+    /** Rename only; the file's data and the rename may still be in the page cache after a crash. */
+    NONE,
+    /** Forces the file's data to disk before the rename, so a published name never points at missing data. */
+    FILE,
+    /**
+     * As {@link #FILE}, and syncs each destination directory once when the publish group closes, so
+     * the renames themselves are on disk.
+     */
+    FILE_AND_DIRECTORY
+}
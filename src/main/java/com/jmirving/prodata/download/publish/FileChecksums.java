@@ -0,0 +1,135 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+final class FileChecksums {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private FileChecksums() {
+    }
+
+    static String compute(ChecksumAlgorithm algorithm, Path path, long chunkSize) throws IOException {
+        return switch (algorithm) {
+            case SHA256 -> sha256(path);
+            case SHA256_TREE -> sha256Tree(path, chunkSize, Runtime.getRuntime().availableProcessors());
+            case XXHASH64 -> xxHash64(path);
+        };
+    }
+
+    static String sha256(Path path) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[BUFFER_BYTES];
+        int read;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            while ((read = inputStream.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String xxHash64(Path path) throws IOException {
+        XxHash64 hash = new XxHash64();
+        byte[] buffer = new byte[BUFFER_BYTES];
+        int read;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            while ((read = inputStream.read(buffer)) > 0) {
+                hash.update(buffer, 0, read);
+            }
+        }
+        return hash.hexDigest();
+    }
+
+    static String sha256Tree(Path path, long chunkSize, int parallelism) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Checksum chunk size must be positive");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + chunkSize - 1) / chunkSize);
+            List<byte[]> leaves = new ArrayList<>(chunks);
+            int threads = Math.min(Math.max(1, parallelism), chunks);
+            if (threads <= 1) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    leaves.add(hashChunk(channel, chunk * chunkSize, Math.min(chunkSize, size - chunk * chunkSize)));
+                }
+            } else {
+                ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "prodata-checksum-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                try {
+                    List<Future<byte[]>> futures = new ArrayList<>(chunks);
+                    for (int chunk = 0; chunk < chunks; chunk++) {
+                        long start = chunk * chunkSize;
+                        long length = Math.min(chunkSize, size - start);
+                        futures.add(executor.submit(() -> hashChunk(channel, start, length)));
+                    }
+                    for (Future<byte[]> future : futures) {
+                        leaves.add(future.get());
+                    }
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to hash " + path, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while hashing " + path, e);
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+            MessageDigest root = newSha256();
+            root.update(NODE_PREFIX);
+            leaves.forEach(root::update);
+            return HexFormat.of().formatHex(root.digest());
+        }
+    }
+
+    private static byte[] hashChunk(FileChannel channel, long start, long length) throws IOException {
+        MessageDigest digest = newSha256();
+        digest.update(LEAF_PREFIX);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_BYTES, length));
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+            digest.update(buffer.array(), 0, read);
+            position += read;
+        }
+        return digest.digest();
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
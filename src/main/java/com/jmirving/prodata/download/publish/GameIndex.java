@@ -0,0 +1,191 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Byte-offset index of the games in one published CSV, with a Bloom filter of its gameids so a
+ * lookup across years can skip files that cannot hold the game.
+ */
+public final class GameIndex {
+    private static final int MAGIC = 0x50444749;
+    private static final int VERSION = 2;
+    private static final int BLOOM_HASHES = 7;
+    private static final int BLOOM_BITS_PER_GAME = 10;
+    private static final Comparator<GameIndexEntry> ORDER =
+            Comparator.comparing(GameIndexEntry::gameid).thenComparingLong(GameIndexEntry::offset);
+
+    private final String csvSha256;
+    private final long[] bloom;
+    private final List<GameIndexEntry> entries;
+
+    private GameIndex(String csvSha256, long[] bloom, List<GameIndexEntry> entries) {
+        this.csvSha256 = csvSha256;
+        this.bloom = bloom;
+        this.entries = entries;
+    }
+
+    static GameIndex of(String csvSha256, List<GameIndexEntry> entries) {
+        List<GameIndexEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(ORDER);
+        long bits = Math.max(64, (long) sorted.size() * BLOOM_BITS_PER_GAME);
+        long[] bloom = new long[(int) ((bits + 63) / 64)];
+        for (GameIndexEntry entry : sorted) {
+            long hash = hash(entry.gameid());
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                long bit = bloomBit(hash, i, bloom.length);
+                bloom[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return new GameIndex(csvSha256, bloom, Collections.unmodifiableList(sorted));
+    }
+
+    public String csvSha256() {
+        return csvSha256;
+    }
+
+    public boolean matches(DownloadManifest manifest) {
+        return csvSha256.equals(manifest.sha256());
+    }
+
+    public List<GameIndexEntry> entries() {
+        return entries;
+    }
+
+    public boolean mightContain(String gameid) {
+        return mightContain(bloom, hash(gameid));
+    }
+
+    public List<GameIndexEntry> find(String gameid) {
+        if (!mightContain(gameid)) {
+            return List.of();
+        }
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).gameid().compareTo(gameid) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end < entries.size() && entries.get(end).gameid().equals(gameid)) {
+            end++;
+        }
+        return entries.subList(low, end);
+    }
+
+    public static byte[] readRows(Path csvPath, GameIndexEntry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(entry.length()));
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long position = entry.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("CSV " + csvPath + " ended before indexed rows for " + entry.gameid());
+                }
+                position += read;
+            }
+        }
+        return buffer.array();
+    }
+
+    public void write(Path indexPath) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(csvSha256);
+            output.writeInt(bloom.length);
+            for (long word : bloom) {
+                output.writeLong(word);
+            }
+            output.writeInt(entries.size());
+            for (GameIndexEntry entry : entries) {
+                output.writeUTF(entry.gameid());
+                output.writeLong(entry.offset());
+                output.writeLong(entry.length());
+                output.writeLong(entry.firstRow());
+                output.writeLong(entry.rowCount());
+            }
+        }
+    }
+
+    public static GameIndex read(Path indexPath) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            String csvSha256 = readHeader(input, indexPath);
+            long[] bloom = readBloom(input);
+            int count = input.readInt();
+            List<GameIndexEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new GameIndexEntry(
+                        input.readUTF(),
+                        input.readLong(),
+                        input.readLong(),
+                        input.readLong(),
+                        input.readLong()
+                ));
+            }
+            return new GameIndex(csvSha256, bloom, Collections.unmodifiableList(entries));
+        }
+    }
+
+    public static boolean mightContain(Path indexPath, String gameid) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            readHeader(input, indexPath);
+            return mightContain(readBloom(input), hash(gameid));
+        }
+    }
+
+    private static String readHeader(DataInputStream input, Path indexPath) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Not a game index: " + indexPath);
+        }
+        return input.readUTF();
+    }
+
+    private static long[] readBloom(DataInputStream input) throws IOException {
+        long[] bloom = new long[input.readInt()];
+        for (int i = 0; i < bloom.length; i++) {
+            bloom[i] = input.readLong();
+        }
+        return bloom;
+    }
+
+    private static boolean mightContain(long[] bloom, long hash) {
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = bloomBit(hash, i, bloom.length);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long bloomBit(long hash, int probe, int words) {
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = (hash >>> 32) | 1;
+        return Math.floorMod(h1 + probe * h2, (long) words * 64);
+    }
+
+    private static long hash(String gameid) {
+        byte[] bytes = gameid.getBytes(StandardCharsets.UTF_8);
+        return XxHash64.hash(bytes, 0, bytes.length);
+    }
+}
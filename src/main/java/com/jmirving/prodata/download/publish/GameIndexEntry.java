@@ -0,0 +1,4 @@
+package com.jmirving.prodata.download.publish;
+
+public record GameIndexEntry(String gameid, long offset, long length, long firstRow, long rowCount) {
+}
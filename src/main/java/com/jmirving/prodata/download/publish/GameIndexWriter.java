@@ -0,0 +1,84 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.XxHash64;
+
+/**
+ * Builds the {@link GameIndex} of a CSV in one streaming pass. Oracle's Elixir files keep a game's
+ * rows together, so each game is normally a single entry; a game whose rows are split produces one
+ * entry per contiguous run. Rows with an empty gameid are not indexed.
+ */
+public class GameIndexWriter {
+    public static final String INDEX_SUFFIX = ".gameindex";
+    private static final String GAMEID_COLUMN = "gameid";
+
+    public static Path indexPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + INDEX_SUFFIX);
+    }
+
+    public GameIndex build(Path csvPath) throws IOException {
+        return build(csvPath, FileChecksums.sha256(csvPath));
+    }
+
+    public GameIndex build(Path csvPath, String csvSha256) throws IOException {
+        RunTracker tracker = new RunTracker();
+        int[] column = new int[1];
+        CsvRecordScanner.scan(csvPath, (record, length, offset, index) -> {
+            if (index == 0) {
+                column[0] = CsvRecordScanner.columnIndex(record, length, GAMEID_COLUMN);
+                if (column[0] < 0) {
+                    throw new IOException("CSV " + csvPath + " has no " + GAMEID_COLUMN + " column");
+                }
+                return;
+            }
+            tracker.record(record, length, offset, index, column[0]);
+        });
+        tracker.close(Files.size(csvPath));
+        return GameIndex.of(csvSha256, tracker.entries);
+    }
+
+    public void write(GameIndex index, Path indexPath) throws IOException {
+        index.write(indexPath);
+    }
+
+    private static final class RunTracker {
+        private final List<GameIndexEntry> entries = new ArrayList<>();
+        private String gameid;
+        private long gameHash;
+        private long offset;
+        private long firstRow;
+        private long rowCount;
+
+        void record(byte[] record, int length, long recordOffset, long row, int column) {
+            int[] bounds = CsvRecordScanner.field(record, length, column);
+            if (bounds == null || bounds[1] == bounds[0]) {
+                close(recordOffset);
+                return;
+            }
+            long hash = XxHash64.hash(record, bounds[0], bounds[1] - bounds[0]);
+            if (gameid != null && hash == gameHash) {
+                rowCount++;
+                return;
+            }
+            close(recordOffset);
+            gameid = CsvRecordScanner.fieldString(record, length, column);
+            gameHash = hash;
+            offset = recordOffset;
+            firstRow = row;
+            rowCount = 1;
+        }
+
+        void close(long end) {
+            if (gameid != null) {
+                entries.add(new GameIndexEntry(gameid, offset, end - offset, firstRow, rowCount));
+                gameid = null;
+            }
+        }
+    }
+}
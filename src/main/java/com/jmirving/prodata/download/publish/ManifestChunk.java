@@ -0,0 +1,4 @@
+package com.jmirving.prodata.download.publish;
+
+public record ManifestChunk(long offset, long length, long rowCount, String sha256) {
+}
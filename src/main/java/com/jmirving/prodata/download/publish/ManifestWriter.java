@@ -1,78 +1,185 @@
 package com.jmirving.prodata.download.publish;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.ingest.CsvRowCounter;
+import com.jmirving.prodata.download.ingest.IngestChecksums;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
 
 public class ManifestWriter {
+    public static final long DEFAULT_CHECKSUM_CHUNK_SIZE = 8L * 1024 * 1024;
+
     private final ObjectMapper objectMapper;
     private final Clock clock;
+    private final ChecksumAlgorithm checksumAlgorithm;
+    private final long checksumChunkSize;
+    private final long rowChunkSize;
 
     public ManifestWriter() {
         this(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
     }
 
     public ManifestWriter(ObjectMapper objectMapper, Clock clock) {
+        this(objectMapper, clock, ChecksumAlgorithm.SHA256, DEFAULT_CHECKSUM_CHUNK_SIZE);
+    }
+
+    public ManifestWriter(ObjectMapper objectMapper, Clock clock, ChecksumAlgorithm checksumAlgorithm, long checksumChunkSize) {
+        this(objectMapper, clock, checksumAlgorithm, checksumChunkSize, 0);
+    }
+
+    public ManifestWriter(
+            ObjectMapper objectMapper,
+            Clock clock,
+            ChecksumAlgorithm checksumAlgorithm,
+            long checksumChunkSize,
+            long rowChunkSize
+    ) {
+        if (checksumChunkSize <= 0) {
+            throw new IllegalArgumentException("Checksum chunk size must be positive");
+        }
+        if (rowChunkSize < 0) {
+            throw new IllegalArgumentException("Row chunk size must not be negative");
+        }
         this.objectMapper = objectMapper;
         this.clock = clock;
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.checksumChunkSize = checksumChunkSize;
+        this.rowChunkSize = rowChunkSize;
+    }
+
+    public IngestChecksums ingestChecksums() {
+        return switch (checksumAlgorithm) {
+            case SHA256 -> IngestChecksums.NONE;
+            case SHA256_TREE -> new IngestChecksums(false, checksumChunkSize);
+            case XXHASH64 -> new IngestChecksums(true, 0);
+        };
     }
 
     public DownloadManifest write(Path csvPath, Path manifestPath, String sourceUrl) throws IOException {
         DownloadManifest manifest = buildManifest(csvPath, sourceUrl);
-        objectMapper.writeValue(manifestPath.toFile(), manifest);
+        write(manifest, manifestPath);
         return manifest;
     }
 
-    public DownloadManifest buildManifest(Path csvPath, String sourceUrl) throws IOException {
+    public DownloadManifest write(
+            IngestResult ingest,
+            Path csvPath,
+            Path manifestPath,
+            String sourceUrl,
+            RemoteFileMetadata metadata
+    ) throws IOException {
+        DownloadManifest manifest = buildManifest(ingest, csvPath, sourceUrl, metadata);
+        write(manifest, manifestPath);
+        return manifest;
+    }
+
+    public DownloadManifest buildManifest(IngestResult ingest, Path csvPath, String sourceUrl, RemoteFileMetadata metadata)
+            throws IOException {
+        return buildManifest(ingest, csvPath, sourceUrl, metadata, 0);
+    }
+
+    public DownloadManifest buildManifest(
+            IngestResult ingest,
+            Path csvPath,
+            String sourceUrl,
+            RemoteFileMetadata metadata,
+            int incrementalRuns
+    ) throws IOException {
+        Checksum checksum = checksum(csvPath, ingest);
+        RowChunkHasher.Result rowChunks = rowChunks(csvPath);
         return new DownloadManifest(
                 Instant.now(clock),
-                countRows(csvPath),
-                sha256(csvPath),
-                sourceUrl
+                ingest.rowCount(),
+                ingest.sha256(),
+                sourceUrl,
+                ingest.byteCount(),
+                metadata == null ? null : metadata.etag(),
+                metadata == null ? null : metadata.lastModified(),
+                ingest.overlapLength(),
+                ingest.overlapSha256(),
+                checksumAlgorithm,
+                checksum.chunkSize(),
+                checksum.value(),
+                rowChunks.merkleRoot(),
+                rowChunks.chunks(),
+                incrementalRuns
         );
     }
 
-    private long countRows(Path csvPath) throws IOException {
-        long count = 0;
-        try (BufferedReader reader = Files.newBufferedReader(csvPath)) {
-            String line = reader.readLine();
-            if (line == null) {
-                return 0;
-            }
-            while (reader.readLine() != null) {
-                count++;
-            }
+    public Optional<DownloadManifest> read(Path manifestPath) {
+        if (!Files.exists(manifestPath)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(manifestPath.toFile(), DownloadManifest.class));
+        } catch (IOException e) {
+            return Optional.empty();
         }
-        return count;
     }
 
-    private String sha256(Path csvPath) throws IOException {
-        MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 not available", e);
+    public DownloadManifest buildManifest(Path csvPath, String sourceUrl) throws IOException {
+        Checksum checksum = checksum(csvPath, null);
+        RowChunkHasher.Result rowChunks = rowChunks(csvPath);
+        return new DownloadManifest(
+                Instant.now(clock),
+                CsvRowCounter.countRows(csvPath),
+                checksum.sha256(),
+                sourceUrl,
+                Files.size(csvPath),
+                null,
+                null,
+                0,
+                null,
+                checksumAlgorithm,
+                checksum.chunkSize(),
+                checksum.value(),
+                rowChunks.merkleRoot(),
+                rowChunks.chunks(),
+                0
+        );
+    }
+
+    public void write(DownloadManifest manifest, Path manifestPath) throws IOException {
+        objectMapper.writeValue(manifestPath.toFile(), manifest);
+    }
+
+    private Checksum checksum(Path csvPath, IngestResult ingest) throws IOException {
+        String sha256 = ingest != null ? ingest.sha256() : FileChecksums.sha256(csvPath);
+        if (checksumAlgorithm == ChecksumAlgorithm.SHA256) {
+            return new Checksum(sha256, 0, sha256);
         }
+        long chunkSize = checksumAlgorithm == ChecksumAlgorithm.SHA256_TREE ? checksumChunkSize : 0;
+        String streamed = ingest == null ? null : switch (checksumAlgorithm) {
+            case SHA256_TREE -> ingest.treeChunkSize() == checksumChunkSize ? ingest.sha256Tree() : null;
+            case XXHASH64 -> ingest.xxHash64();
+            default -> null;
+        };
+        String value = streamed != null ? streamed : FileChecksums.compute(checksumAlgorithm, csvPath, checksumChunkSize);
+        return new Checksum(sha256, chunkSize, value);
+    }
 
-        byte[] buffer = new byte[8192];
-        int read;
-        try (var inputStream = Files.newInputStream(csvPath)) {
-            while ((read = inputStream.read(buffer)) > 0) {
-                digest.update(buffer, 0, read);
-            }
+    private RowChunkHasher.Result rowChunks(Path csvPath) throws IOException {
+        if (rowChunkSize == 0) {
+            return new RowChunkHasher.Result(null, null);
         }
+        return RowChunkHasher.hash(csvPath, rowChunkSize);
+    }
 
-        StringBuilder hex = new StringBuilder();
-        for (byte b : digest.digest()) {
-            hex.append(String.format("%02x", b));
+    public static List<ManifestChunk> changedChunks(DownloadManifest previous, DownloadManifest current) {
+        if (current.chunks() == null) {
+            throw new IllegalArgumentException("Current manifest has no chunk list");
         }
-        return hex.toString();
+        return RowChunkHasher.changedChunks(previous == null ? null : previous.chunks(), current.chunks());
+    }
+
+    private record Checksum(String sha256, long chunkSize, String value) {
     }
 }
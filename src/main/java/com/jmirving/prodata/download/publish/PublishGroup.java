@@ -0,0 +1,47 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Files published together, such as a year CSV and its sidecars. Under
+ * {@link DurabilityPolicy#FILE_AND_DIRECTORY} each directory that received a rename is synced once
+ * when the group closes, instead of once per file.
+ */
+public final class PublishGroup implements Closeable {
+    private final DurabilityPolicy policy;
+    private final Set<Path> directories = new LinkedHashSet<>();
+
+    PublishGroup(DurabilityPolicy policy) {
+        this.policy = policy;
+    }
+
+    synchronized void renamedInto(Path directory) {
+        if (policy == DurabilityPolicy.FILE_AND_DIRECTORY) {
+            directories.add(directory);
+        }
+    }
+
+    synchronized Set<Path> pendingDirectories() {
+        return Set.copyOf(directories);
+    }
+
+    public synchronized void sync() throws IOException {
+        for (Path directory : directories) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        }
+        directories.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+    }
+}
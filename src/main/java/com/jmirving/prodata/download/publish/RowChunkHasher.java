@@ -0,0 +1,179 @@
+package com.jmirving.prodata.download.publish;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a CSV into content-defined chunks that always end on a record boundary and hashes each
+ * chunk, then folds the chunk hashes into a Merkle root.
+ */
+final class RowChunkHasher {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long[] GEAR = gearTable();
+
+    private final long minChunkBytes;
+    private final long maxChunkBytes;
+    private final long boundaryMask;
+    private final List<ManifestChunk> chunks = new ArrayList<>();
+    private MessageDigest digest = FileChecksums.newSha256();
+    private long chunkStart;
+    private long position;
+    private long chunkRows;
+    private long lastRecordEnd;
+    private long gear;
+    private boolean inQuotes;
+    private boolean pendingCarriageReturn;
+    private boolean boundaryInRecord;
+    private boolean headerDone;
+
+    private RowChunkHasher(long targetChunkBytes) {
+        if (targetChunkBytes < 1024) {
+            throw new IllegalArgumentException("Chunk target size must be at least 1KB");
+        }
+        this.minChunkBytes = targetChunkBytes / 4;
+        this.maxChunkBytes = targetChunkBytes * 4;
+        // Matching the top k bits happens about once every 2^k bytes.
+        int bits = 63 - Long.numberOfLeadingZeros(targetChunkBytes - minChunkBytes);
+        this.boundaryMask = -1L << (64 - bits);
+    }
+
+    record Result(List<ManifestChunk> chunks, String merkleRoot) {
+    }
+
+    static Result hash(Path csvPath, long targetChunkBytes) throws IOException {
+        RowChunkHasher hasher = new RowChunkHasher(targetChunkBytes);
+        byte[] buffer = new byte[BUFFER_BYTES];
+        int read;
+        try (InputStream inputStream = Files.newInputStream(csvPath)) {
+            while ((read = inputStream.read(buffer)) > 0) {
+                hasher.update(buffer, read);
+            }
+        }
+        hasher.finish();
+        return new Result(List.copyOf(hasher.chunks), merkleRoot(hasher.chunks));
+    }
+
+    static List<ManifestChunk> changedChunks(List<ManifestChunk> previous, List<ManifestChunk> current) {
+        Set<String> known = new LinkedHashSet<>();
+        if (previous != null) {
+            previous.forEach(chunk -> known.add(chunk.sha256()));
+        }
+        List<ManifestChunk> changed = new ArrayList<>();
+        for (ManifestChunk chunk : current) {
+            if (!known.contains(chunk.sha256())) {
+                changed.add(chunk);
+            }
+        }
+        return changed;
+    }
+
+    private void update(byte[] buffer, int length) {
+        int segmentStart = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                if (b != '\n') {
+                    // A lone CR ended the record; the chunk closes before this byte.
+                    digest.update(buffer, segmentStart, i - segmentStart);
+                    segmentStart = i;
+                    endRecord();
+                }
+            }
+            gear = (gear << 1) + GEAR[b & 0xFF];
+            if ((gear & boundaryMask) == 0) {
+                boundaryInRecord = true;
+            }
+            position++;
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && b == '\n') {
+                digest.update(buffer, segmentStart, i + 1 - segmentStart);
+                segmentStart = i + 1;
+                endRecord();
+            } else if (!inQuotes && b == '\r') {
+                pendingCarriageReturn = true;
+            }
+        }
+        digest.update(buffer, segmentStart, length - segmentStart);
+    }
+
+    private void endRecord() {
+        countRecord();
+        long chunkLength = position - chunkStart;
+        if (chunkLength >= maxChunkBytes || chunkLength >= minChunkBytes && boundaryInRecord) {
+            closeChunk(position);
+        }
+        boundaryInRecord = false;
+    }
+
+    private void countRecord() {
+        if (headerDone) {
+            chunkRows++;
+        } else {
+            headerDone = true;
+        }
+        lastRecordEnd = position;
+    }
+
+    private void finish() {
+        if (pendingCarriageReturn || position > lastRecordEnd) {
+            pendingCarriageReturn = false;
+            countRecord();
+        }
+        if (position > chunkStart) {
+            closeChunk(position);
+        }
+    }
+
+    private void closeChunk(long end) {
+        chunks.add(new ManifestChunk(chunkStart, end - chunkStart, chunkRows, HexFormat.of().formatHex(digest.digest())));
+        digest = FileChecksums.newSha256();
+        chunkStart = end;
+        chunkRows = 0;
+    }
+
+    static String merkleRoot(List<ManifestChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return null;
+        }
+        List<byte[]> level = new ArrayList<>(chunks.size());
+        for (ManifestChunk chunk : chunks) {
+            level.add(HexFormat.of().parseHex(chunk.sha256()));
+        }
+        while (level.size() > 1) {
+            List<byte[]> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 == level.size()) {
+                    next.add(level.get(i));
+                } else {
+                    MessageDigest node = FileChecksums.newSha256();
+                    node.update((byte) 0x01);
+                    node.update(level.get(i));
+                    node.update(level.get(i + 1));
+                    next.add(node.digest());
+                }
+            }
+            level = next;
+        }
+        return HexFormat.of().formatHex(level.get(0));
+    }
+
+    private static long[] gearTable() {
+        SplittableRandom random = new SplittableRandom(0x6A09E667F3BCC908L);
+        long[] table = new long[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextLong();
+        }
+        return table;
+    }
+}
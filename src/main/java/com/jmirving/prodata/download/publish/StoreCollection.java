@@ -0,0 +1,9 @@
+package com.jmirving.prodata.download.publish;
+
+public record StoreCollection(
+        long referencedObjects,
+        long unreferencedObjects,
+        long deletedObjects,
+        long freedBytes
+) {
+}
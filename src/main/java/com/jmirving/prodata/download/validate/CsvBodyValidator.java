@@ -0,0 +1,357 @@
+package com.jmirving.prodata.download.validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.jmirving.prodata.download.ingest.CsvRecordScanner;
+import com.jmirving.prodata.download.ingest.CsvSplitter;
+
+/**
+ * Validates the column count and the typed columns of every data row, in parallel over
+ * record-aligned chunks. Columns missing from the header are left to {@link CsvHeaderValidator}.
+ */
+public class CsvBodyValidator {
+    static final int MAX_REPORTED_ERRORS = 20;
+    private static final int READ_BYTES = 64 * 1024;
+
+    private final int parallelism;
+    private final long chunkBytes;
+
+    public CsvBodyValidator() {
+        this(0);
+    }
+
+    public CsvBodyValidator(int parallelism) {
+        this(parallelism, 0);
+    }
+
+    CsvBodyValidator(int parallelism, long chunkBytes) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkBytes = chunkBytes;
+    }
+
+    public long validate(Path csvPath) throws IOException {
+        if (csvPath == null || !Files.exists(csvPath)) {
+            throw new CsvValidationException("CSV path does not exist");
+        }
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel, size);
+            if (header == null) {
+                throw new CsvValidationException("CSV header row is missing");
+            }
+            if (header.dataStart() >= size) {
+                return 0;
+            }
+            List<long[]> chunks = chunk(channel, header.dataStart(), size);
+            List<ChunkResult> results = CsvSplitter.parallel(chunks, parallelism, "validate CSV body",
+                    chunk -> () -> validateChunk(channel, chunk[0], chunk[1], header.layout()));
+            return report(results);
+        }
+    }
+
+    private long report(List<ChunkResult> results) {
+        long rows = 0;
+        long invalidRows = 0;
+        List<String> reported = new ArrayList<>();
+        for (ChunkResult result : results) {
+            for (RowError error : result.errors()) {
+                if (reported.size() < MAX_REPORTED_ERRORS) {
+                    reported.add("row " + (rows + error.index() + 1) + ": " + error.message());
+                }
+            }
+            rows += result.rows();
+            invalidRows += result.invalidRows();
+        }
+        if (invalidRows > 0) {
+            throw new CsvValidationException("CSV body has " + invalidRows + " invalid of " + rows + " rows: "
+                    + String.join("; ", reported));
+        }
+        return rows;
+    }
+
+    private List<long[]> chunk(FileChannel channel, long dataStart, long size) throws IOException {
+        long segment = chunkBytes > 0
+                ? chunkBytes
+                : CsvSplitter.segmentBytes(size - dataStart, parallelism, CsvSplitter.DEFAULT_MIN_SEGMENT_BYTES);
+        return CsvSplitter.scan(channel, dataStart, size, parallelism, segment).recordAlignedChunks(channel);
+    }
+
+    private static void fill(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    private static Header readHeader(FileChannel channel, long size) throws IOException {
+        if (size == 0) {
+            return null;
+        }
+        byte[] header = new byte[0];
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BYTES);
+        long position = 0;
+        boolean inQuotes = false;
+        while (position < size) {
+            fill(channel, buffer, position);
+            int limit = buffer.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (!inQuotes && (b == '\n' || b == '\r')) {
+                    int length = header.length;
+                    header = Arrays.copyOf(header, length + i);
+                    buffer.get(0, header, length, i);
+                    long end = position + i + 1;
+                    if (b == '\r' && end < size && readByte(channel, end) == '\n') {
+                        end++;
+                    }
+                    return new Header(Layout.of(header), end);
+                }
+            }
+            int length = header.length;
+            header = Arrays.copyOf(header, length + limit);
+            buffer.get(0, header, length, limit);
+            position += limit;
+        }
+        return new Header(Layout.of(header), size);
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+        return buffer.get(0);
+    }
+
+    private static ChunkResult validateChunk(FileChannel channel, long start, long end, Layout layout)
+            throws IOException {
+        RowChecker checker = new RowChecker(layout);
+        CsvRecordScanner.scan(new RangeInputStream(channel, start, end), checker);
+        return new ChunkResult(checker.rows, checker.invalidRows, checker.errors);
+    }
+
+    private record Header(Layout layout, long dataStart) {
+    }
+
+    private record RowError(long index, String message) {
+    }
+
+    private record ChunkResult(long rows, long invalidRows, List<RowError> errors) {
+    }
+
+    private record Layout(int columns, int year, int game, int participantId, int date, int side) {
+        private static Layout of(byte[] header) {
+            int[] bounds = new int[2 * (count(header, (byte) ',') + 1)];
+            int columns = CsvRecordScanner.fields(header, header.length, bounds);
+            List<String> names = new ArrayList<>(columns);
+            for (int i = 0; i < columns; i++) {
+                String name = new String(header, bounds[2 * i], bounds[2 * i + 1] - bounds[2 * i],
+                        StandardCharsets.UTF_8);
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            return new Layout(columns, names.indexOf("year"), names.indexOf("game"),
+                    names.indexOf("participantid"), names.indexOf("date"), names.indexOf("side"));
+        }
+
+        private static int count(byte[] bytes, byte value) {
+            int count = 0;
+            for (byte b : bytes) {
+                if (b == value) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class RowChecker implements CsvRecordScanner.RecordHandler {
+        private final Layout layout;
+        private final int[] bounds;
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private long invalidRows;
+
+        private RowChecker(Layout layout) {
+            this.layout = layout;
+            // One spare slot so a row with too many columns is detected without splitting it all.
+            this.bounds = new int[2 * (layout.columns() + 1)];
+        }
+
+        @Override
+        public void record(byte[] record, int length, long offset, long index) {
+            rows++;
+            String error = check(record, length);
+            if (error != null) {
+                invalidRows++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new RowError(index, error));
+                }
+            }
+        }
+
+        private String check(byte[] record, int length) {
+            int count = CsvRecordScanner.fields(record, length, bounds);
+            if (count != layout.columns()) {
+                return count > layout.columns()
+                        ? "expected " + layout.columns() + " columns but found more"
+                        : "expected " + layout.columns() + " columns but found " + count;
+            }
+            if (layout.year() >= 0 && !isInteger(record, layout.year(), false)) {
+                return describe(record, layout.year(), "year", "is not an integer");
+            }
+            if (layout.game() >= 0 && !isInteger(record, layout.game(), true)) {
+                return describe(record, layout.game(), "game", "is not an integer");
+            }
+            if (layout.participantId() >= 0 && !isInteger(record, layout.participantId(), false)) {
+                return describe(record, layout.participantId(), "participantid", "is not an integer");
+            }
+            if (layout.date() >= 0 && !isDate(record, layout.date())) {
+                return describe(record, layout.date(), "date", "is not yyyy-MM-dd or yyyy-MM-dd HH:mm:ss");
+            }
+            if (layout.side() >= 0 && !isSide(record, layout.side())) {
+                return describe(record, layout.side(), "side", "is not Blue or Red");
+            }
+            return null;
+        }
+
+        private boolean isInteger(byte[] record, int column, boolean allowEmpty) {
+            int start = bounds[2 * column];
+            int end = bounds[2 * column + 1];
+            if (start == end) {
+                return allowEmpty;
+            }
+            if (record[start] == '-') {
+                start++;
+            }
+            if (start == end || end - start > 18) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (record[i] < '0' || record[i] > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isDate(byte[] record, int column) {
+            int start = bounds[2 * column];
+            int length = bounds[2 * column + 1] - start;
+            if (length != 10 && length != 19) {
+                return false;
+            }
+            if (record[start + 4] != '-' || record[start + 7] != '-') {
+                return false;
+            }
+            int year = digits(record, start, 4);
+            int month = digits(record, start + 5, 2);
+            int day = digits(record, start + 8, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+                return false;
+            }
+            if (length == 10) {
+                return true;
+            }
+            if (record[start + 10] != ' ' || record[start + 13] != ':' || record[start + 16] != ':') {
+                return false;
+            }
+            int hour = digits(record, start + 11, 2);
+            int minute = digits(record, start + 14, 2);
+            int second = digits(record, start + 17, 2);
+            return hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60;
+        }
+
+        private boolean isSide(byte[] record, int column) {
+            int start = bounds[2 * column];
+            int length = bounds[2 * column + 1] - start;
+            return matches(record, start, length, "blue") || matches(record, start, length, "red");
+        }
+
+        private String describe(byte[] record, int column, String name, String problem) {
+            int start = bounds[2 * column];
+            String value = new String(record, start, bounds[2 * column + 1] - start, StandardCharsets.UTF_8);
+            return name + " '" + value + "' " + problem;
+        }
+
+        private static boolean matches(byte[] record, int start, int length, String lowerCase) {
+            if (length != lowerCase.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if ((record[start + i] | 0x20) != lowerCase.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int digits(byte[] record, int start, int count) {
+            int value = 0;
+            for (int i = start; i < start + count; i++) {
+                int digit = record[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private static int daysInMonth(int year, int month) {
+            return switch (month) {
+                case 2 -> year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+                case 4, 6, 9, 11 -> 30;
+                default -> 31;
+            };
+        }
+    }
+
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int wanted = (int) Math.min(length, end - position);
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, wanted), position);
+            if (read < 0) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+    }
+}
@@ -42,17 +42,19 @@ public class CsvHeaderValidator {
             throw new CsvValidationException("CSV path does not exist");
         }
         try (BufferedReader reader = Files.newBufferedReader(csvPath)) {
-            String headerLine = reader.readLine();
-            if (headerLine == null || headerLine.isBlank()) {
-                throw new CsvValidationException("CSV header row is missing");
-            }
-            headerLine = stripBom(headerLine);
-            List<String> headers = parseHeader(headerLine);
-            Set<String> normalized = normalizeHeaders(headers);
-            List<String> missing = findMissing(normalized);
-            if (!missing.isEmpty()) {
-                throw new CsvValidationException("Missing required columns: " + String.join(", ", missing));
-            }
+            validateHeader(reader.readLine());
+        }
+    }
+
+    public void validateHeader(String headerLine) throws IOException {
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new CsvValidationException("CSV header row is missing");
+        }
+        List<String> headers = parseHeader(stripBom(headerLine));
+        Set<String> normalized = normalizeHeaders(headers);
+        List<String> missing = findMissing(normalized);
+        if (!missing.isEmpty()) {
+            throw new CsvValidationException("Missing required columns: " + String.join(", ", missing));
         }
     }
 
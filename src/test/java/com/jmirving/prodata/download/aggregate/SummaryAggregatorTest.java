@@ -0,0 +1,101 @@
+package com.jmirving.prodata.download.aggregate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SummaryAggregatorTest {
+    private static final String HEADER =
+            "gameid,league,patch,participantid,side,teamid,teamname,result,kills,deaths,gamelength,"
+                    + "ban1,ban2,ban3,ban4,ban5,pick1,pick2,pick3,pick4,pick5";
+    private static final Instant NOW = Instant.parse("2026-01-15T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SummaryAggregator aggregator = new SummaryAggregator(objectMapper, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void countsPicksBansAndTeamTotalsFromTeamRows() throws IOException {
+        Path csv = write(HEADER + "\n"
+                + "G1,LCK,15.1,1,Blue,T1,T1 Esports,1,0,0,1800,Ahri,,,,,Azir,,,,\n"
+                + "G1,LCK,15.1,100,Blue,T1,T1 Esports,1,12,3,1800,Ahri,Rell,,,,Azir,Rakan,,,\n"
+                + "G1,LCK,15.1,200,Red,GEN,Gen.G,0,3,12,1800,Azir,,,,,Ahri,Rell,,,\n"
+                + "G2,LCK,15.1,100,Blue,GEN,Gen.G,1,20,5,1500.4,Azir,,,,,Ahri,,,,\n"
+                + "G2,LCK,15.1,200,Red,T1,,0,5,20,1500.4,Rell,,,,,Rakan,,,,\n"
+                + "G3,LEC,15.1,100,Blue,G2,G2 Esports,,,,,\"Nunu & Willump\",,,,,Azir,,,,\n");
+
+        SummaryTables tables = aggregator.aggregate(csv, "2026.csv");
+
+        assertEquals(List.of(
+                new PickBanRow("LCK", "15.1", "Ahri", 2, 2, 1),
+                new PickBanRow("LCK", "15.1", "Azir", 2, 1, 2),
+                new PickBanRow("LCK", "15.1", "Rakan", 2, 2, 0),
+                new PickBanRow("LCK", "15.1", "Rell", 2, 1, 2),
+                new PickBanRow("LEC", "15.1", "Azir", 1, 1, 0),
+                new PickBanRow("LEC", "15.1", "Nunu & Willump", 1, 0, 1)
+        ), tables.pickBans());
+        assertEquals(List.of(
+                new TeamRow("LCK", "15.1", "GEN", "Gen.G", 2, 1, 1, 23, 17, 3300),
+                new TeamRow("LCK", "15.1", "T1", "T1 Esports", 2, 1, 1, 17, 23, 3300),
+                new TeamRow("LEC", "15.1", "G2", "G2 Esports", 1, 0, 1, 0, 0, 0)
+        ), tables.teams());
+        assertEquals(NOW, tables.generatedAt());
+        assertEquals("2026.csv", tables.source());
+    }
+
+    @Test
+    void countsGamesWhoseTeamRowsAreNotAdjacentOnce() throws IOException {
+        Path csv = write(HEADER + "\n"
+                + "G1,LCK,15.1,100,Blue,T1,T1 Esports,1,12,3,1800,Ahri,,,,,Azir,,,,\n"
+                + "G2,LCK,15.1,100,Blue,GEN,Gen.G,1,20,5,1500,Azir,,,,,Ahri,,,,\n"
+                + "G1,LCK,15.1,200,Red,GEN,Gen.G,0,3,12,1800,Rell,,,,,Rakan,,,,\n"
+                + "G2,LCK,15.1,200,Red,T1,T1 Esports,0,5,20,1500,Rell,,,,,Rakan,,,,\n");
+
+        SummaryTables tables = aggregator.aggregate(csv, "2026.csv");
+
+        assertEquals(List.of(2L), tables.pickBans().stream().map(PickBanRow::games).distinct().toList());
+    }
+
+    @Test
+    void writesOneSidecarPerTable() throws IOException {
+        Path csv = write(HEADER + "\nG1,LCK,15.1,100,Blue,T1,T1 Esports,1,12,3,1800,Ahri,,,,,Azir,,,,\n");
+        SummaryTables tables = aggregator.aggregate(csv, "2026.csv");
+        Path pickBans = SummaryAggregator.pickBanPath(csv);
+        Path teams = SummaryAggregator.teamsPath(csv);
+
+        aggregator.write(tables, pickBans, teams);
+
+        SummaryFile<PickBanRow> pickBanFile = objectMapper.readValue(pickBans.toFile(), new TypeReference<>() {
+        });
+        SummaryFile<TeamRow> teamFile = objectMapper.readValue(teams.toFile(), new TypeReference<>() {
+        });
+        assertEquals(tables.pickBans(), pickBanFile.rows());
+        assertEquals(tables.teams(), teamFile.rows());
+        assertEquals(csv.resolveSibling("2026.csv.pickban.json"), pickBans);
+    }
+
+    @Test
+    void rejectsCsvWithoutRequiredColumns() throws IOException {
+        Path csv = write("gameid,league,patch\nG1,LCK,15.1\n");
+
+        assertThrows(IOException.class, () -> aggregator.aggregate(csv, "2026.csv"));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("2026.csv"), content);
+    }
+}
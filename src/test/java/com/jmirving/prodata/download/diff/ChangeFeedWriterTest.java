@@ -0,0 +1,103 @@
+package com.jmirving.prodata.download.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.publish.ChecksumAlgorithm;
+import com.jmirving.prodata.download.publish.DownloadManifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChangeFeedWriterTest {
+    private static final Instant RUN_STARTED_AT = Instant.parse("2026-01-15T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ChangeFeedWriter writer = new ChangeFeedWriter(objectMapper,
+            Clock.fixed(Instant.parse("2026-01-15T00:05:00Z"), ZoneOffset.UTC));
+
+    @Test
+    void appendsOneLinePerEntryWithIncreasingSequence() throws IOException {
+        Path feed = tempDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+
+        append(writer, feed, "2026.csv", manifest(10), List.of(new GameRange("G1", 1, 10)));
+        ChangeFeedEntry second = append(writer, feed, "2025.csv", manifest(12), List.of());
+
+        List<String> lines = Files.readAllLines(feed);
+        assertEquals(2, lines.size());
+        assertEquals(2, second.sequence());
+        ChangeFeedEntry first = objectMapper.readValue(lines.get(0), ChangeFeedEntry.class);
+        assertEquals(1, first.sequence());
+        assertEquals("2026.csv", first.file());
+        assertFalse(Files.exists(ChangeFeedWriter.pendingPath(tempDir.resolve("2026.csv"))));
+        assertEquals(List.of(new GameRange("G1", 1, 10)), first.newGames());
+        assertEquals(ChecksumAlgorithm.SHA256, first.checksumAlgorithm());
+        assertEquals(second, objectMapper.readValue(lines.get(1), ChangeFeedEntry.class));
+    }
+
+    @Test
+    void truncatesTornLastLineAndContinuesSequence() throws IOException {
+        Path feed = tempDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+        append(writer, feed, "2024.csv", manifest(10), List.of());
+        append(writer, feed, "2025.csv", manifest(11), List.of());
+        Files.writeString(feed, "{\"sequence\":3,\"runSta", StandardOpenOption.APPEND);
+
+        ChangeFeedEntry entry = append(writer, feed, "2026.csv", manifest(12), List.of());
+
+        List<String> lines = Files.readAllLines(feed);
+        assertEquals(3, lines.size());
+        assertEquals(3, entry.sequence());
+        assertEquals(3, objectMapper.readTree(lines.get(2)).get("sequence").asLong());
+    }
+
+    @Test
+    void appendsPendingEntriesOnceInPublishOrder() throws IOException {
+        Path feed = tempDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+        Path csv2025 = tempDir.resolve("2025.csv");
+        Path csv2026 = tempDir.resolve("2026.csv");
+        ChangeFeedWriter early = new ChangeFeedWriter(objectMapper,
+                Clock.fixed(Instant.parse("2026-01-15T00:01:00Z"), ZoneOffset.UTC));
+        early.writePending(ChangeFeedWriter.pendingPath(csv2026), RUN_STARTED_AT, csv2026, manifest(10),
+                List.of(new GameRange("G1", 1, 10)));
+        writer.writePending(ChangeFeedWriter.pendingPath(csv2025), RUN_STARTED_AT, csv2025, manifest(20), List.of());
+        // An earlier attempt appended the 2026 entry but died before deleting its pending file.
+        Files.copy(ChangeFeedWriter.pendingPath(csv2026), tempDir.resolve("kept.json"));
+        writer.appendPending(feed, ChangeFeedWriter.pendingPath(csv2026));
+        Files.copy(tempDir.resolve("kept.json"), ChangeFeedWriter.pendingPath(csv2026));
+
+        List<ChangeFeedEntry> recovered = writer.recoverPending(feed, tempDir);
+
+        List<String> lines = Files.readAllLines(feed);
+        assertEquals(2, lines.size());
+        assertEquals(List.of("2026.csv", "2025.csv"), recovered.stream().map(ChangeFeedEntry::file).toList());
+        assertEquals(List.of(1L, 2L), recovered.stream().map(ChangeFeedEntry::sequence).toList());
+        assertEquals(recovered.get(0), objectMapper.readValue(lines.get(0), ChangeFeedEntry.class));
+        assertEquals(Instant.parse("2026-01-15T00:01:00Z"), recovered.get(0).publishedAt());
+        assertEquals(List.of(), writer.recoverPending(feed, tempDir));
+    }
+
+    private ChangeFeedEntry append(ChangeFeedWriter feedWriter, Path feed, String file, DownloadManifest manifest,
+            List<GameRange> newGames) throws IOException {
+        Path csv = tempDir.resolve(file);
+        Path pending = ChangeFeedWriter.pendingPath(csv);
+        feedWriter.writePending(pending, RUN_STARTED_AT, csv, manifest, newGames);
+        return feedWriter.appendPending(feed, pending);
+    }
+
+    private DownloadManifest manifest(long rowCount) {
+        return new DownloadManifest(RUN_STARTED_AT, rowCount, "abc", "https://example.com/file", 100, null, null,
+                0, null, ChecksumAlgorithm.SHA256, 0, "abc", null, null, 0);
+    }
+}
@@ -0,0 +1,37 @@
+package com.jmirving.prodata.download.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LongLongHashMapTest {
+    @Test
+    void storesAndFindsKeysAcrossGrowth() {
+        LongLongHashMap map = new LongLongHashMap(2);
+        for (long key = -500; key < 500; key++) {
+            assertTrue(map.putIfAbsent(key * 1_000_003L, key));
+        }
+
+        assertEquals(1000, map.size());
+        for (long key = -500; key < 500; key++) {
+            assertEquals(key, map.valueAt(map.find(key * 1_000_003L)));
+        }
+        assertEquals(-1, map.find(7));
+    }
+
+    @Test
+    void keepsFirstValueAndTracksMatchedSlots() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.putIfAbsent(0, 1);
+
+        assertFalse(map.putIfAbsent(0, 2));
+        int slot = map.find(0);
+        assertEquals(1, map.valueAt(slot));
+        assertFalse(map.isMatched(slot));
+        map.markMatched(slot);
+        map.putIfAbsent(99, 3);
+        assertTrue(map.isMatched(map.find(0)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.jmirving.prodata.download.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NewGameScannerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reportsRowRangesOfGamesMissingFromPreviousFile() throws IOException {
+        Path previous = write("previous.csv", """
+                gameid,participantid
+                G1,1
+                G1,2
+                """);
+        Path current = write("current.csv", """
+                gameid,participantid
+                G1,1
+                G1,2
+                G2,1
+                G2,2
+                G2,3
+                "G3",1
+                G1,3
+                G3,2
+                """);
+
+        List<GameRange> newGames = NewGameScanner.newGames(previous, current);
+
+        assertEquals(List.of(
+                new GameRange("G2", 3, 3),
+                new GameRange("G3", 6, 1),
+                new GameRange("G3", 8, 1)
+        ), newGames);
+    }
+
+    @Test
+    void treatsEveryGameAsNewWithoutPreviousFile() throws IOException {
+        Path current = write("current.csv", "\uFEFFGameId,note\nG1,\"a\nb\"\nG1,c\r\nG2,d");
+
+        List<GameRange> newGames = NewGameScanner.newGames(tempDir.resolve("missing.csv"), current);
+
+        assertEquals(List.of(new GameRange("G1", 1, 2), new GameRange("G2", 3, 1)), newGames);
+    }
+
+    @Test
+    void rejectsFilesWithoutGameIdColumn() throws IOException {
+        Path current = write("current.csv", "league,participantid\nLCK,1\n");
+
+        assertThrows(IOException.class, () -> NewGameScanner.newGames(null, current));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+}
@@ -0,0 +1,102 @@
+package com.jmirving.prodata.download.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RowDifferTest {
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final RowDiffer differ = new RowDiffer(objectMapper,
+            Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    void reportsAddedChangedAndRemovedRowsByKey() throws IOException {
+        Path previous = write("previous.csv", """
+                gameid,league,participantid,kills
+                G1,LCK,1,3
+                G1,LCK,2,4
+                G2,LEC,1,0
+                """);
+        Path current = write("current.csv", """
+                gameid,league,participantid,kills
+                G1,LCK,2,4
+                G1,LCK,1,5
+                G3,LPL,1,2
+                """);
+
+        RowDiff diff = differ.diff(previous, current);
+
+        assertEquals(List.of(new RowKey("G3", "1")), diff.added());
+        assertEquals(List.of(new RowKey("G1", "1")), diff.changed());
+        assertEquals(List.of(new RowKey("G2", "1")), diff.removed());
+        assertEquals(1, diff.unchangedCount());
+        assertTrue(diff.hasChanges());
+    }
+
+    @Test
+    void ignoresLineEndingsAndCountsDuplicateKeys() throws IOException {
+        Path previous = write("previous.csv", "gameid,participantid,note\nG1,1,\"a\nb\"\nG1,2,x\n");
+        Path current = write("current.csv", "gameid,participantid,note\r\nG1,1,\"a\nb\"\r\nG1,2,x\r\nG1,2,y\r\n");
+
+        RowDiff diff = differ.diff(previous, current);
+
+        assertFalse(diff.hasChanges());
+        assertEquals(2, diff.unchangedCount());
+        assertEquals(1, diff.duplicateKeyCount());
+    }
+
+    @Test
+    void countsRepeatedNewKeyAsDuplicateInsteadOfAddingItTwice() throws IOException {
+        Path previous = write("previous.csv", "gameid,participantid,note\nG1,1,x\n");
+        Path current = write("current.csv", "gameid,participantid,note\nG1,1,x\nG2,1,a\nG2,1,b\nG1,1,y\n");
+
+        RowDiff diff = differ.diff(previous, current);
+
+        assertEquals(List.of(new RowKey("G2", "1")), diff.added());
+        assertEquals(List.of(), diff.removed());
+        assertEquals(1, diff.unchangedCount());
+        assertEquals(2, diff.duplicateKeyCount());
+    }
+
+    @Test
+    void writesSidecarThatReadsBack() throws IOException {
+        Path previous = write("a.csv", "gameid,participantid\nG1,1\n");
+        Path current = write("b.csv", "gameid,participantid\nG1,1\nG1,2\n");
+        RowDiff diff = differ.diff(previous, current);
+        Path diffPath = RowDiffer.diffPath(tempDir.resolve("2026.csv"));
+
+        differ.write(diff, diffPath);
+
+        assertEquals(tempDir.resolve("2026.csv.diff.json"), diffPath);
+        assertEquals(diff, objectMapper.readValue(diffPath.toFile(), RowDiff.class));
+    }
+
+    @Test
+    void rejectsFilesWithoutKeyColumns() throws IOException {
+        Path previous = write("a.csv", "gameid,league\nG1,LCK\n");
+
+        assertThrows(IOException.class, () -> differ.diff(previous, previous));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content);
+        return path;
+    }
+}
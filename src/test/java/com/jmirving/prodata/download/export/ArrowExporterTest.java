@@ -0,0 +1,156 @@
+package com.jmirving.prodata.download.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArrowExporterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exportsTypedAndDictionaryEncodedColumns() throws IOException {
+        StringBuilder csv = new StringBuilder("\uFEFFgameid,league,patch,kills,gpm,note\n");
+        for (int row = 0; row < 10; row++) {
+            csv.append("G").append(row).append(',')
+                    .append(row % 2 == 0 ? "LCK" : "LEC").append(',')
+                    .append(row % 3 == 0 ? "14.10" : "14.1").append(',')
+                    .append(row == 4 ? "" : String.valueOf(row)).append(',')
+                    .append(row + 0.25).append(',')
+                    .append(row == 0 ? "\"say \"\"gg\"\",\nthen leave\"" : "n" + row).append('\n');
+        }
+        Path csvPath = Files.writeString(tempDir.resolve("2026.csv"), csv.toString());
+        Path arrowPath = ArrowExporter.exportPath(csvPath);
+
+        ExportResult result = new ArrowExporter(4, 8).export(csvPath, arrowPath);
+
+        assertEquals(10, result.rowCount());
+        assertEquals(6, result.columnCount());
+        assertEquals(List.of("league", "patch"), result.dictionaryColumns());
+        assertEquals(Files.size(arrowPath), result.byteCount());
+
+        List<List<Object>> rows = readRows(arrowPath);
+        assertEquals(10, rows.size());
+        assertEquals(List.of("G0", "LCK", "14.10", 0L, 0.25, "say \"gg\",\nthen leave"), rows.get(0));
+        assertEquals(List.of("G1", "LEC", "14.1", 1L, 1.25, "n1"), rows.get(1));
+        assertNull(rows.get(4).get(3));
+        assertEquals(List.of("G9", "LEC", "14.10", 9L, 9.25, "n9"), rows.get(9));
+    }
+
+    @Test
+    void fallsBackToPlainStringsAboveDictionaryLimit() throws IOException {
+        Path csvPath = Files.writeString(tempDir.resolve("wide.csv"), "a,b\nx1,1\nx2,2.5\nx3,007\n");
+        Path arrowPath = tempDir.resolve("wide.arrow");
+
+        ExportResult result = new ArrowExporter(1024, 2).export(csvPath, arrowPath);
+
+        assertTrue(result.dictionaryColumns().isEmpty());
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader reader = new ArrowFileReader(FileChannel.open(arrowPath, StandardOpenOption.READ), allocator,
+                     CommonsCompressionFactory.INSTANCE)) {
+            List<Field> fields = reader.getVectorSchemaRoot().getSchema().getFields();
+            assertInstanceOf(ArrowType.Utf8.class, fields.get(0).getType());
+            assertInstanceOf(ArrowType.FloatingPoint.class, fields.get(1).getType());
+            assertNull(fields.get(0).getDictionary());
+        }
+    }
+
+    @Test
+    void recognisesOnlyCanonicalIntegers() {
+        assertTrue(isLong("0"));
+        assertTrue(isLong("-12"));
+        assertFalse(isLong("007"));
+        assertFalse(isLong("-0"));
+        assertFalse(isLong("+1"));
+        assertFalse(isLong("1.0"));
+        assertFalse(isLong("1234567890123456789"));
+    }
+
+    @Test
+    void rejectsFileWithoutHeader() throws IOException {
+        Path csvPath = Files.writeString(tempDir.resolve("empty.csv"), "");
+
+        assertThrows(IOException.class, () -> new ArrowExporter().export(csvPath, tempDir.resolve("empty.arrow")));
+    }
+
+    private static boolean isLong(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        return ArrowExporter.isLong(bytes, 0, bytes.length);
+    }
+
+    private List<List<Object>> readRows(Path arrowPath) throws IOException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader reader = new ArrowFileReader(FileChannel.open(arrowPath, StandardOpenOption.READ), allocator,
+                     CommonsCompressionFactory.INSTANCE)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                List<ValueVector> columns = new ArrayList<>();
+                for (FieldVector vector : root.getFieldVectors()) {
+                    if (vector.getField().getDictionary() == null) {
+                        columns.add(vector);
+                    } else {
+                        Dictionary dictionary = reader.getDictionaryVectors()
+                                .get(vector.getField().getDictionary().getId());
+                        columns.add(DictionaryEncoder.decode(vector, dictionary));
+                    }
+                }
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    List<Object> values = new ArrayList<>();
+                    for (ValueVector column : columns) {
+                        values.add(value(column, row));
+                    }
+                    rows.add(values);
+                }
+                for (int i = 0; i < columns.size(); i++) {
+                    if (columns.get(i) != root.getVector(i)) {
+                        columns.get(i).close();
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Object value(ValueVector vector, int row) {
+        if (vector.isNull(row)) {
+            return null;
+        }
+        if (vector instanceof VarCharVector varChar) {
+            return new String(varChar.get(row), StandardCharsets.UTF_8);
+        }
+        if (vector instanceof BigIntVector bigInt) {
+            return bigInt.get(row);
+        }
+        return ((Float8Vector) vector).get(row);
+    }
+}
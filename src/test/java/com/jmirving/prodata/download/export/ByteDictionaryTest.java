@@ -0,0 +1,27 @@
+package com.jmirving.prodata.download.export;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ByteDictionaryTest {
+    @Test
+    void assignsDenseIndexesInInsertionOrderUpToCap() {
+        byte[] record = "LCK,LEC,LCK,LPL,LTA".getBytes(StandardCharsets.UTF_8);
+        ByteDictionary dictionary = new ByteDictionary(3);
+
+        assertEquals(0, dictionary.add(record, 0, 3));
+        assertEquals(1, dictionary.add(record, 4, 7));
+        assertEquals(0, dictionary.add(record, 8, 11));
+        assertEquals(2, dictionary.add(record, 12, 15));
+        assertEquals(-1, dictionary.add(record, 16, 19));
+
+        assertEquals(3, dictionary.size());
+        assertEquals(1, dictionary.indexOf(record, 4, 7));
+        assertEquals(-1, dictionary.indexOf(record, 16, 19));
+        assertArrayEquals("LPL".getBytes(StandardCharsets.UTF_8), dictionary.value(2));
+    }
+}
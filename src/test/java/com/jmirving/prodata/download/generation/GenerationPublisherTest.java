@@ -0,0 +1,134 @@
+package com.jmirving.prodata.download.generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.DurabilityPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GenerationPublisherTest {
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void publishesGenerationAndPointsCurrentAtIt() throws IOException {
+        Files.writeString(outputDir.resolve("2025.csv"), "old-2025");
+        Files.writeString(outputDir.resolve("2026.csv"), "old-2026");
+        GenerationPublisher publisher = new GenerationPublisher();
+
+        Path first = publisher.publish(outputDir);
+        replace(outputDir.resolve("2026.csv"), "new-2026");
+        Path second = publisher.publish(outputDir);
+
+        assertEquals(outputDir.resolve("generations/1"), first);
+        assertEquals(outputDir.resolve("generations/2"), second);
+        assertEquals(Path.of("generations/2"), Files.readSymbolicLink(outputDir.resolve("current")));
+        assertEquals(second, publisher.current(outputDir).orElseThrow());
+        assertEquals("new-2026", Files.readString(outputDir.resolve("current/2026.csv")));
+        assertEquals("old-2026", Files.readString(first.resolve("2026.csv")));
+        assertTrue(Files.isSameFile(first.resolve("2025.csv"), second.resolve("2025.csv")));
+        assertTrue(Files.isSameFile(outputDir.resolve("2025.csv"), second.resolve("2025.csv")));
+    }
+
+    @Test
+    void publishesUnderFileAndDirectoryDurability() throws IOException {
+        Files.createDirectories(outputDir.resolve("partitions/LCK"));
+        Files.writeString(outputDir.resolve("partitions/LCK/2026-01.csv"), "shard");
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        GenerationPublisher publisher = new GenerationPublisher(2,
+                new AtomicFilePublisher(DurabilityPolicy.FILE_AND_DIRECTORY));
+
+        publisher.publish(outputDir);
+        Path second = publisher.publish(outputDir);
+
+        assertEquals(second, publisher.current(outputDir).orElseThrow());
+        assertEquals("shard", Files.readString(outputDir.resolve("current/partitions/LCK/2026-01.csv")));
+    }
+
+    @Test
+    void keepsOnlyTheNewestGenerations() throws IOException {
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        GenerationPublisher publisher = new GenerationPublisher(2);
+
+        for (int run = 0; run < 4; run++) {
+            publisher.publish(outputDir);
+        }
+
+        assertEquals(List.of("3", "4"), list(outputDir.resolve("generations")));
+        assertEquals("rows", Files.readString(outputDir.resolve("current/2026.csv")));
+    }
+
+    @Test
+    void skipsTempFilesHiddenEntriesAndChangeFeed() throws IOException {
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        Files.writeString(outputDir.resolve("2026.csv.manifest.json"), "{}");
+        Files.writeString(outputDir.resolve("changes.jsonl"), "{}\n");
+        Files.writeString(outputDir.resolve("2026-123.download"), "partial");
+        Files.writeString(outputDir.resolve("2026.csv.gameindex.tmp"), "partial");
+        Files.createDirectory(outputDir.resolve(".hidden"));
+        Files.createDirectories(outputDir.resolve("generations/.7"));
+
+        Path generation = new GenerationPublisher().publish(outputDir);
+
+        assertEquals(List.of("2026.csv", "2026.csv.manifest.json"), list(generation));
+        assertFalse(Files.exists(outputDir.resolve("generations/.7")));
+    }
+
+    @Test
+    void leavesOutTempDirInsideOutputDir() throws IOException {
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        Path tempDir = Files.createDirectories(outputDir.resolve("tmp"));
+        Files.writeString(tempDir.resolve("2026.csv.partial"), "partial");
+        Files.writeString(tempDir.resolve("2026.csv.partial.download.state.json"), "{}");
+
+        Path generation = new GenerationPublisher().publish(outputDir, tempDir);
+
+        assertEquals(List.of("2026.csv"), list(generation));
+    }
+
+    @Test
+    void followsPartitionLinksIntoTheLiveShardSet() throws IOException {
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        Path shards = Files.createDirectories(outputDir.resolve("partitions/.2026-abc/LCS"));
+        Files.writeString(shards.resolve("2026-01.csv"), "shard");
+        Files.createSymbolicLink(outputDir.resolve("partitions/2026"), Path.of(".2026-abc"));
+
+        Path generation = new GenerationPublisher().publish(outputDir);
+
+        Path shard = generation.resolve("partitions/2026/LCS/2026-01.csv");
+        assertEquals(List.of("2026"), list(generation.resolve("partitions")));
+        assertFalse(Files.isSymbolicLink(generation.resolve("partitions/2026")));
+        assertTrue(Files.isSameFile(shards.resolve("2026-01.csv"), shard));
+    }
+
+    @Test
+    void refusesToReplaceCurrentThatIsNotASymlink() throws IOException {
+        Files.writeString(outputDir.resolve("2026.csv"), "rows");
+        Files.createDirectory(outputDir.resolve("current"));
+
+        assertThrows(IOException.class, () -> new GenerationPublisher().publish(outputDir));
+    }
+
+    private static void replace(Path path, String content) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".download");
+        Files.writeString(temp, content);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static List<String> list(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+}
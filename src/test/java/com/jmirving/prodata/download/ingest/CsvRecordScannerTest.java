@@ -0,0 +1,53 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRecordScannerTest {
+    @Test
+    void splitsRecordsOutsideQuotesAndReportsOffsets() throws IOException {
+        String csv = "gameid,note\r\nG1,\"a\nb\"\nG2,x\rG3,y";
+        List<String> records = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Long> indexes = new ArrayList<>();
+
+        CsvRecordScanner.scan(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), (record, length, offset, index) -> {
+            records.add(new String(record, 0, length, StandardCharsets.UTF_8));
+            offsets.add(offset);
+            indexes.add(index);
+        });
+
+        assertEquals(List.of("gameid,note", "G1,\"a\nb\"", "G2,x", "G3,y"), records);
+        assertEquals(List.of(0L, 13L, 22L, 27L), offsets);
+        assertEquals(List.of(0L, 1L, 2L, 3L), indexes);
+    }
+
+    @Test
+    void extractsFieldsAndUnquotesValues() {
+        byte[] record = "G1,\"say \"\"hi\"\", ok\",,3".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("G1", CsvRecordScanner.fieldString(record, record.length, 0));
+        assertEquals("say \"hi\", ok", CsvRecordScanner.fieldString(record, record.length, 1));
+        assertEquals("", CsvRecordScanner.fieldString(record, record.length, 2));
+        assertArrayEquals(new int[] {record.length - 1, record.length}, CsvRecordScanner.field(record, record.length, 3));
+        assertNull(CsvRecordScanner.field(record, record.length, 4));
+    }
+
+    @Test
+    void findsHeaderColumnIgnoringCaseAndBom() {
+        byte[] header = "\uFEFFGameId,league,participantid".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(0, CsvRecordScanner.columnIndex(header, header.length, "gameid"));
+        assertEquals(2, CsvRecordScanner.columnIndex(header, header.length, "participantid"));
+        assertEquals(-1, CsvRecordScanner.columnIndex(header, header.length, "split"));
+    }
+}
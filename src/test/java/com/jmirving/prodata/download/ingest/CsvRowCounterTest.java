@@ -0,0 +1,78 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvRowCounterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsRowsAfterHeader() throws IOException {
+        assertEquals(2, count("gameid,league\nA,LCK\nB,LEC\n"));
+        assertEquals(2, count("gameid,league\r\nA,LCK\r\nB,LEC"));
+        assertEquals(0, count("gameid,league\n"));
+        assertEquals(0, count(""));
+    }
+
+    @Test
+    void ignoresLineBreaksInsideQuotedFields() throws IOException {
+        assertEquals(2, count("gameid,note\nA,\"two\nlines\"\nB,\"say \"\"hi\"\"\r\n\"\n"));
+    }
+
+    @Test
+    void countsUnterminatedQuotedTailAsOneRow() throws IOException {
+        assertEquals(1, count("gameid,note\nA,\"open\n"));
+    }
+
+    @Test
+    void matchesStreamingCountAcrossSegmentBoundaries() throws IOException {
+        String csv = randomCsv(new Random(42), 400);
+        Path path = write(csv);
+        long expected = StreamingIngest.scan(path).rowCount();
+
+        for (long segmentBytes = 1; segmentBytes <= 64; segmentBytes++) {
+            assertEquals(expected, CsvRowCounter.countRows(path, 4, segmentBytes), "segment size " + segmentBytes);
+        }
+        assertEquals(expected, CsvRowCounter.countRows(path, 1, 7));
+        assertEquals(expected, CsvRowCounter.countRows(path));
+    }
+
+    private long count(String csv) throws IOException {
+        Path path = write(csv);
+        long rows = CsvRowCounter.countRows(path);
+        assertEquals(StreamingIngest.scan(path).rowCount(), rows);
+        assertEquals(rows, CsvRowCounter.countRows(path, 3, 2));
+        return rows;
+    }
+
+    private Path write(String csv) throws IOException {
+        Path path = Files.createTempFile(tempDir, "rows", ".csv");
+        Files.writeString(path, csv, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    private static String randomCsv(Random random, int rows) {
+        String[] fields = {"A", "LCK", "\"multi\nline\"", "\"crlf\r\nvalue\"", "\"quote \"\"x\"\"\"", "", "12.5"};
+        String[] terminators = {"\n", "\r\n", "\r"};
+        StringBuilder csv = new StringBuilder("gameid,league,note\n");
+        for (int row = 0; row < rows; row++) {
+            for (int field = 0; field < 3; field++) {
+                if (field > 0) {
+                    csv.append(',');
+                }
+                csv.append(fields[random.nextInt(fields.length)]);
+            }
+            csv.append(terminators[random.nextInt(terminators.length)]);
+        }
+        return csv.toString();
+    }
+}
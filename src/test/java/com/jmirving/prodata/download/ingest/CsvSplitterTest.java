@@ -0,0 +1,112 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvSplitterTest {
+    private static final String CSV = "A,\"two\nlines\"\r\nB,\"say \"\"hi\"\"\r\n\"\rC,x\nD,\"\"\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsTerminatorsOutsideQuotesForAnySegmentSize() throws IOException {
+        Path path = write(CSV);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long segmentBytes = 1; segmentBytes <= CSV.length() + 1; segmentBytes++) {
+                CsvSplitter.Split split = CsvSplitter.scan(channel, 0, channel.size(), 3, segmentBytes);
+                assertEquals(4, split.terminators(), "segment size " + segmentBytes);
+                assertEquals(false, split.endsInQuotes());
+            }
+        }
+    }
+
+    @Test
+    void cutsChunksAtRecordStarts() throws IOException {
+        Path path = write(CSV);
+        List<String> records = List.of("A,\"two\nlines\"\r\n", "B,\"say \"\"hi\"\"\r\n\"\r", "C,x\n", "D,\"\"\n");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long segmentBytes = 1; segmentBytes <= CSV.length() + 1; segmentBytes++) {
+                List<long[]> chunks = CsvSplitter.scan(channel, 0, channel.size(), 2, segmentBytes)
+                        .recordAlignedChunks(channel);
+                StringBuilder joined = new StringBuilder();
+                long expectedStart = 0;
+                for (long[] chunk : chunks) {
+                    assertEquals(expectedStart, chunk[0]);
+                    assertTrue(chunk[1] > chunk[0]);
+                    String text = CSV.substring((int) chunk[0], (int) chunk[1]);
+                    assertTrue(startsRecords(text, records), "segment size " + segmentBytes + ": " + text);
+                    joined.append(text);
+                    expectedStart = chunk[1];
+                }
+                assertEquals(CSV, joined.toString());
+            }
+        }
+    }
+
+    @Test
+    void splitsLargeRangesAcrossThreadsButNotBelowTheMinimum() {
+        long mb = 1024L * 1024;
+        assertEquals(100 * mb, CsvSplitter.segmentBytes(800 * mb, 8, 8 * mb));
+        assertEquals(8 * mb, CsvSplitter.segmentBytes(20 * mb, 8, 8 * mb));
+        assertEquals(34, CsvSplitter.segmentBytes(100, 3, 1));
+        assertEquals(100, CsvSplitter.segmentBytes(100, 0, 1));
+    }
+
+    @Test
+    void capsSegmentsSoLargeRangesGetMoreSegmentsThanThreads() throws IOException {
+        long mb = 1024L * 1024;
+        assertEquals(CsvSplitter.DEFAULT_MAX_SEGMENT_BYTES, CsvSplitter.segmentBytes(2100 * mb, 1, 8 * mb));
+        assertEquals(Integer.MAX_VALUE, CsvSplitter.segmentBytes(8000 * mb, 1, 8 * mb, Long.MAX_VALUE));
+
+        Path path = write(CSV);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long segmentBytes = CsvSplitter.segmentBytes(channel.size(), 1, 1, 8);
+            CsvSplitter.Split split = CsvSplitter.scan(channel, 0, channel.size(), 1, segmentBytes);
+            assertEquals(8, segmentBytes);
+            assertEquals((CSV.length() + 7) / 8, split.segments().size());
+            assertEquals(4, split.terminators());
+        }
+    }
+
+    @Test
+    void runsTasksInItemOrder() throws IOException {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(i);
+        }
+        assertEquals(items, CsvSplitter.parallel(items, 4, "echo", item -> () -> item));
+        assertEquals(items, CsvSplitter.parallel(items, 1, "echo", item -> () -> item));
+    }
+
+    private static boolean startsRecords(String text, List<String> records) {
+        String rest = text;
+        while (!rest.isEmpty()) {
+            String remaining = rest;
+            String record = records.stream().filter(remaining::startsWith).findFirst().orElse(null);
+            if (record == null) {
+                return false;
+            }
+            rest = rest.substring(record.length());
+        }
+        return true;
+    }
+
+    private Path write(String csv) throws IOException {
+        Path path = Files.createTempFile(tempDir, "split", ".csv");
+        Files.writeString(path, csv, StandardCharsets.UTF_8);
+        return path;
+    }
+}
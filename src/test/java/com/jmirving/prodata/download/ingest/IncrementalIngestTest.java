@@ -0,0 +1,111 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalIngestTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void appendsTailAfterVerifyingOverlap() throws IOException {
+        byte[] previous = csv(5000);
+        byte[] current = csv(7000);
+        Path published = tempDir.resolve("published.csv");
+        IngestResult previousResult = StreamingIngest.copy(new ByteArrayInputStream(previous), published);
+        IngestResult expected = StreamingIngest.copy(new ByteArrayInputStream(current), tempDir.resolve("full.csv"));
+
+        Path destination = tempDir.resolve("incremental.csv");
+        Optional<IngestResult> result = IncrementalIngest.append(
+                published,
+                previousResult.overlapLength(),
+                previousResult.overlapSha256(),
+                tailFrom(current, previous.length - previousResult.overlapLength()),
+                destination,
+                current.length
+        );
+
+        assertEquals(Optional.of(expected), result);
+        assertTrue(Arrays.equals(current, Files.readAllBytes(destination)));
+    }
+
+    @Test
+    void rejectsTailWhoseOverlapDiverged() throws IOException {
+        byte[] previous = csv(5000);
+        byte[] current = csv(7000);
+        current[previous.length - 10] = 'X';
+        Path published = tempDir.resolve("published.csv");
+        IngestResult previousResult = StreamingIngest.copy(new ByteArrayInputStream(previous), published);
+
+        Optional<IngestResult> result = IncrementalIngest.append(
+                published,
+                previousResult.overlapLength(),
+                previousResult.overlapSha256(),
+                tailFrom(current, previous.length - previousResult.overlapLength()),
+                tempDir.resolve("incremental.csv"),
+                current.length
+        );
+
+        assertEquals(Optional.empty(), result);
+    }
+
+    @Test
+    void rejectsTailWithoutNewBytes() throws IOException {
+        byte[] previous = csv(100);
+        Path published = tempDir.resolve("published.csv");
+        IngestResult previousResult = StreamingIngest.copy(new ByteArrayInputStream(previous), published);
+
+        Optional<IngestResult> result = IncrementalIngest.append(
+                published,
+                previousResult.overlapLength(),
+                previousResult.overlapSha256(),
+                tailFrom(previous, previous.length - previousResult.overlapLength()),
+                tempDir.resolve("incremental.csv"),
+                previous.length
+        );
+
+        assertEquals(Optional.empty(), result);
+    }
+
+    @Test
+    void rejectsTailThatDoesNotEndAtTheSourceLength() throws IOException {
+        byte[] previous = csv(5000);
+        byte[] current = csv(7000);
+        Path published = tempDir.resolve("published.csv");
+        IngestResult previousResult = StreamingIngest.copy(new ByteArrayInputStream(previous), published);
+
+        Optional<IngestResult> result = IncrementalIngest.append(
+                published,
+                previousResult.overlapLength(),
+                previousResult.overlapSha256(),
+                tailFrom(current, previous.length - previousResult.overlapLength()),
+                tempDir.resolve("incremental.csv"),
+                current.length + 1
+        );
+
+        assertEquals(Optional.empty(), result);
+    }
+
+    private ByteArrayInputStream tailFrom(byte[] bytes, long offset) {
+        return new ByteArrayInputStream(bytes, (int) offset, bytes.length - (int) offset);
+    }
+
+    private byte[] csv(int rows) {
+        StringBuilder csv = new StringBuilder("gameid,participantid,league\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("ESPORTSTMNT01_").append(i / 12).append(',').append(i % 12).append(",LCK\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingIngestTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void copiesBodyWhileComputingDigestRowsAndHeader() throws IOException, NoSuchAlgorithmException {
+        byte[] body = "\uFEFFgameid,league\nA,LCK\nB,LEC\n".getBytes(StandardCharsets.UTF_8);
+        Path destination = tempDir.resolve("out.csv");
+
+        IngestResult result = StreamingIngest.copy(new ByteArrayInputStream(body), destination);
+
+        assertEquals(body.length, result.byteCount());
+        assertEquals(2, result.rowCount());
+        assertEquals("\uFEFFgameid,league", result.headerLine());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body)), result.sha256());
+        assertEquals(body.length, Files.size(destination));
+    }
+
+    @Test
+    void countsCrLfLineEndingsAndTrailingRowWithoutNewline() {
+        IngestAccumulator accumulator = new IngestAccumulator();
+        byte[] body = "h1,h2\r\n1,2\r\n3,4".getBytes(StandardCharsets.UTF_8);
+        // Split inside the CRLF pair to exercise state carried across buffers.
+        accumulator.update(body, 0, 6);
+        accumulator.update(body, 6, body.length - 6);
+
+        IngestResult result = accumulator.result();
+
+        assertEquals(2, result.rowCount());
+        assertEquals("h1,h2", result.headerLine());
+    }
+
+    @Test
+    void ignoresLineBreaksInsideQuotedFields() {
+        IngestAccumulator accumulator = new IngestAccumulator();
+        byte[] body = "gameid,note\nA,\"two\nlines\"\nB,\"say \"\"hi\"\"\r\n\"\n".getBytes(StandardCharsets.UTF_8);
+
+        accumulator.update(body, 0, body.length);
+
+        assertEquals(2, accumulator.result().rowCount());
+    }
+
+    @Test
+    void reportsNoHeaderForEmptyBody() throws IOException {
+        IngestResult result = StreamingIngest.copy(new ByteArrayInputStream(new byte[0]), tempDir.resolve("empty.csv"));
+
+        assertEquals(0, result.rowCount());
+        assertNull(result.headerLine());
+    }
+
+    @Test
+    void resumesPartialFileWithSameResultAsFullCopy() throws IOException {
+        byte[] body = "h1,h2\n1,2\n3,4\n5,6\n".getBytes(StandardCharsets.UTF_8);
+        IngestResult expected = StreamingIngest.copy(new ByteArrayInputStream(body), tempDir.resolve("full.csv"));
+        Path partial = tempDir.resolve("partial.csv");
+        Files.write(partial, Arrays.copyOf(body, 9));
+
+        IngestResult result = StreamingIngest.resume(partial, new ByteArrayInputStream(body, 9, body.length - 9));
+
+        assertEquals(expected, result);
+        assertEquals(new String(body, StandardCharsets.UTF_8), Files.readString(partial));
+    }
+
+    @Test
+    void recordsDigestOfTrailingOverlapWindow() throws NoSuchAlgorithmException {
+        byte[] body = new byte[IngestAccumulator.OVERLAP_BYTES * 3 + 123];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + (i % 26));
+        }
+        IngestAccumulator accumulator = new IngestAccumulator();
+        for (int offset = 0; offset < body.length; offset += 10_007) {
+            accumulator.update(body, offset, Math.min(10_007, body.length - offset));
+        }
+
+        IngestResult result = accumulator.result();
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(body, body.length - IngestAccumulator.OVERLAP_BYTES, IngestAccumulator.OVERLAP_BYTES);
+        assertEquals(IngestAccumulator.OVERLAP_BYTES, result.overlapLength());
+        assertEquals(HexFormat.of().formatHex(digest.digest()), result.overlapSha256());
+    }
+}
@@ -0,0 +1,51 @@
+package com.jmirving.prodata.download.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class XxHash64Test {
+    @Test
+    void matchesReferenceVectors() {
+        assertEquals("ef46db3751d8e999", xxHash64(""));
+        assertEquals("d24ec4f1a98c6e5b", xxHash64("a"));
+        assertEquals("44bc2cf5ad770999", xxHash64("abc"));
+        assertEquals("fbcea83c8a378bf1", xxHash64("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    void isIndependentOfUpdateBoundaries() {
+        byte[] data = new byte[1000];
+        new Random(7).nextBytes(data);
+        XxHash64 whole = new XxHash64();
+        whole.update(data, 0, data.length);
+        XxHash64 pieces = new XxHash64();
+        for (int offset = 0; offset < data.length; offset += 13) {
+            pieces.update(data, offset, Math.min(13, data.length - offset));
+        }
+
+        assertEquals(whole.digest(), pieces.digest());
+    }
+
+    @Test
+    void oneShotHashMatchesStreamingDigest() {
+        byte[] data = new byte[200];
+        new Random(11).nextBytes(data);
+        for (int length = 0; length <= 100; length++) {
+            XxHash64 streaming = new XxHash64();
+            streaming.update(data, 7, length);
+
+            assertEquals(streaming.digest(), XxHash64.hash(data, 7, length), "length " + length);
+        }
+    }
+
+    private static String xxHash64(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        XxHash64 hash = new XxHash64();
+        hash.update(bytes, 0, bytes.length);
+        return hash.hexDigest();
+    }
+}
@@ -0,0 +1,46 @@
+package com.jmirving.prodata.download.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class DaemonScheduleTest {
+    private static final Instant NOW = Instant.parse("2026-01-15T10:30:00Z");
+
+    @Test
+    void intervalRunsFirstImmediatelyThenAfterEachStart() {
+        DaemonSchedule schedule = DaemonSchedule.of(null, Duration.ofHours(6), ZoneOffset.UTC);
+
+        assertEquals(NOW, schedule.next(null, NOW));
+        assertEquals(NOW.plus(Duration.ofHours(6)), schedule.next(NOW, NOW.plusSeconds(90)));
+    }
+
+    @Test
+    void intervalStartsStraightAwayAfterAnOverrun() {
+        DaemonSchedule schedule = DaemonSchedule.of("", Duration.ofMinutes(10), ZoneOffset.UTC);
+
+        Instant finished = NOW.plus(Duration.ofMinutes(25));
+
+        assertEquals(finished, schedule.next(NOW, finished));
+    }
+
+    @Test
+    void cronRunsAtTheNextMatchAndSkipsMatchesMissedDuringARun() {
+        DaemonSchedule schedule = DaemonSchedule.of("0 0 */6 * * *", Duration.ofHours(1), ZoneOffset.UTC);
+
+        assertEquals(Instant.parse("2026-01-15T12:00:00Z"), schedule.next(null, NOW));
+        assertEquals(Instant.parse("2026-01-15T18:00:00Z"),
+                schedule.next(Instant.parse("2026-01-15T06:00:00Z"), Instant.parse("2026-01-15T13:00:00Z")));
+    }
+
+    @Test
+    void rejectsMissingScheduleAndInvalidCron() {
+        assertThrows(IllegalArgumentException.class, () -> DaemonSchedule.of(null, Duration.ZERO, ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class, () -> DaemonSchedule.of("every day", null, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,158 @@
+package com.jmirving.prodata.download.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.poll.AdaptivePollInterval;
+import com.jmirving.prodata.download.poll.ChangeDetector;
+import com.jmirving.prodata.download.poll.ChangePoller;
+import com.jmirving.prodata.download.poll.ListingSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DownloadDaemonTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsEachRunInStatusAndStatusFile() throws IOException {
+        Deque<Integer> exitCodes = new ArrayDeque<>(List.of(1, 1, 0));
+        SteppingClock clock = new SteppingClock(Instant.parse("2026-01-15T00:00:00Z"), Duration.ofSeconds(30));
+        Path statusFile = tempDir.resolve("out/.status.json");
+        DownloadDaemon daemon = new DownloadDaemon(exitCodes::pop,
+                DaemonSchedule.of(null, Duration.ofHours(1), ZoneOffset.UTC), statusFile, objectMapper, clock);
+
+        assertEquals(1, daemon.runOnce());
+        assertEquals(1, daemon.runOnce());
+        RunStatus failed = daemon.status();
+        assertEquals(2, failed.consecutiveFailures());
+        assertNull(failed.lastSuccessAt());
+
+        assertEquals(0, daemon.runOnce());
+        RunStatus status = daemon.status();
+        assertFalse(status.running());
+        assertEquals(3, status.runCount());
+        assertEquals(0, status.lastExitCode());
+        assertEquals(0, status.consecutiveFailures());
+        assertEquals(30_000L, status.lastDurationMillis());
+        assertEquals(status.lastFinishedAt(), status.lastSuccessAt());
+        assertEquals(status.lastStartedAt().plus(Duration.ofHours(1)), status.nextRunAt());
+
+        JsonNode written = objectMapper.readTree(statusFile.toFile());
+        assertEquals(3, written.get("runCount").asLong());
+        assertEquals(0, written.get("lastExitCode").asInt());
+        assertEquals(status, objectMapper.treeToValue(written, RunStatus.class));
+    }
+
+    @Test
+    void countsAThrowingJobAsAFailedRun() {
+        DownloadDaemon daemon = new DownloadDaemon(() -> {
+            throw new IllegalStateException("boom");
+        }, DaemonSchedule.of(null, Duration.ofHours(1), ZoneOffset.UTC), null, objectMapper, Clock.systemUTC());
+
+        assertEquals(1, daemon.runOnce());
+        assertEquals(1, daemon.status().consecutiveFailures());
+    }
+
+    @Test
+    void runsRepeatedlyOnItsScheduleUntilClosed() throws InterruptedException {
+        CountDownLatch threeRuns = new CountDownLatch(3);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        DownloadDaemon daemon = new DownloadDaemon(() -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            concurrent.decrementAndGet();
+            threeRuns.countDown();
+            return 0;
+        }, DaemonSchedule.of(null, Duration.ofMillis(10), ZoneOffset.UTC), null, objectMapper, Clock.systemUTC());
+
+        daemon.start();
+        try {
+            assertTrue(threeRuns.await(10, TimeUnit.SECONDS));
+        } finally {
+            daemon.close();
+        }
+
+        assertTrue(daemon.status().runCount() >= 3);
+        assertEquals(1, maxConcurrent.get());
+    }
+
+    @Test
+    void pollingRunsTheJobOnlyWhenTheSourceChanged() {
+        ListingSnapshot v1 = new ListingSnapshot("listing", Map.of("2026.csv", "v1"));
+        ListingSnapshot v2 = new ListingSnapshot("listing", Map.of("2026.csv", "v2"));
+        Deque<ListingSnapshot> snapshots = new ArrayDeque<>(List.of(v1, v1, v2, v2, v2));
+        ChangeDetector detector = new ChangeDetector(null, files -> files) {
+            @Override
+            public ListingSnapshot snapshot() {
+                return snapshots.pop();
+            }
+        };
+        SteppingClock clock = new SteppingClock(Instant.parse("2026-01-15T00:00:00Z"), Duration.ofSeconds(30));
+        ChangePoller poller = new ChangePoller(detector, new AdaptivePollInterval(
+                Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMinutes(45), ZoneOffset.UTC),
+                30, null, objectMapper, clock);
+        Deque<Integer> exitCodes = new ArrayDeque<>(List.of(0, 1, 0));
+        DownloadDaemon daemon = new DownloadDaemon(exitCodes::pop, null, poller, null, objectMapper, clock);
+
+        assertEquals(Optional.of(0), daemon.pollOnce());
+        assertEquals(Optional.empty(), daemon.pollOnce());
+        assertEquals(Optional.of(1), daemon.pollOnce());
+        assertEquals(Optional.of(0), daemon.pollOnce());
+        assertEquals(Optional.empty(), daemon.pollOnce());
+
+        RunStatus status = daemon.status();
+        assertEquals(5, status.pollCount());
+        assertEquals(3, status.runCount());
+        assertEquals(status.lastPollAt().plusSeconds(30).plus(Duration.ofMinutes(5)), status.nextRunAt());
+    }
+
+    private static final class SteppingClock extends Clock {
+        private Instant now;
+        private final Duration step;
+
+        private SteppingClock(Instant start, Duration step) {
+            this.now = start;
+            this.step = step;
+        }
+
+        @Override
+        public Instant instant() {
+            Instant current = now;
+            now = now.plus(step);
+            return current;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.jmirving.prodata.download.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PartialDownloadStoreTest {
+    private static final Instant NOW = Instant.parse("2026-01-15T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final PartialDownloadStore store = new PartialDownloadStore(
+            new ObjectMapper().findAndRegisterModules(),
+            Clock.fixed(NOW, ZoneOffset.UTC)
+    );
+    private final RemoteFile file = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+
+    @Test
+    void resumesOnlyWhenValidatorsMatch() throws IOException {
+        Path partial = store.partialPath(tempDir, file);
+        store.begin(partial, file, new RemoteFileMetadata("\"v1\"", null, 100));
+        Files.writeString(partial, "0123456789");
+
+        assertEquals(Optional.of(new PartialDownloadStore.Resume(10, "\"v1\"")),
+                store.resumable(partial, file, new RemoteFileMetadata("\"v1\"", null, 100)));
+        assertEquals(Optional.empty(),
+                store.resumable(partial, file, new RemoteFileMetadata("\"v2\"", null, 100)));
+        assertEquals(Optional.empty(),
+                store.resumable(partial, file, new RemoteFileMetadata("\"v1\"", null, 200)));
+
+        store.clear(partial);
+
+        assertEquals(Optional.empty(),
+                store.resumable(partial, file, new RemoteFileMetadata("\"v1\"", null, 100)));
+    }
+
+    @Test
+    void deletesOnlyOrphansOlderThanMaxAge() throws IOException {
+        Path stale = tempDir.resolve("2025_lol-abc.download");
+        Path staleState = tempDir.resolve("2025_lol-abc.download.state.json");
+        Path fresh = tempDir.resolve("2026_lol-def.download");
+        Path unrelated = tempDir.resolve("notes.txt");
+        for (Path path : new Path[] {stale, staleState, fresh, unrelated}) {
+            Files.writeString(path, "x");
+            Files.setLastModifiedTime(path, FileTime.from(NOW.minus(Duration.ofDays(2))));
+        }
+        Files.setLastModifiedTime(fresh, FileTime.from(NOW.minus(Duration.ofMinutes(5))));
+
+        int deleted = store.cleanupOrphans(tempDir, Duration.ofHours(24));
+
+        assertEquals(2, deleted);
+        assertFalse(Files.exists(stale));
+        assertFalse(Files.exists(staleState));
+        assertTrue(Files.exists(fresh));
+        assertTrue(Files.exists(unrelated));
+    }
+}
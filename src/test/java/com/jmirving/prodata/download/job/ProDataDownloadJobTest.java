@@ -1,25 +1,54 @@
 package com.jmirving.prodata.download.job;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.aggregate.SummaryAggregator;
 import com.jmirving.prodata.download.config.ProDataDownloadProperties;
+import com.jmirving.prodata.download.diff.ChangeFeedEntry;
+import com.jmirving.prodata.download.diff.ChangeFeedWriter;
+import com.jmirving.prodata.download.diff.RowDiff;
+import com.jmirving.prodata.download.diff.RowDiffer;
+import com.jmirving.prodata.download.diff.RowKey;
+import com.jmirving.prodata.download.export.ArrowExporter;
+import com.jmirving.prodata.download.generation.GenerationPublisher;
+import com.jmirving.prodata.download.ingest.IngestChecksums;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+import com.jmirving.prodata.download.partition.CsvPartitioner;
 import com.jmirving.prodata.download.provider.DownloadProvider;
 import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
 import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.ContentStore;
+import com.jmirving.prodata.download.publish.GameIndex;
+import com.jmirving.prodata.download.publish.GameIndexWriter;
 import com.jmirving.prodata.download.publish.ManifestWriter;
 import com.jmirving.prodata.download.select.YearFileSelector;
+import com.jmirving.prodata.download.validate.CsvBodyValidator;
 import com.jmirving.prodata.download.validate.CsvHeaderValidator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -45,14 +74,7 @@ class ProDataDownloadJobTest {
         properties.setManifestEnabled(true);
 
         ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
-        ProDataDownloadJob job = new ProDataDownloadJob(
-                properties,
-                provider,
-                new YearFileSelector(Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC)),
-                new CsvHeaderValidator(),
-                new AtomicFilePublisher(),
-                new ManifestWriter(objectMapper, Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC))
-        );
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(objectMapper, Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC))).build();
 
         int exitCode = job.run();
 
@@ -78,14 +100,7 @@ class ProDataDownloadJobTest {
         properties.setTempDir(tempDir.resolve("out-all").toString());
         properties.setIncludeAllYears(true);
 
-        ProDataDownloadJob job = new ProDataDownloadJob(
-                properties,
-                provider,
-                new YearFileSelector(Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC)),
-                new CsvHeaderValidator(),
-                new AtomicFilePublisher(),
-                new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC))
-        );
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC))).build();
 
         int exitCode = job.run();
 
@@ -94,6 +109,621 @@ class ProDataDownloadJobTest {
         assertTrue(Files.exists(tempDir.resolve("out-all").resolve(file2026.name())));
     }
 
+    @Test
+    void downloadsConcurrentlyAndIsolatesPerFileFailures() throws IOException {
+        RemoteFile file2024 = new RemoteFile("id2024", "2024_LoL_esports_match_data_from_OraclesElixir.csv");
+        RemoteFile file2025 = new RemoteFile("id2025", "2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2024.id(), sampleCsv(2024));
+        data.put(file2026.id(), sampleCsv(2026));
+
+        DownloadProvider provider = new StubDownloadProvider(List.of(file2024, file2025, file2026), data);
+
+        Path outputDir = tempDir.resolve("out-concurrent");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setIncludeAllYears(true);
+        properties.setMaxConcurrentDownloads(3);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC))).build();
+
+        int exitCode = job.run();
+
+        assertEquals(1, exitCode);
+        assertTrue(Files.exists(outputDir.resolve(file2024.name())));
+        assertFalse(Files.exists(outputDir.resolve(file2025.name())));
+        assertTrue(Files.exists(outputDir.resolve(file2026.name())));
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    @Test
+    void skipsYearsWhoseValidatorsMatchThePreviousManifest() throws IOException {
+        RemoteFile file2025 = new RemoteFile("id2025", "2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2025.id(), sampleCsv(2025));
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2025, file2026), data);
+        provider.metadataById.put(file2025.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2025).length()));
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2026).length()));
+
+        Path outputDir = tempDir.resolve("out-skip");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2025, 2026));
+        properties.setManifestEnabled(true);
+        properties.setSkipUnchanged(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC())).build();
+
+        assertEquals(0, job.run());
+        String firstManifest2025 = Files.readString(outputDir.resolve(file2025.name() + ".manifest.json"));
+
+        data.put(file2026.id(), sampleCsv(2026) + sampleCsv(2026).lines().skip(1).findFirst().orElseThrow() + "\n");
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v2\"", null, -1));
+
+        assertEquals(0, job.run());
+
+        assertEquals(1, provider.downloadCount(file2025.id()));
+        assertEquals(2, provider.downloadCount(file2026.id()));
+        assertEquals(firstManifest2025, Files.readString(outputDir.resolve(file2025.name() + ".manifest.json")));
+        assertEquals(data.get(file2026.id()), Files.readString(outputDir.resolve(file2026.name())));
+    }
+
+    @Test
+    void appendsOnlyNewBytesInIncrementalMode() {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2026).length()));
+
+        Path outputDir = tempDir.resolve("out-incremental");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setManifestEnabled(true);
+        properties.setIncremental(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC())).build();
+
+        assertEquals(0, job.run());
+        String appended = sampleCsv(2026) + sampleCsv(2026).lines().skip(1).findFirst().orElseThrow() + "\n";
+        data.put(file2026.id(), appended);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v2\"", null, appended.length()));
+        assertEquals(0, job.run());
+
+        assertEquals(1, provider.downloadCount(file2026.id()));
+        assertEquals(1, provider.rangeCount(file2026.id()));
+        assertEquals(appended, readString(outputDir.resolve(file2026.name())));
+
+        data.put(file2026.id(), appended.replace("LCS", "LEC") + "extra\n");
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v3\"", null, data.get(file2026.id()).length()));
+        assertEquals(0, job.run());
+
+        assertEquals(2, provider.downloadCount(file2026.id()));
+        assertEquals(data.get(file2026.id()), readString(outputDir.resolve(file2026.name())));
+    }
+
+    @Test
+    void downloadsInFullWhenTheSourceLengthDoesNotMatchTheAppendedFile() {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2026).length()));
+
+        Path outputDir = tempDir.resolve("out-incremental-length");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setManifestEnabled(true);
+        properties.setIncremental(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC())).build();
+
+        assertEquals(0, job.run());
+        String appended = sampleCsv(2026) + sampleCsv(2026).lines().skip(1).findFirst().orElseThrow() + "\n";
+        data.put(file2026.id(), appended);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v2\"", null, appended.length() + 5));
+        assertEquals(0, job.run());
+
+        assertEquals(2, provider.downloadCount(file2026.id()));
+        assertEquals(1, provider.rangeCount(file2026.id()));
+        assertEquals(appended, readString(outputDir.resolve(file2026.name())));
+    }
+
+    @Test
+    void downloadsInFullAfterConfiguredIncrementalRuns() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v0\"", null, sampleCsv(2026).length()));
+
+        Path outputDir = tempDir.resolve("out-incremental-every");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setManifestEnabled(true);
+        properties.setIncremental(true);
+        properties.setIncrementalFullDownloadEvery(2);
+
+        ManifestWriter manifestWriter = new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC());
+        ProDataDownloadJob job = jobBuilder(properties, provider, manifestWriter).build();
+        Path manifestPath = outputDir.resolve(file2026.name() + ".manifest.json");
+        String row = sampleCsv(2026).lines().skip(1).findFirst().orElseThrow() + "\n";
+
+        assertEquals(0, job.run());
+        for (int run = 1; run <= 3; run++) {
+            data.put(file2026.id(), data.get(file2026.id()) + row);
+            provider.metadataById.put(file2026.id(),
+                    new RemoteFileMetadata("\"v" + run + "\"", null, data.get(file2026.id()).length()));
+            assertEquals(0, job.run());
+        }
+
+        assertEquals(2, provider.downloadCount(file2026.id()));
+        assertEquals(2, provider.rangeCount(file2026.id()));
+        assertEquals(0, manifestWriter.read(manifestPath).orElseThrow().incrementalRuns());
+        assertEquals(data.get(file2026.id()), readString(outputDir.resolve(file2026.name())));
+    }
+
+    @Test
+    void resumesInterruptedDownloadFromPartialFile() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2026).length()));
+        provider.failAfterBytes.put(file2026.id(), 50);
+
+        Path outputDir = tempDir.resolve("out-resume");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.resolve("tmp").toString());
+        properties.setYears(List.of(2026));
+        properties.setResumeDownloads(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC())).build();
+
+        assertEquals(1, job.run());
+        assertEquals(1, countTempFiles(outputDir.resolve("tmp")));
+
+        provider.failAfterBytes.clear();
+        assertEquals(0, job.run());
+
+        assertEquals(1, provider.downloadCount(file2026.id()));
+        assertEquals(1, provider.rangeCount(file2026.id()));
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve(file2026.name())));
+        assertEquals(0, countTempFiles(outputDir.resolve("tmp")));
+    }
+
+    @Test
+    void downloadsAgainWhenTheFileIsReplacedBetweenProbeAndResume() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+        provider.metadataById.put(file2026.id(), new RemoteFileMetadata("\"v1\"", null, sampleCsv(2026).length()));
+        provider.failAfterBytes.put(file2026.id(), 50);
+
+        Path outputDir = tempDir.resolve("out-resume-replaced");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.resolve("tmp").toString());
+        properties.setYears(List.of(2026));
+        properties.setResumeDownloads(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(new ObjectMapper().findAndRegisterModules(), Clock.systemUTC())).build();
+
+        assertEquals(1, job.run());
+
+        // The probe still reports v1, but the range request is served by v2.
+        provider.failAfterBytes.clear();
+        String replaced = sampleCsv(2026).replace(",LCS,", ",LEC,");
+        data.put(file2026.id(), replaced);
+        provider.servedValidatorById.put(file2026.id(), "\"v2\"");
+        assertEquals(0, job.run());
+
+        assertEquals(1, provider.rangeCount(file2026.id()));
+        assertEquals(2, provider.downloadCount(file2026.id()));
+        assertEquals(replaced, Files.readString(outputDir.resolve(file2026.name())));
+    }
+
+    @Test
+    void writesRowDiffAgainstPreviouslyPublishedFile() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-diff");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setDiffEnabled(true);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(objectMapper, Clock.systemUTC())).build();
+        Path diffPath = outputDir.resolve(file2026.name() + ".diff.json");
+
+        assertEquals(0, job.run());
+        assertFalse(Files.exists(diffPath));
+
+        data.put(file2026.id(), sampleCsv(2026).replace(",100,", ",200,"));
+        assertEquals(0, job.run());
+
+        RowDiff diff = objectMapper.readValue(diffPath.toFile(), RowDiff.class);
+        assertEquals(List.of(new RowKey("1", "200")), diff.added());
+        assertEquals(List.of(new RowKey("1", "100")), diff.removed());
+    }
+
+    @Test
+    void appendsNewGamesToChangeFeedOnEveryPublish() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-feed");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setChangeFeedEnabled(true);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(objectMapper, Clock.systemUTC())).build();
+        Path feedPath = outputDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+
+        assertEquals(0, job.run());
+        String secondGame = sampleCsv(2026).split("\n")[1].replaceFirst("^1,", "2,");
+        data.put(file2026.id(), sampleCsv(2026) + secondGame + "\n");
+        assertEquals(0, job.run());
+
+        List<String> lines = Files.readAllLines(feedPath);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(1, first.get("sequence").asLong());
+        assertEquals(file2026.name(), first.get("file").asText());
+        assertEquals("1", first.at("/newGames/0/gameid").asText());
+        assertEquals(2, second.get("sequence").asLong());
+        assertEquals(2, second.get("rowCount").asLong());
+        assertEquals(1, second.get("newGames").size());
+        assertEquals("2", second.at("/newGames/0/gameid").asText());
+        assertEquals(2, second.at("/newGames/0/firstRow").asLong());
+        assertEquals(1, second.at("/newGames/0/rowCount").asLong());
+    }
+
+    @Test
+    void recoversChangeFeedEntryOfAYearPublishedBeforeACrash() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-feed-recovery");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setChangeFeedEnabled(true);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        AtomicInteger failures = new AtomicInteger(1);
+        ChangeFeedWriter crashingWriter = new ChangeFeedWriter(objectMapper, Clock.systemUTC()) {
+            @Override
+            public synchronized ChangeFeedEntry appendPending(Path feedPath, Path pendingPath) throws IOException {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IOException("Simulated crash before the feed append");
+                }
+                return super.appendPending(feedPath, pendingPath);
+            }
+        };
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter(objectMapper, Clock.systemUTC()))
+                .changeFeedWriter(crashingWriter)
+                .build();
+        Path feedPath = outputDir.resolve(ChangeFeedWriter.FEED_FILE_NAME);
+
+        assertEquals(1, job.run());
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve(file2026.name())));
+        assertFalse(Files.exists(feedPath));
+
+        assertEquals(0, job.run());
+
+        List<String> lines = Files.readAllLines(feedPath);
+        assertEquals(2, lines.size());
+        assertEquals("1", objectMapper.readTree(lines.get(0)).at("/newGames/0/gameid").asText());
+        assertEquals(0, objectMapper.readTree(lines.get(1)).get("newGames").size());
+        assertFalse(Files.exists(ChangeFeedWriter.pendingPath(outputDir.resolve(file2026.name()))));
+    }
+
+    @Test
+    void writesGameIndexNextToPublishedFile() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        StubDownloadProvider provider = new StubDownloadProvider(
+                List.of(file2026),
+                Map.of(file2026.id(), sampleCsv(2026))
+        );
+
+        Path outputDir = tempDir.resolve("out-index");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setGameIndexEnabled(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+
+        Path csv = outputDir.resolve(file2026.name());
+        GameIndex index = GameIndex.read(GameIndexWriter.indexPath(csv));
+        assertTrue(index.matches(new ManifestWriter().buildManifest(csv, null)));
+        assertEquals(1, index.find("1").size());
+        assertEquals(sampleCsv(2026).split("\n")[1] + "\n",
+                new String(GameIndex.readRows(csv, index.find("1").get(0)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void publishesArrowExportNextToCsv() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        StubDownloadProvider provider = new StubDownloadProvider(
+                List.of(file2026),
+                Map.of(file2026.id(), sampleCsv(2026))
+        );
+
+        Path outputDir = tempDir.resolve("out-arrow");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setArrowExportEnabled(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+
+        assertTrue(Files.size(outputDir.resolve(file2026.name() + ".arrow")) > 0);
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    @Test
+    void publishesLeagueMonthPartitions() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        StubDownloadProvider provider = new StubDownloadProvider(
+                List.of(file2026),
+                Map.of(file2026.id(), sampleCsv(2026))
+        );
+
+        Path outputDir = tempDir.resolve("out-partitions");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setPartitionEnabled(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+
+        Path shard = outputDir.resolve("partitions/2026/LCS/2026-01.csv");
+        assertEquals(sampleCsv(2026), Files.readString(shard));
+        assertTrue(Files.exists(shard.resolveSibling("2026-01.csv.manifest.json")));
+    }
+
+    @Test
+    void publishesSummaryTablesNextToCsv() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        StubDownloadProvider provider = new StubDownloadProvider(
+                List.of(file2026),
+                Map.of(file2026.id(), sampleCsv(2026))
+        );
+
+        Path outputDir = tempDir.resolve("out-summaries");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setSummariesEnabled(true);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+
+        JsonNode pickBans = objectMapper.readTree(outputDir.resolve(file2026.name() + ".pickban.json").toFile());
+        assertEquals(10, pickBans.get("rows").size());
+        assertEquals("A", pickBans.at("/rows/0/champion").asText());
+        assertEquals(1, pickBans.at("/rows/0/bans").asLong());
+        JsonNode teams = objectMapper.readTree(outputDir.resolve(file2026.name() + ".teams.json").toFile());
+        assertEquals(1, teams.at("/rows/0/blueSideGames").asLong());
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    @Test
+    void fullValidationRejectsInvalidRowsAndKeepsPublishedCopy() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-full-validation");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setFullValidation(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+
+        data.put(file2026.id(), sampleCsv(2026).replace(",Blue,", ",Green,"));
+
+        assertEquals(1, job.run());
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve(file2026.name())));
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    @Test
+    void cutsGenerationOnlyWhenEveryYearPublishes() throws IOException {
+        RemoteFile file2025 = new RemoteFile("id2025", "2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2025.id(), sampleCsv(2025));
+        data.put(file2026.id(), sampleCsv(2026));
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2025, file2026), data);
+
+        Path outputDir = tempDir.resolve("out-generations");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2025, 2026));
+        properties.setGenerationsEnabled(true);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+        assertEquals(Path.of("generations/1"), Files.readSymbolicLink(outputDir.resolve("current")));
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve("current").resolve(file2026.name())));
+        assertEquals(sampleCsv(2025), Files.readString(outputDir.resolve("current").resolve(file2025.name())));
+
+        data.put(file2026.id(), sampleCsv(2026).replace(",100,", ",200,"));
+        data.remove(file2025.id());
+
+        assertEquals(1, job.run());
+        assertEquals(Path.of("generations/1"), Files.readSymbolicLink(outputDir.resolve("current")));
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve("current").resolve(file2026.name())));
+
+        data.put(file2025.id(), sampleCsv(2025));
+
+        assertEquals(0, job.run());
+        assertEquals(Path.of("generations/2"), Files.readSymbolicLink(outputDir.resolve("current")));
+        assertEquals(sampleCsv(2026).replace(",100,", ",200,"),
+                Files.readString(outputDir.resolve("current").resolve(file2026.name())));
+        assertEquals(sampleCsv(2026), Files.readString(outputDir.resolve("generations/1").resolve(file2026.name())));
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    @Test
+    void leavesTempDirOutOfGenerationsInTheDefaultLayout() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-generations-tmp");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.resolve("tmp").toString());
+        properties.setYears(List.of(2026));
+        properties.setGenerationsEnabled(true);
+        Files.createDirectories(outputDir.resolve("tmp"));
+        Files.writeString(outputDir.resolve("tmp/2027.csv"), "in progress");
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+
+        assertEquals(0, job.run());
+        assertTrue(Files.exists(outputDir.resolve("current").resolve(file2026.name())));
+        assertFalse(Files.exists(outputDir.resolve("current/tmp")));
+    }
+
+    @Test
+    void publishesYearsAsLinksIntoTheContentStore() throws IOException {
+        RemoteFile file2026 = new RemoteFile("id2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+        Map<String, String> data = new HashMap<>();
+        data.put(file2026.id(), sampleCsv(2026));
+        StubDownloadProvider provider = new StubDownloadProvider(List.of(file2026), data);
+
+        Path outputDir = tempDir.resolve("out-content-store");
+        ProDataDownloadProperties properties = new ProDataDownloadProperties();
+        properties.setOutputDir(outputDir.toString());
+        properties.setTempDir(outputDir.toString());
+        properties.setYears(List.of(2026));
+        properties.setManifestEnabled(true);
+        properties.setContentStoreEnabled(true);
+        properties.setContentStoreRetention(Duration.ZERO);
+
+        ProDataDownloadJob job = jobBuilder(properties, provider, new ManifestWriter()).build();
+        ContentStore store = new ContentStore(outputDir.resolve("objects"));
+        Path destination = outputDir.resolve(file2026.name());
+
+        assertEquals(0, job.run());
+        String firstSha = new ObjectMapper().readTree(outputDir.resolve(file2026.name() + ".manifest.json").toFile())
+                .get("sha256").asText();
+        assertTrue(Files.isSameFile(store.objectPath(firstSha), destination));
+
+        assertEquals(0, job.run());
+        assertTrue(Files.isSameFile(store.objectPath(firstSha), destination));
+
+        data.put(file2026.id(), sampleCsv(2026).replace(",100,", ",200,"));
+
+        assertEquals(0, job.run());
+        assertFalse(Files.exists(store.objectPath(firstSha)));
+        assertEquals(sampleCsv(2026).replace(",100,", ",200,"), Files.readString(destination));
+        assertEquals(0, countTempFiles(outputDir));
+    }
+
+    /**
+     * A job with every collaborator set explicitly; tests replace the ones they exercise.
+     */
+    private static ProDataDownloadJob.Builder jobBuilder(
+            ProDataDownloadProperties properties,
+            DownloadProvider provider,
+            ManifestWriter manifestWriter
+    ) {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        Clock clock = Clock.systemUTC();
+        return ProDataDownloadJob.builder()
+                .properties(properties)
+                .downloadProvider(provider)
+                .yearFileSelector(new YearFileSelector(Clock.fixed(Instant.parse("2026-01-15T00:00:00Z"), ZoneOffset.UTC)))
+                .csvHeaderValidator(new CsvHeaderValidator())
+                .filePublisher(new AtomicFilePublisher())
+                .manifestWriter(manifestWriter)
+                .partialDownloads(new PartialDownloadStore(objectMapper, clock))
+                .rowDiffer(new RowDiffer(objectMapper, clock))
+                .changeFeedWriter(new ChangeFeedWriter(objectMapper, clock))
+                .gameIndexWriter(new GameIndexWriter())
+                .arrowExporter(new ArrowExporter())
+                .partitioner(new CsvPartitioner(manifestWriter))
+                .summaryAggregator(new SummaryAggregator(objectMapper, clock))
+                .csvBodyValidator(new CsvBodyValidator())
+                .generationPublisher(new GenerationPublisher());
+    }
+
+    private String readString(Path path) {
+        try {
+            return Files.readString(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long countTempFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".download")).count();
+        }
+    }
+
     private String sampleCsv(int year) {
         return String.join(
                 ",",
@@ -146,20 +776,67 @@ class ProDataDownloadJobTest {
     private static class StubDownloadProvider implements DownloadProvider {
         private final List<RemoteFile> files;
         private final Map<String, String> dataById;
+        private final Map<String, RemoteFileMetadata> metadataById = new HashMap<>();
+        private final Map<String, Integer> failAfterBytes = new HashMap<>();
+        private final Map<String, String> servedValidatorById = new HashMap<>();
+        private final Map<String, AtomicInteger> downloadCounts = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> rangeCounts = new ConcurrentHashMap<>();
 
         private StubDownloadProvider(List<RemoteFile> files, Map<String, String> dataById) {
             this.files = files;
             this.dataById = dataById;
         }
 
+        private int downloadCount(String id) {
+            AtomicInteger count = downloadCounts.get(id);
+            return count == null ? 0 : count.get();
+        }
+
+        private int rangeCount(String id) {
+            AtomicInteger count = rangeCounts.get(id);
+            return count == null ? 0 : count.get();
+        }
+
         @Override
         public List<RemoteFile> listFiles() {
             return files;
         }
 
         @Override
-        public void download(RemoteFile file, Path destination) throws IOException {
-            Files.writeString(destination, dataById.get(file.id()));
+        public IngestResult download(RemoteFile file, Path destination, IngestChecksums checksums) throws IOException {
+            downloadCounts.computeIfAbsent(file.id(), id -> new AtomicInteger()).incrementAndGet();
+            String data = dataById.get(file.id());
+            if (data == null) {
+                throw new IOException("No stub data for " + file.id());
+            }
+            byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+            Integer failAfter = failAfterBytes.get(file.id());
+            if (failAfter != null) {
+                Files.write(destination, Arrays.copyOf(bytes, failAfter));
+                throw new IOException("Connection reset after " + failAfter + " bytes");
+            }
+            return StreamingIngest.copy(new ByteArrayInputStream(bytes), destination, checksums);
+        }
+
+        @Override
+        public Optional<RemoteFileMetadata> probe(RemoteFile file) {
+            return Optional.ofNullable(metadataById.get(file.id()));
+        }
+
+        @Override
+        public Optional<InputStream> openRange(RemoteFile file, long offset, String ifRange) {
+            rangeCounts.computeIfAbsent(file.id(), id -> new AtomicInteger()).incrementAndGet();
+            RemoteFileMetadata metadata = metadataById.get(file.id());
+            String served = servedValidatorById.getOrDefault(file.id(),
+                    metadata == null ? null : metadata.ifRangeValidator());
+            if (ifRange != null && !ifRange.equals(served)) {
+                return Optional.empty();
+            }
+            byte[] bytes = dataById.get(file.id()).getBytes(StandardCharsets.UTF_8);
+            if (offset > bytes.length) {
+                return Optional.empty();
+            }
+            return Optional.of(new ByteArrayInputStream(bytes, (int) offset, bytes.length - (int) offset));
         }
 
         @Override
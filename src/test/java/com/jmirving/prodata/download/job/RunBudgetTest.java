@@ -0,0 +1,36 @@
+package com.jmirving.prodata.download.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class RunBudgetTest {
+    @Test
+    void dividesRemainingTimeAcrossOutstandingWaves() {
+        Instant now = Instant.parse("2026-01-15T00:00:00Z");
+        RunBudget budget = new RunBudget(
+                now.plusSeconds(600),
+                4,
+                2,
+                Clock.fixed(now, ZoneOffset.UTC)
+        );
+
+        // Four files at parallelism two run in two waves, so each of the first files gets half.
+        assertEquals(now.plusSeconds(300), budget.nextFileDeadline());
+        assertEquals(now.plusSeconds(300), budget.nextFileDeadline());
+        assertEquals(now.plusSeconds(600), budget.nextFileDeadline());
+        assertEquals(now.plusSeconds(600), budget.nextFileDeadline());
+    }
+
+    @Test
+    void returnsRunDeadlineOnceBudgetIsExhausted() {
+        Instant now = Instant.parse("2026-01-15T00:00:00Z");
+        RunBudget budget = new RunBudget(now.minusSeconds(1), 2, 1, Clock.fixed(now, ZoneOffset.UTC));
+
+        assertEquals(now.minusSeconds(1), budget.nextFileDeadline());
+    }
+}
@@ -0,0 +1,132 @@
+package com.jmirving.prodata.download.partition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.jmirving.prodata.download.publish.AtomicFilePublisher;
+import com.jmirving.prodata.download.publish.DownloadManifest;
+import com.jmirving.prodata.download.publish.DurabilityPolicy;
+import com.jmirving.prodata.download.publish.ManifestWriter;
+import com.jmirving.prodata.download.publish.PublishGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvPartitionerTest {
+    private static final String HEADER = "gameid,league,date,note";
+
+    @TempDir
+    Path tempDir;
+
+    private final ManifestWriter manifestWriter = new ManifestWriter();
+    private final CsvPartitioner partitioner = new CsvPartitioner(manifestWriter);
+
+    @Test
+    void splitsByLeagueAndMonthWithHeaderInEveryShard() throws IOException {
+        Path csv = write(HEADER + "\r\n"
+                + "G1,LCK,2026-01-15 10:00:00,a\r\n"
+                + "G2,LEC,2026-01-20 10:00:00,\"multi\nline\"\r\n"
+                + "G3,LCK,2026-02-01 10:00:00,c\r\n"
+                + "G4,LCK,2026-01-31 10:00:00,d\r\n"
+                + "G5,LCK CL,,e\r\n");
+        Path root = tempDir.resolve("partitions");
+
+        StagedPartitions staged = partitioner.stage(csv, root, "2026", "https://example.com/2026");
+        assertFalse(Files.exists(root.resolve("2026")));
+        partitioner.publish(staged);
+
+        Path year = root.resolve("2026");
+        assertTrue(Files.isSymbolicLink(year));
+        assertEquals(4, staged.shardCount());
+        assertEquals(5, staged.rowCount());
+        assertEquals(HEADER + "\nG1,LCK,2026-01-15 10:00:00,a\nG4,LCK,2026-01-31 10:00:00,d\n",
+                Files.readString(year.resolve("LCK/2026-01.csv")));
+        assertEquals(HEADER + "\nG2,LEC,2026-01-20 10:00:00,\"multi\nline\"\n",
+                Files.readString(year.resolve("LEC/2026-01.csv")));
+        assertEquals(HEADER + "\nG3,LCK,2026-02-01 10:00:00,c\n", Files.readString(year.resolve("LCK/2026-02.csv")));
+        assertEquals(HEADER + "\nG5,LCK CL,,e\n", Files.readString(year.resolve("LCK_CL/unknown.csv")));
+
+        Optional<DownloadManifest> manifest = manifestWriter.read(year.resolve("LCK/2026-01.csv.manifest.json"));
+        assertTrue(manifest.isPresent());
+        assertEquals(2, manifest.get().rowCount());
+        assertEquals(Files.size(year.resolve("LCK/2026-01.csv")), manifest.get().byteCount());
+        assertEquals("https://example.com/2026", manifest.get().sourceUrl());
+        assertEquals(manifestWriter.buildManifest(year.resolve("LCK/2026-01.csv"), null).sha256(),
+                manifest.get().sha256());
+    }
+
+    @Test
+    void republishingSwapsLinkAndRemovesPreviousShardSet() throws IOException {
+        Path root = tempDir.resolve("partitions");
+        Path first = write(HEADER + "\nG1,LCK,2026-01-15,a\n");
+        partitioner.publish(partitioner.stage(first, root, "2026", null));
+        Path firstTarget = root.resolve("2026").toRealPath();
+
+        Path second = write(HEADER + "\nG1,LCK,2026-01-15,a\nG2,LPL,2026-01-16,b\n");
+        partitioner.publish(partitioner.stage(second, root, "2026", null));
+
+        assertFalse(Files.exists(firstTarget));
+        assertTrue(Files.exists(root.resolve("2026/LPL/2026-01.csv")));
+        try (Stream<Path> entries = Files.list(root)) {
+            assertEquals(2, entries.count());
+        }
+    }
+
+    @Test
+    void publishesInsideDurableGroup() throws IOException {
+        AtomicFilePublisher publisher = new AtomicFilePublisher(DurabilityPolicy.FILE_AND_DIRECTORY);
+        CsvPartitioner durable = new CsvPartitioner(manifestWriter, publisher);
+        Path root = tempDir.resolve("partitions");
+        StagedPartitions staged = durable.stage(write(HEADER + "\nG1,LCK,2026-01-15,a\n"), root, "2026", null);
+
+        try (PublishGroup group = publisher.openGroup()) {
+            durable.publish(staged, group);
+        }
+
+        assertEquals(HEADER + "\nG1,LCK,2026-01-15,a\n", Files.readString(root.resolve("2026/LCK/2026-01.csv")));
+        assertTrue(manifestWriter.read(root.resolve("2026/LCK/2026-01.csv.manifest.json")).isPresent());
+    }
+
+    @Test
+    void reopensEvictedShardsWithoutLosingRows() throws IOException {
+        StringBuilder content = new StringBuilder(HEADER + "\n");
+        int leagues = CsvPartitioner.MAX_OPEN_SHARDS + 10;
+        for (int round = 0; round < 3; round++) {
+            for (int league = 0; league < leagues; league++) {
+                content.append("G").append(round).append(",L").append(league).append(",2026-03-01,x\n");
+            }
+        }
+        Path root = tempDir.resolve("partitions");
+
+        StagedPartitions staged = partitioner.stage(write(content.toString()), root, "2026", null);
+
+        assertEquals(leagues, staged.shardCount());
+        List<String> lines = Files.readAllLines(staged.stagingDir().resolve("L5/2026-03.csv"));
+        assertEquals(List.of(HEADER, "G0,L5,2026-03-01,x", "G1,L5,2026-03-01,x", "G2,L5,2026-03-01,x"), lines);
+    }
+
+    @Test
+    void removesAbandonedStagingAndRejectsMissingColumns() throws IOException {
+        Path root = tempDir.resolve("partitions");
+        Files.createDirectories(root.resolve(".2026-crashed/LCK"));
+
+        Path invalid = write("gameid,league\nG1,LCK\n");
+        assertThrows(IOException.class, () -> partitioner.stage(invalid, root, "2026", null));
+
+        try (Stream<Path> entries = Files.list(root)) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("2026.csv"), content);
+    }
+}
@@ -0,0 +1,64 @@
+package com.jmirving.prodata.download.poll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptivePollIntervalTest {
+    private final AdaptivePollInterval interval = new AdaptivePollInterval(
+            Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMinutes(45), ZoneOffset.UTC);
+    private final List<Instant> changes = List.of(
+            Instant.parse("2026-03-01T14:10:00Z"),
+            Instant.parse("2026-03-02T13:50:00Z")
+    );
+
+    @Test
+    void pollsOftenWithoutHistory() {
+        Instant now = Instant.parse("2026-03-05T03:00:00Z");
+
+        assertEquals(now.plus(Duration.ofMinutes(5)), interval.next(now, List.of()));
+    }
+
+    @Test
+    void pollsOftenNearTimesOfDayThatChangedBefore() {
+        Instant now = Instant.parse("2026-03-05T14:40:00Z");
+
+        assertEquals(Instant.parse("2026-03-05T14:45:00Z"), interval.next(now, changes));
+    }
+
+    @Test
+    void backsOffAwayFromPastChanges() {
+        Instant now = Instant.parse("2026-03-05T03:00:00Z");
+
+        assertEquals(Instant.parse("2026-03-05T04:00:00Z"), interval.next(now, changes));
+    }
+
+    @Test
+    void wakesUpWhenTheNextWindowOpens() {
+        Instant now = Instant.parse("2026-03-05T12:40:00Z");
+
+        assertEquals(Instant.parse("2026-03-05T13:05:00Z"), interval.next(now, changes));
+    }
+
+    @Test
+    void windowsWrapAroundMidnight() {
+        List<Instant> lateChanges = List.of(Instant.parse("2026-03-01T23:50:00Z"));
+
+        assertEquals(Instant.parse("2026-03-05T00:25:00Z"),
+                interval.next(Instant.parse("2026-03-05T00:20:00Z"), lateChanges));
+        assertEquals(Instant.parse("2026-03-05T23:05:00Z"),
+                interval.next(Instant.parse("2026-03-05T22:30:00Z"), lateChanges));
+    }
+
+    @Test
+    void rejectsAMaxIntervalBelowTheMin() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptivePollInterval(
+                Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofMinutes(45), ZoneOffset.UTC));
+    }
+}
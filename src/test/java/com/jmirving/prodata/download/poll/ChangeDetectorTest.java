@@ -0,0 +1,96 @@
+package com.jmirving.prodata.download.poll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.jmirving.prodata.download.ingest.IngestChecksums;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.provider.DownloadProvider;
+import com.jmirving.prodata.download.provider.RemoteFile;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
+import org.junit.jupiter.api.Test;
+
+class ChangeDetectorTest {
+    private static final RemoteFile FILE_2025 = new RemoteFile("id-2025", "2025_LoL_esports_match_data_from_OraclesElixir.csv");
+    private static final RemoteFile FILE_2026 = new RemoteFile("id-2026", "2026_LoL_esports_match_data_from_OraclesElixir.csv");
+
+    @Test
+    void probesOnlySelectedFilesAndSeesNoChangeWhenNothingMoved() throws Exception {
+        FakeProvider provider = new FakeProvider(List.of(FILE_2025, FILE_2026));
+        provider.metadata.put(FILE_2026.id(), new RemoteFileMetadata("\"v1\"", null, 100));
+        ChangeDetector detector = new ChangeDetector(provider, files -> List.of(files.get(1)));
+
+        ListingSnapshot first = detector.snapshot();
+        ListingSnapshot second = detector.snapshot();
+
+        assertEquals(List.of(FILE_2026.id(), FILE_2026.id()), provider.probed);
+        assertEquals(List.of(), second.changesSince(first));
+        assertEquals(List.of("listing", FILE_2026.name()), first.changesSince(null));
+    }
+
+    @Test
+    void reportsChangedValidatorsAndListings() throws Exception {
+        FakeProvider provider = new FakeProvider(List.of(FILE_2026));
+        provider.metadata.put(FILE_2026.id(), new RemoteFileMetadata("\"v1\"", null, 100));
+        ChangeDetector detector = new ChangeDetector(provider, files -> files);
+        ListingSnapshot before = detector.snapshot();
+
+        provider.metadata.put(FILE_2026.id(), new RemoteFileMetadata("\"v2\"", null, 120));
+        assertEquals(List.of(FILE_2026.name()), detector.snapshot().changesSince(before));
+
+        provider.files.add(FILE_2025);
+        ListingSnapshot grown = detector.snapshot();
+        assertNotEquals(before.listing(), grown.listing());
+        assertEquals("listing", grown.changesSince(before).get(0));
+    }
+
+    @Test
+    void tracksFilesThatCannotBeProbedThroughTheListingOnly() throws Exception {
+        FakeProvider provider = new FakeProvider(List.of(FILE_2026));
+        ChangeDetector detector = new ChangeDetector(provider, files -> files);
+
+        ListingSnapshot first = detector.snapshot();
+        assertEquals(List.of(), detector.snapshot().changesSince(first));
+
+        provider.files.set(0, new RemoteFile("id-2026-replaced", FILE_2026.name()));
+        assertEquals(List.of("listing"), detector.snapshot().changesSince(first));
+    }
+
+    private static final class FakeProvider implements DownloadProvider {
+        private final List<RemoteFile> files;
+        private final Map<String, RemoteFileMetadata> metadata = new HashMap<>();
+        private final List<String> probed = new ArrayList<>();
+
+        private FakeProvider(List<RemoteFile> files) {
+            this.files = new ArrayList<>(files);
+        }
+
+        @Override
+        public List<RemoteFile> listFiles() {
+            return List.copyOf(files);
+        }
+
+        @Override
+        public IngestResult download(RemoteFile file, Path destination, IngestChecksums checksums) {
+            throw new UnsupportedOperationException("Polling never downloads");
+        }
+
+        @Override
+        public Optional<RemoteFileMetadata> probe(RemoteFile file) {
+            probed.add(file.id());
+            return Optional.ofNullable(metadata.get(file.id()));
+        }
+
+        @Override
+        public String sourceUrl(RemoteFile file) {
+            return "https://example.test/" + file.id();
+        }
+    }
+}
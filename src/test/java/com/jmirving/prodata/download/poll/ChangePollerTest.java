@@ -0,0 +1,100 @@
+package com.jmirving.prodata.download.poll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChangePollerTest {
+    private static final Instant SEEN_AT = Instant.parse("2026-03-05T14:10:00Z");
+    private static final ListingSnapshot V1 = new ListingSnapshot("listing", Map.of("2026.csv", "v1"));
+    private static final ListingSnapshot V2 = new ListingSnapshot("listing", Map.of("2026.csv", "v2"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AdaptivePollInterval interval = new AdaptivePollInterval(
+            Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMinutes(45), ZoneOffset.UTC);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void runsOnceForEachChangeAndRemembersWhenItWasSeen() throws Exception {
+        Path stateFile = tempDir.resolve(ChangePoller.STATE_FILE_NAME);
+        ChangePoller poller = poller(stateFile, V1, V1, V2, V2, V2);
+
+        assertEquals(V1, poller.poll().orElseThrow());
+        poller.published(V1);
+        assertFalse(poller.poll().isPresent());
+        assertTrue(poller.changes().isEmpty());
+
+        assertEquals(V2, poller.poll().orElseThrow());
+        assertEquals(List.of(SEEN_AT), poller.changes());
+        // The run failed, so the change is offered again but not counted twice.
+        assertEquals(V2, poller.poll().orElseThrow());
+        assertEquals(List.of(SEEN_AT), poller.changes());
+        poller.published(V2);
+
+        ChangePoller restarted = poller(stateFile, V2);
+        assertFalse(restarted.poll().isPresent());
+        assertEquals(List.of(SEEN_AT), restarted.changes());
+        assertEquals(SEEN_AT.minus(Duration.ofDays(1)).plus(Duration.ofMinutes(5)),
+                restarted.nextPoll(SEEN_AT.minus(Duration.ofDays(1))));
+    }
+
+    @Test
+    void keepsOnlyTheNewestChanges() throws Exception {
+        ListingSnapshot v3 = new ListingSnapshot("listing", Map.of("2026.csv", "v3"));
+        ChangePoller poller = new ChangePoller(detector(V1, V2, v3), interval, 1, null, objectMapper,
+                Clock.fixed(SEEN_AT, ZoneOffset.UTC));
+
+        poller.published(poller.poll().orElseThrow());
+        poller.published(poller.poll().orElseThrow());
+        poller.published(poller.poll().orElseThrow());
+
+        assertEquals(1, poller.changes().size());
+    }
+
+    @Test
+    void runsForFilesThatCannotBeProbedOnlyWhenTheListingChanges() throws Exception {
+        HashMap<String, String> unprobed = new HashMap<>();
+        unprobed.put("2026.csv", null);
+        ListingSnapshot unknown = new ListingSnapshot("listing", unprobed);
+        ListingSnapshot relisted = new ListingSnapshot("relisted", unprobed);
+        ChangePoller poller = poller(null, unknown, unknown, relisted);
+
+        poller.published(poller.poll().orElseThrow());
+        assertFalse(poller.poll().isPresent());
+        assertEquals(relisted, poller.poll().orElseThrow());
+
+        assertEquals(List.of(SEEN_AT), poller.changes());
+    }
+
+    private ChangePoller poller(Path stateFile, ListingSnapshot... snapshots) {
+        return new ChangePoller(detector(snapshots), interval, 30, stateFile, objectMapper,
+                Clock.fixed(SEEN_AT, ZoneOffset.UTC));
+    }
+
+    private static ChangeDetector detector(ListingSnapshot... snapshots) {
+        Deque<ListingSnapshot> remaining = new ArrayDeque<>(List.of(snapshots));
+        return new ChangeDetector(null, files -> files) {
+            @Override
+            public ListingSnapshot snapshot() {
+                return remaining.pop();
+            }
+        };
+    }
+}
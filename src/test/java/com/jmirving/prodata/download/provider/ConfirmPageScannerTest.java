@@ -0,0 +1,118 @@
+package com.jmirving.prodata.download.provider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConfirmPageScannerTest {
+    @Test
+    void extractsDownloadFormWithHiddenInputs() throws IOException {
+        String html = "<html><body><p>Google Drive can't scan this file for viruses.</p>"
+                + "<form id=\"download-form\" action=\"https://drive.usercontent.google.com/download\" method=\"get\">"
+                + "<input type=\"submit\" value=\"Download anyway\"/>"
+                + "<input type=\"hidden\" name=\"id\" value=\"abc\">"
+                + "<input type=\"hidden\" name=\"confirm\" value=\"t\">"
+                + "<input type=\"hidden\" name=\"uuid\" value=\"u-1\">"
+                + "</form></body></html>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertEquals("https://drive.usercontent.google.com/download", result.form().action());
+        assertEquals(Map.of("id", "abc", "confirm", "t", "uuid", "u-1"), result.form().parameters());
+        assertNull(result.confirmToken());
+    }
+
+    @Test
+    void extractsFormWithUnquotedSpacingAndTokenCharacters() throws IOException {
+        String html = "<form action=\"/uc?export=download\"><input name=\"id\" value=\"1\"><input name=\"confirm\" value=\"x_Y-2\"></form>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertEquals("/uc?export=download", result.form().action());
+        assertEquals(Map.of("id", "1", "confirm", "x_Y-2"), result.form().parameters());
+    }
+
+    @Test
+    void prefersFormThatFollowsBareToken() throws IOException {
+        String html = "<a href=\"/uc?export=download&confirm=early&id=1\">download</a>"
+                + "<form action=\"https://drive.usercontent.google.com/download\">"
+                + "<input name=\"id\" value=\"1\"><input name=\"confirm\" value=\"t\"></form>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertEquals("https://drive.usercontent.google.com/download", result.form().action());
+        assertNull(result.confirmToken());
+    }
+
+    @Test
+    void extractsConfirmTokenFromInputOutsideForm() throws IOException {
+        assertEquals("t", scan("<input type=\"hidden\" name=\"confirm\" value=\"t\"/>").confirmToken());
+    }
+
+    @Test
+    void returnsNothingWithoutFormOrToken() throws IOException {
+        ConfirmPageScanner.Result result = scan("<html><body>no token here</body></html>");
+
+        assertNull(result.form());
+        assertNull(result.confirmToken());
+    }
+
+    @Test
+    void extractsConfirmTokenFromLink() throws IOException {
+        String html = "<a href=\"https://drive.google.com/uc?export=download&confirm=t-AB_12&id=123\">download</a>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertNull(result.form());
+        assertEquals("t-AB_12", result.confirmToken());
+    }
+
+    @Test
+    void extractsConfirmTokenSplitAcrossReadBuffers() throws IOException {
+        String html = "x".repeat(4093) + "confirm=token-1&id=2";
+
+        assertEquals("token-1", scan(html).confirmToken());
+    }
+
+    @Test
+    void ignoresFormWithoutInputs() throws IOException {
+        String html = "<form action=\"/search\"></form><a href=\"/uc?confirm=abc\">go</a>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertNull(result.form());
+        assertEquals("abc", result.confirmToken());
+    }
+
+    @Test
+    void stopsReadingAtByteCap() throws IOException {
+        String html = "<p>" + "x".repeat(1000) + "</p><a href=\"/uc?confirm=late\">go</a>";
+
+        ConfirmPageScanner.Result result = ConfirmPageScanner.scan(
+                new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), 512);
+
+        assertNull(result.form());
+        assertNull(result.confirmToken());
+    }
+
+    @Test
+    void toleratesQuotedAngleBracketsInAttributes() throws IOException {
+        String html = "<form action=\"/uc\" data-x=\"a>b\"><input name=\"id\" value=\"<1>\"></form>";
+
+        ConfirmPageScanner.Result result = scan(html);
+
+        assertEquals("/uc", result.form().action());
+        assertEquals(Map.of("id", "<1>"), result.form().parameters());
+    }
+
+    private static ConfirmPageScanner.Result scan(String html) throws IOException {
+        return ConfirmPageScanner.scan(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)),
+                GoogleDriveDownloadProvider.CONFIRM_PAGE_MAX_BYTES);
+    }
+}
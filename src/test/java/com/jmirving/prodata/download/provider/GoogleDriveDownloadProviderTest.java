@@ -1,63 +1,115 @@
 package com.jmirving.prodata.download.provider;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.net.http.HttpHeaders;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 class GoogleDriveDownloadProviderTest {
     @Test
-    void extractsConfirmTokenFromHtml() {
-        String html = "<a href=\"https://drive.google.com/uc?export=download&confirm=t-AB_12&id=123\">download</a>";
+    void extractsConfirmTokenFromCookies() {
+        List<String> cookies = List.of(
+                "download_warning_123=token-987; Path=/; Secure; HttpOnly",
+                "other_cookie=value; Path=/"
+        );
 
-        String token = GoogleDriveDownloadProvider.extractConfirmToken(html);
+        String token = GoogleDriveDownloadProvider.extractConfirmTokenFromCookies(cookies);
 
-        assertEquals("t-AB_12", token);
+        assertEquals("token-987", token);
     }
 
     @Test
-    void extractsConfirmTokenFromHtmlFormInput() {
-        String html = "<form action=\"/uc\"><input type=\"hidden\" name=\"confirm\" value=\"t\"/></form>";
+    void extractsValidatorsFromHeaders() {
+        HttpHeaders headers = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"abc\""),
+                "Last-Modified", List.of("Thu, 15 Jan 2026 06:00:00 GMT"),
+                "Content-Length", List.of("1024")
+        ), (name, value) -> true);
 
-        String token = GoogleDriveDownloadProvider.extractConfirmToken(html);
+        RemoteFileMetadata metadata = GoogleDriveDownloadProvider.extractMetadata(headers);
 
-        assertEquals("t", token);
+        assertEquals(new RemoteFileMetadata("\"abc\"", "Thu, 15 Jan 2026 06:00:00 GMT", 1024), metadata);
     }
 
     @Test
-    void extractsConfirmTokenFromCookies() {
-        List<String> cookies = List.of(
-                "download_warning_123=token-987; Path=/; Secure; HttpOnly",
-                "other_cookie=value; Path=/"
-        );
+    void plansSegmentsCoveringTheWholeFile() {
+        List<long[]> segments = GoogleDriveDownloadProvider.planSegments(25, 10);
 
-        String token = GoogleDriveDownloadProvider.extractConfirmTokenFromCookies(cookies);
-
-        assertEquals("token-987", token);
+        assertEquals(3, segments.size());
+        assertArrayEquals(new long[] {0, 10}, segments.get(0));
+        assertArrayEquals(new long[] {10, 10}, segments.get(1));
+        assertArrayEquals(new long[] {20, 5}, segments.get(2));
     }
 
     @Test
-    void extractsDownloadFormFields() {
-        String html = "<form action=\"https://drive.usercontent.google.com/download\" method=\"get\">" +
-                "<input type=\"hidden\" name=\"id\" value=\"file-id\"/>" +
-                "<input type=\"hidden\" name=\"confirm\" value=\"t\"/>" +
-                "</form>";
+    void detectsByteRangeSupport() {
+        HttpHeaders ranged = HttpHeaders.of(Map.of("Accept-Ranges", List.of("bytes")), (name, value) -> true);
+        HttpHeaders unranged = HttpHeaders.of(Map.of("Accept-Ranges", List.of("none")), (name, value) -> true);
 
-        GoogleDriveDownloadProvider.DownloadForm form = GoogleDriveDownloadProvider.extractDownloadForm(html);
-
-        assertEquals("https://drive.usercontent.google.com/download", form.action());
-        assertEquals("file-id", form.parameters().get("id"));
-        assertEquals("t", form.parameters().get("confirm"));
+        assertTrue(GoogleDriveDownloadProvider.acceptsByteRanges(ranged));
+        assertFalse(GoogleDriveDownloadProvider.acceptsByteRanges(unranged));
     }
 
     @Test
-    void returnsNullWhenNoConfirmTokenPresent() {
-        String html = "<html><body>no token here</body></html>";
+    void prefersStrongEtagForIfRange() {
+        HttpHeaders strong = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"abc\""),
+                "Last-Modified", List.of("Thu, 15 Jan 2026 06:00:00 GMT")
+        ), (name, value) -> true);
+        HttpHeaders weak = HttpHeaders.of(Map.of(
+                "ETag", List.of("W/\"abc\""),
+                "Last-Modified", List.of("Thu, 15 Jan 2026 06:00:00 GMT")
+        ), (name, value) -> true);
+
+        assertEquals("\"abc\"", GoogleDriveDownloadProvider.ifRangeValidator(strong));
+        assertEquals("Thu, 15 Jan 2026 06:00:00 GMT", GoogleDriveDownloadProvider.ifRangeValidator(weak));
+        assertNull(GoogleDriveDownloadProvider.ifRangeValidator(HttpHeaders.of(Map.of(), (name, value) -> true)));
+    }
 
-        String token = GoogleDriveDownloadProvider.extractConfirmToken(html);
+    @Test
+    void acceptsRangeOnlyFromTheVersionNamedInIfRange() {
+        HttpHeaders response = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"v1\""),
+                "Last-Modified", List.of("Thu, 15 Jan 2026 06:00:00 GMT")
+        ), (name, value) -> true);
+
+        assertTrue(GoogleDriveDownloadProvider.hasValidator(response, "\"v1\""));
+        assertTrue(GoogleDriveDownloadProvider.hasValidator(response, "Thu, 15 Jan 2026 06:00:00 GMT"));
+        assertFalse(GoogleDriveDownloadProvider.hasValidator(response, "\"v2\""));
+        assertFalse(GoogleDriveDownloadProvider.hasValidator(HttpHeaders.of(Map.of(), (name, value) -> true),
+                "\"v1\""));
+    }
 
-        assertNull(token);
+    @Test
+    void rejectsSegmentsFromAnotherVersionOfTheFile() {
+        HttpHeaders first = HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (name, value) -> true);
+        HttpHeaders same = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"v1\""),
+                "Content-Range", List.of("bytes 10-19/25")
+        ), (name, value) -> true);
+        HttpHeaders otherEtag = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"v2\""),
+                "Content-Range", List.of("bytes 10-19/25")
+        ), (name, value) -> true);
+        HttpHeaders otherLength = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"v1\""),
+                "Content-Range", List.of("bytes 10-19/30")
+        ), (name, value) -> true);
+        HttpHeaders unknownLength = HttpHeaders.of(Map.of(
+                "ETag", List.of("\"v1\""),
+                "Content-Range", List.of("bytes 10-19/*")
+        ), (name, value) -> true);
+
+        assertTrue(GoogleDriveDownloadProvider.sameRepresentation(first, same, 25));
+        assertFalse(GoogleDriveDownloadProvider.sameRepresentation(first, otherEtag, 25));
+        assertFalse(GoogleDriveDownloadProvider.sameRepresentation(first, otherLength, 25));
+        assertFalse(GoogleDriveDownloadProvider.sameRepresentation(first, unknownLength, 25));
     }
 }
@@ -2,6 +2,11 @@ package com.jmirving.prodata.download.provider;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,4 +31,37 @@ class GoogleDriveFolderParserTest {
         );
         assertEquals(expected, new HashSet<>(files));
     }
+
+    @Test
+    void parsesRawQuotesAndSplitEntitiesFromStream() throws IOException {
+        String html = "<script>var x = 'a &amp;&amp; b &lt; c';</script>"
+                + "[[null,\"abcdef\"],null,null,null,&quot;text/csv&quot;,[&quot;2019_LoL_esports_match_data_from_OraclesElixir.csv&quot;]]";
+        List<RemoteFile> seen = new ArrayList<>();
+
+        GoogleDriveFolderParser.parse(new StringReader(html), seen::add);
+
+        assertEquals(List.of(new RemoteFile("abcdef", "2019_LoL_esports_match_data_from_OraclesElixir.csv")), seen);
+    }
+
+    @Test
+    void skipsNonCsvEntriesAndShortIds() {
+        String html = "[[null,&quot;abc&quot;],null,null,null,&quot;text/csv&quot;,&quot;2020_LoL_esports_match_data_from_OraclesElixir.csv&quot;"
+                + "[[null,&quot;folder01&quot;],null,null,null,&quot;application/vnd.google-apps.folder&quot;,&quot;README.csv&quot;"
+                + "[[[null,&quot;file2021&quot;],null,null,null,&quot;text/csv&quot;,&quot;notes.csv&quot;,"
+                + "&quot;2021_LoL_esports_match_data_from_OraclesElixir.csv&quot;";
+
+        List<RemoteFile> files = GoogleDriveFolderParser.parse(html);
+
+        assertEquals(List.of(new RemoteFile("file2021", "2021_LoL_esports_match_data_from_OraclesElixir.csv")), files);
+    }
+
+    @Test
+    void parsesUtf8InputStream() throws IOException {
+        String html = "<title>Données</title>[[null,&quot;fileId2024&quot;],null,null,null,&quot;text/csv&quot;"
+                + ",&quot;2024_LoL_esports_match_data_from_OraclesElixir.csv&quot;";
+
+        List<RemoteFile> files = GoogleDriveFolderParser.parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of(new RemoteFile("fileId2024", "2024_LoL_esports_match_data_from_OraclesElixir.csv")), files);
+    }
 }
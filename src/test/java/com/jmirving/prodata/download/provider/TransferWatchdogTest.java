@@ -0,0 +1,62 @@
+package com.jmirving.prodata.download.provider;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class TransferWatchdogTest {
+    @Test
+    @Timeout(10)
+    void abortsStreamThatStaysBelowThroughputFloor() throws IOException {
+        PipedOutputStream source = new PipedOutputStream();
+        try (TransferWatchdog watchdog = new TransferWatchdog(1024, Duration.ofMillis(200), Clock.systemUTC());
+             InputStream guarded = watchdog.guard(new PipedInputStream(source))) {
+            source.write(1);
+
+            assertThrows(TransferAbortedException.class, () -> {
+                while (guarded.read() != -1) {
+                    // Keep reading until the stalled pipe is aborted.
+                }
+            });
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    @Timeout(10)
+    void abortsStreamPastItsDeadline() throws IOException {
+        PipedOutputStream source = new PipedOutputStream();
+        TransferWatchdog.DeadlineScope scope = TransferWatchdog.withDeadline(Instant.now().plusMillis(200));
+        try (TransferWatchdog watchdog = new TransferWatchdog(0, Duration.ofMillis(100), Clock.systemUTC());
+             InputStream guarded = watchdog.guard(new PipedInputStream(source))) {
+            assertThrows(TransferAbortedException.class, guarded::read);
+        } finally {
+            scope.close();
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertNull(TransferWatchdog.currentDeadline());
+    }
+
+    @Test
+    void passesHealthyStreamThrough() throws IOException {
+        byte[] data = "gameid,league\n1,LCK\n".getBytes();
+
+        try (TransferWatchdog watchdog = new TransferWatchdog(1, Duration.ofMillis(100), Clock.systemUTC());
+             InputStream guarded = watchdog.guard(new ByteArrayInputStream(data))) {
+            assertArrayEquals(data, guarded.readAllBytes());
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.jmirving.prodata.download.publish;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -32,4 +34,140 @@ class AtomicFilePublisherTest {
         assertFalse(Files.exists(tempFile));
         assertEquals("data", Files.readString(destination));
     }
+
+    @Test
+    void publishesLinkToStoredObject() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        String sha256 = "cd" + "1".repeat(62);
+        Path first = tempDir.resolve("first.download");
+        Path second = tempDir.resolve("second.download");
+        Files.writeString(first, "data");
+        Files.writeString(second, "data");
+
+        AtomicFilePublisher publisher = new AtomicFilePublisher();
+        publisher.publish(first, tempDir.resolve("out/2025.csv"), store, sha256);
+        publisher.publish(second, tempDir.resolve("out/2026.csv"), store, sha256);
+
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.isSameFile(store.objectPath(sha256), tempDir.resolve("out/2025.csv")));
+        assertTrue(Files.isSameFile(store.objectPath(sha256), tempDir.resolve("out/2026.csv")));
+    }
+
+    @Test
+    void republishingStoredContentLeavesNoTempLink() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        String sha256 = "cd" + "1".repeat(62);
+        Path destination = tempDir.resolve("out/2026.csv");
+        AtomicFilePublisher publisher = new AtomicFilePublisher();
+        for (int run = 0; run < 2; run++) {
+            Path tempFile = tempDir.resolve("run" + run + ".download");
+            Files.writeString(tempFile, "data");
+            publisher.publish(tempFile, destination, store, sha256);
+            assertFalse(Files.exists(tempFile));
+        }
+
+        assertEquals(2, Files.getAttribute(destination, "unix:nlink"));
+    }
+
+    @Test
+    void publishesUnderEveryDurabilityPolicy() throws IOException {
+        for (DurabilityPolicy policy : DurabilityPolicy.values()) {
+            Path tempFile = tempDir.resolve(policy + ".download");
+            Files.writeString(tempFile, policy.name());
+            Path destination = tempDir.resolve("out").resolve(policy + ".csv");
+
+            new AtomicFilePublisher(policy).publish(tempFile, destination);
+
+            assertFalse(Files.exists(tempFile));
+            assertEquals(policy.name(), Files.readString(destination));
+        }
+    }
+
+    @Test
+    void groupSyncsEachDirectoryOnceWhenItCloses() throws IOException {
+        AtomicFilePublisher publisher = new AtomicFilePublisher(DurabilityPolicy.FILE_AND_DIRECTORY);
+        Path outputDir = tempDir.resolve("out");
+        PublishGroup group = publisher.openGroup();
+        for (String name : new String[] {"2026.csv", "2026.csv.manifest.json", "2026.csv.gameindex"}) {
+            Path tempFile = tempDir.resolve(name + ".download");
+            Files.writeString(tempFile, name);
+            publisher.publish(tempFile, outputDir.resolve(name), group);
+        }
+
+        assertEquals(Set.of(outputDir), group.pendingDirectories());
+        group.close();
+        assertTrue(group.pendingDirectories().isEmpty());
+    }
+
+    @Test
+    void groupSkipsDirectorySyncsBelowFileAndDirectoryPolicy() throws IOException {
+        AtomicFilePublisher publisher = new AtomicFilePublisher(DurabilityPolicy.FILE);
+        Path tempFile = tempDir.resolve("temp.download");
+        Files.writeString(tempFile, "data");
+
+        try (PublishGroup group = publisher.openGroup()) {
+            publisher.publish(tempFile, tempDir.resolve("out/2026.csv"), group);
+            assertTrue(group.pendingDirectories().isEmpty());
+        }
+    }
+
+    @Test
+    void storedObjectDirectoriesJoinTheGroupsDirectorySyncs() throws IOException {
+        AtomicFilePublisher publisher = new AtomicFilePublisher(DurabilityPolicy.FILE_AND_DIRECTORY);
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        String sha256 = "cd" + "1".repeat(62);
+        Path tempFile = tempDir.resolve("temp.download");
+        Files.writeString(tempFile, "data");
+
+        try (PublishGroup group = publisher.openGroup()) {
+            publisher.publish(tempFile, tempDir.resolve("out/2026.csv"), store, sha256, group);
+
+            assertEquals(Set.of(tempDir.resolve("out"), tempDir.resolve("objects/cd"), tempDir.resolve("objects")),
+                    group.pendingDirectories());
+        }
+    }
+
+    @Test
+    void replacesFileWithoutLeavingTempFile() throws IOException {
+        Path state = tempDir.resolve("state/.poll.json");
+
+        AtomicFilePublisher.replace(state, path -> Files.writeString(path, "first"));
+        AtomicFilePublisher.replace(state, path -> Files.writeString(path, "second"));
+
+        assertEquals("second", Files.readString(state));
+        assertEquals(1, Files.list(state.getParent()).count());
+    }
+
+    @Test
+    void failedReplaceKeepsPreviousFile() throws IOException {
+        Path state = tempDir.resolve(".status.json");
+        Files.writeString(state, "previous");
+
+        assertThrows(IOException.class, () -> AtomicFilePublisher.replace(state, path -> {
+            Files.writeString(path, "partial");
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("previous", Files.readString(state));
+        assertEquals(1, Files.list(tempDir).count());
+    }
+
+    @Test
+    void linkRenameJoinsTheGroupsDirectorySyncs() throws IOException {
+        AtomicFilePublisher publisher = new AtomicFilePublisher(DurabilityPolicy.FILE_AND_DIRECTORY);
+        Path partitions = tempDir.resolve("partitions");
+        Path staged = partitions.resolve(".2026-staged");
+        Files.createDirectories(staged.resolve("LCK"));
+        Files.writeString(staged.resolve("LCK/2026-01.csv"), "league,date\n");
+        Path newLink = Files.createSymbolicLink(partitions.resolve(".2026.link"), staged.getFileName());
+
+        try (PublishGroup group = publisher.openGroup()) {
+            publisher.syncTree(staged);
+            publisher.publishLink(newLink, partitions.resolve("2026"), group);
+
+            assertEquals(Set.of(partitions), group.pendingDirectories());
+        }
+        assertEquals("league,date\n", Files.readString(partitions.resolve("2026/LCK/2026-01.csv")));
+    }
 }
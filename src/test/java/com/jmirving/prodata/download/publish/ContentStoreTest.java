@@ -0,0 +1,125 @@
+package com.jmirving.prodata.download.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentStoreTest {
+    private static final String SHA = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void storesNewContentAndLinksDuplicatesToIt() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        Path first = write("first.download", "rows");
+        Path second = write("second.download", "rows");
+
+        Path object = store.adopt(first, SHA);
+        assertEquals(object, store.adopt(second, SHA));
+
+        assertEquals(tempDir.resolve("objects/ab/" + SHA), object);
+        assertTrue(Files.isSameFile(object, first));
+        assertTrue(Files.isSameFile(object, second));
+        assertEquals(3, Files.getAttribute(object, "unix:nlink"));
+        assertEquals(1, countEntries(object.getParent()));
+    }
+
+    @Test
+    void rejectsStoredObjectOfDifferentSize() throws IOException {
+        ContentStore store = new ContentStore(tempDir.resolve("objects"));
+        store.adopt(write("first.download", "rows"), SHA);
+
+        assertThrows(IOException.class, () -> store.adopt(write("second.download", "other rows"), SHA));
+    }
+
+    @Test
+    void collectsObjectsOnlyAfterTheyStayUnreferencedForTheRetention() throws IOException {
+        Path root = tempDir.resolve("objects");
+        Instant start = Instant.parse("2026-01-15T00:00:00Z");
+        Path published = write("published.csv", "rows");
+        new ContentStore(root, Clock.fixed(start, ZoneOffset.UTC)).adopt(published, SHA);
+        Path object = root.resolve("ab/" + SHA);
+        Path marker = root.resolve("ab/" + SHA + ContentStore.UNREFERENCED_SUFFIX);
+
+        StoreCollection referenced = collect(root, start, Duration.ofDays(7));
+        Files.delete(published);
+        StoreCollection marked = collect(root, start.plus(Duration.ofDays(1)), Duration.ofDays(7));
+        StoreCollection retained = collect(root, start.plus(Duration.ofDays(7)), Duration.ofDays(7));
+
+        assertEquals(new StoreCollection(1, 0, 0, 0), referenced);
+        assertEquals(new StoreCollection(0, 1, 0, 0), marked);
+        assertEquals(new StoreCollection(0, 1, 0, 0), retained);
+        assertTrue(Files.exists(marker));
+
+        StoreCollection deleted = collect(root, start.plus(Duration.ofDays(8)), Duration.ofDays(7));
+
+        assertEquals(new StoreCollection(0, 0, 1, 4), deleted);
+        assertFalse(Files.exists(object));
+        assertFalse(Files.exists(marker));
+    }
+
+    @Test
+    void relinkingClearsTheUnreferencedMark() throws IOException {
+        Path root = tempDir.resolve("objects");
+        Instant start = Instant.parse("2026-01-15T00:00:00Z");
+        Path published = write("published.csv", "rows");
+        new ContentStore(root).adopt(published, SHA);
+        Files.delete(published);
+        collect(root, start, Duration.ofDays(7));
+
+        new ContentStore(root).adopt(write("again.download", "rows"), SHA);
+        StoreCollection collection = collect(root, start.plus(Duration.ofDays(30)), Duration.ofDays(7));
+
+        assertEquals(new StoreCollection(1, 0, 0, 0), collection);
+        assertFalse(Files.exists(root.resolve("ab/" + SHA + ContentStore.UNREFERENCED_SUFFIX)));
+    }
+
+    @Test
+    void deletesStaleTempLinks() throws IOException {
+        Path root = tempDir.resolve("objects");
+        Path stale = Files.createDirectories(root.resolve("ab")).resolve(SHA + "-pending.tmp");
+        Files.writeString(stale, "rows");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.parse("2026-01-01T00:00:00Z")));
+
+        collect(root, Instant.parse("2026-01-15T00:00:00Z"), Duration.ofDays(7));
+
+        assertFalse(Files.exists(stale));
+    }
+
+    @Test
+    void emptyStoreHasNothingToCollect() throws IOException {
+        assertEquals(new StoreCollection(0, 0, 0, 0),
+                new ContentStore(tempDir.resolve("missing")).collectGarbage(Duration.ZERO));
+    }
+
+    private StoreCollection collect(Path root, Instant now, Duration retention) throws IOException {
+        return new ContentStore(root, Clock.fixed(now, ZoneOffset.UTC)).collectGarbage(retention);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private static long countEntries(Path directory) throws IOException {
+        try (var entries = Files.list(directory)) {
+            return entries.count();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.jmirving.prodata.download.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileChecksumsTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void treeHashCombinesChunkDigestsInOrder() throws Exception {
+        byte[] data = new byte[10_000];
+        new Random(11).nextBytes(data);
+        Path path = tempDir.resolve("data.bin");
+        Files.write(path, data);
+
+        MessageDigest root = MessageDigest.getInstance("SHA-256");
+        root.update((byte) 0x01);
+        for (int start = 0; start < data.length; start += 4096) {
+            MessageDigest leaf = MessageDigest.getInstance("SHA-256");
+            leaf.update((byte) 0x00);
+            leaf.update(data, start, Math.min(4096, data.length - start));
+            root.update(leaf.digest());
+        }
+        String expected = HexFormat.of().formatHex(root.digest());
+
+        assertEquals(expected, FileChecksums.sha256Tree(path, 4096, 1));
+        assertEquals(expected, FileChecksums.sha256Tree(path, 4096, 4));
+        assertNotEquals(expected, FileChecksums.sha256Tree(path, 2048, 4));
+    }
+}
@@ -0,0 +1,105 @@
+package com.jmirving.prodata.download.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameIndexWriterTest {
+    @TempDir
+    Path tempDir;
+
+    private final GameIndexWriter writer = new GameIndexWriter();
+
+    @Test
+    void indexesByteRangesOfEachGame() throws IOException {
+        Path csv = write("""
+                league,gameid,note
+                LCK,G1,a
+                LCK,G1,"b
+                c"
+                LEC,"G2",d
+                LCK,G1,e
+                """);
+
+        GameIndex index = writer.build(csv);
+
+        assertEquals(FileChecksums.sha256(csv), index.csvSha256());
+        assertEquals(List.of(
+                new GameIndexEntry("G1", 19, 22, 1, 2),
+                new GameIndexEntry("G1", 52, 9, 4, 1),
+                new GameIndexEntry("G2", 41, 11, 3, 1)
+        ), index.entries());
+        assertEquals("LEC,\"G2\",d\n", new String(
+                GameIndex.readRows(csv, index.find("G2").get(0)), StandardCharsets.UTF_8));
+        assertEquals(2, index.find("G1").size());
+        assertTrue(index.find("G3").isEmpty());
+    }
+
+    @Test
+    void roundTripsThroughSidecarFile() throws IOException {
+        StringBuilder content = new StringBuilder("gameid,participantid\n");
+        for (int game = 0; game < 500; game++) {
+            for (int participant = 1; participant <= 12; participant++) {
+                content.append("ESPORTSTMNT01_").append(game).append(',').append(participant).append('\n');
+            }
+        }
+        Path csv = Files.writeString(tempDir.resolve("2026.csv"), content.toString());
+        Path indexPath = GameIndexWriter.indexPath(csv);
+
+        GameIndex built = writer.build(csv);
+        writer.write(built, indexPath);
+        GameIndex read = GameIndex.read(indexPath);
+
+        assertEquals(built.entries(), read.entries());
+        assertEquals(built.csvSha256(), read.csvSha256());
+        assertEquals(csv.resolveSibling("2026.csv.gameindex"), indexPath);
+        GameIndexEntry entry = read.find("ESPORTSTMNT01_250").get(0);
+        assertEquals(250 * 12 + 1, entry.firstRow());
+        assertEquals(12, entry.rowCount());
+        assertTrue(new String(GameIndex.readRows(csv, entry), StandardCharsets.UTF_8)
+                .startsWith("ESPORTSTMNT01_250,1\n"));
+        assertTrue(GameIndex.mightContain(indexPath, "ESPORTSTMNT01_499"));
+        int falsePositives = 0;
+        for (int game = 0; game < 1000; game++) {
+            if (GameIndex.mightContain(indexPath, "OTHER_" + game)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+        assertFalse(Files.exists(indexPath.resolveSibling(indexPath.getFileName() + ".tmp")));
+    }
+
+    @Test
+    void detectsSameLengthEditsThroughTheCsvDigest() throws IOException {
+        Path csv = write("gameid,note\nG1,a\n");
+        GameIndex index = writer.build(csv);
+        DownloadManifest built = new ManifestWriter().buildManifest(csv, null);
+
+        Files.writeString(csv, "gameid,note\nG2,a\n");
+        DownloadManifest edited = new ManifestWriter().buildManifest(csv, null);
+
+        assertTrue(index.matches(built));
+        assertFalse(index.matches(edited));
+    }
+
+    @Test
+    void rejectsCsvWithoutGameIdColumn() throws IOException {
+        Path csv = write("league,participantid\nLCK,1\n");
+
+        assertThrows(IOException.class, () -> writer.build(csv));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("data.csv"), content);
+    }
+}
@@ -2,8 +2,12 @@ package com.jmirving.prodata.download.publish;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -11,8 +15,13 @@ import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jmirving.prodata.download.ingest.IngestResult;
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+import com.jmirving.prodata.download.provider.RemoteFileMetadata;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -42,6 +51,130 @@ class ManifestWriterTest {
         assertEquals(manifest, persisted);
     }
 
+    @Test
+    void buildsSameManifestFromStreamingIngest() throws IOException {
+        Path csv = tempDir.resolve("streamed.csv");
+        String content = "a,b\r\n1,2\r\n3,4";
+        IngestResult ingest = StreamingIngest.copy(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                csv
+        );
+
+        ManifestWriter writer = new ManifestWriter(new ObjectMapper().findAndRegisterModules(),
+                Clock.fixed(Instant.parse("2026-01-08T12:00:00Z"), ZoneOffset.UTC));
+
+        DownloadManifest fromDisk = writer.buildManifest(csv, "stub://csv");
+        DownloadManifest fromStream = writer.buildManifest(ingest, csv, "stub://csv", null);
+
+        assertEquals(fromDisk.rowCount(), fromStream.rowCount());
+        assertEquals(fromDisk.sha256(), fromStream.sha256());
+        assertEquals(fromDisk.byteCount(), fromStream.byteCount());
+    }
+
+    @Test
+    void readsPreviousManifestAndIgnoresMissingOnes() throws IOException {
+        Path csv = tempDir.resolve("read.csv");
+        Files.writeString(csv, "a,b\n1,2\n");
+        Path manifestPath = tempDir.resolve("read.csv.manifest.json");
+        ManifestWriter writer = new ManifestWriter(new ObjectMapper().findAndRegisterModules(),
+                Clock.fixed(Instant.parse("2026-01-08T12:00:00Z"), ZoneOffset.UTC));
+        IngestResult ingest = StreamingIngest.copy(Files.newInputStream(csv), tempDir.resolve("copy.csv"));
+
+        DownloadManifest written = writer.write(ingest, tempDir.resolve("copy.csv"), manifestPath, "stub://csv",
+                new RemoteFileMetadata("\"v1\"", "Thu, 08 Jan 2026 10:00:00 GMT", 8));
+
+        assertEquals(Optional.of(written), writer.read(manifestPath));
+        assertEquals("\"v1\"", written.etag());
+        assertEquals(8, written.byteCount());
+        assertEquals(Optional.empty(), writer.read(tempDir.resolve("missing.manifest.json")));
+    }
+
+    @Test
+    void recordsConfiguredChecksumAlgorithm() throws IOException, NoSuchAlgorithmException {
+        Path csv = tempDir.resolve("checksum.csv");
+        Files.writeString(csv, "a,b\n1,2\n3,4\n");
+        IngestResult ingest = StreamingIngest.scan(csv);
+        Clock clock = Clock.fixed(Instant.parse("2026-01-08T12:00:00Z"), ZoneOffset.UTC);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        DownloadManifest plain = new ManifestWriter(objectMapper, clock).buildManifest(ingest, csv, "stub://csv", null);
+        DownloadManifest tree = new ManifestWriter(objectMapper, clock, ChecksumAlgorithm.SHA256_TREE, 4)
+                .buildManifest(ingest, csv, "stub://csv", null);
+        DownloadManifest xxhash = new ManifestWriter(objectMapper, clock, ChecksumAlgorithm.XXHASH64, 4)
+                .buildManifest(csv, "stub://csv");
+
+        assertEquals(ChecksumAlgorithm.SHA256, plain.checksumAlgorithm());
+        assertEquals(plain.sha256(), plain.checksum());
+        assertEquals(0, plain.checksumChunkSize());
+        assertEquals(ChecksumAlgorithm.SHA256_TREE, tree.checksumAlgorithm());
+        assertEquals(4, tree.checksumChunkSize());
+        assertEquals(FileChecksums.sha256Tree(csv, 4, 1), tree.checksum());
+        assertEquals(expectedSha256(csv), tree.sha256());
+        assertEquals(ChecksumAlgorithm.XXHASH64, xxhash.checksumAlgorithm());
+        assertEquals(FileChecksums.xxHash64(csv), xxhash.checksum());
+        assertEquals(expectedSha256(csv), xxhash.sha256());
+    }
+
+    @Test
+    void takesConfiguredChecksumFromTheIngestPass() throws IOException {
+        byte[] content = "a,b\n1,2\n3,4\n5,6\n".getBytes(StandardCharsets.UTF_8);
+        Path original = tempDir.resolve("original.csv");
+        Files.write(original, content);
+        Clock clock = Clock.fixed(Instant.parse("2026-01-08T12:00:00Z"), ZoneOffset.UTC);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        ManifestWriter treeWriter = new ManifestWriter(objectMapper, clock, ChecksumAlgorithm.SHA256_TREE, 5);
+        ManifestWriter xxhashWriter = new ManifestWriter(objectMapper, clock, ChecksumAlgorithm.XXHASH64, 5);
+
+        Path csv = tempDir.resolve("streamed.csv");
+        IngestResult treeIngest = StreamingIngest.copy(new ByteArrayInputStream(content), csv,
+                treeWriter.ingestChecksums());
+        IngestResult xxhashIngest = StreamingIngest.copy(new ByteArrayInputStream(content), csv,
+                xxhashWriter.ingestChecksums());
+        // A re-read would hash these bytes instead of the ingested ones.
+        Files.writeString(csv, "changed after ingest");
+
+        assertEquals(FileChecksums.sha256Tree(original, 5, 1),
+                treeWriter.buildManifest(treeIngest, csv, "stub://csv", null).checksum());
+        assertEquals(FileChecksums.xxHash64(original),
+                xxhashWriter.buildManifest(xxhashIngest, csv, "stub://csv", null).checksum());
+    }
+
+    @Test
+    void readsManifestWrittenBeforeChecksumFields() throws IOException {
+        Path manifestPath = tempDir.resolve("legacy.manifest.json");
+        Files.writeString(manifestPath, "{\"generatedAt\":\"2026-01-08T12:00:00Z\",\"rowCount\":2,"
+                + "\"sha256\":\"abc\",\"sourceUrl\":\"stub://csv\",\"byteCount\":12}");
+
+        DownloadManifest manifest = new ManifestWriter().read(manifestPath).orElseThrow();
+
+        assertEquals("abc", manifest.sha256());
+        assertNull(manifest.checksumAlgorithm());
+        assertNull(manifest.checksum());
+    }
+
+    @Test
+    void listsRowChunksWhenEnabled() throws IOException {
+        Path csv = tempDir.resolve("chunks.csv");
+        StringBuilder content = new StringBuilder("gameid,kills\n");
+        for (int row = 0; row < 2000; row++) {
+            content.append("G").append(row).append(',').append(row % 17).append('\n');
+        }
+        Files.writeString(csv, content);
+        ManifestWriter writer = new ManifestWriter(new ObjectMapper().findAndRegisterModules(),
+                Clock.fixed(Instant.parse("2026-01-08T12:00:00Z"), ZoneOffset.UTC), ChecksumAlgorithm.SHA256,
+                ManifestWriter.DEFAULT_CHECKSUM_CHUNK_SIZE, 2048);
+        Path manifestPath = tempDir.resolve("chunks.csv.manifest.json");
+
+        DownloadManifest manifest = writer.write(csv, manifestPath, "stub://csv");
+
+        assertTrue(manifest.chunks().size() > 1);
+        assertEquals(manifest.rowCount(), manifest.chunks().stream().mapToLong(ManifestChunk::rowCount).sum());
+        assertNotNull(manifest.merkleRoot());
+        assertEquals(Optional.of(manifest), writer.read(manifestPath));
+        assertEquals(List.of(), ManifestWriter.changedChunks(manifest, manifest));
+        assertNull(new ManifestWriter().buildManifest(csv, "stub://csv").chunks());
+    }
+
     private String expectedSha256(Path path) throws IOException, NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
         byte[] bytes = Files.readAllBytes(path);
@@ -0,0 +1,113 @@
+package com.jmirving.prodata.download.publish;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import com.jmirving.prodata.download.ingest.StreamingIngest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RowChunkHasherTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void chunksCoverFileOnRowBoundariesWithMatchingRowCount() throws Exception {
+        String csv = randomCsv(new Random(3), 3000, -1);
+        Path path = write("rows.csv", csv);
+        byte[] bytes = Files.readAllBytes(path);
+
+        RowChunkHasher.Result result = RowChunkHasher.hash(path, 4096);
+
+        assertTrue(result.chunks().size() > 5, "expected several chunks, got " + result.chunks().size());
+        long offset = 0;
+        long rows = 0;
+        for (ManifestChunk chunk : result.chunks()) {
+            assertEquals(offset, chunk.offset());
+            byte last = bytes[(int) (chunk.offset() + chunk.length() - 1)];
+            assertTrue(last == '\n' || chunk.offset() + chunk.length() == bytes.length);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes, (int) chunk.offset(), (int) chunk.length());
+            assertEquals(HexFormat.of().formatHex(digest.digest()), chunk.sha256());
+            offset += chunk.length();
+            rows += chunk.rowCount();
+        }
+        assertEquals(bytes.length, offset);
+        assertEquals(StreamingIngest.scan(path).rowCount(), rows);
+    }
+
+    @Test
+    void correctedRowOnlyChangesItsOwnChunk() throws IOException {
+        Path before = write("before.csv", randomCsv(new Random(5), 3000, -1));
+        Path after = write("after.csv", randomCsv(new Random(5), 3000, 1500));
+
+        RowChunkHasher.Result previous = RowChunkHasher.hash(before, 4096);
+        RowChunkHasher.Result current = RowChunkHasher.hash(after, 4096);
+        List<ManifestChunk> changed = RowChunkHasher.changedChunks(previous.chunks(), current.chunks());
+
+        assertEquals(1, changed.size());
+        assertNotEquals(previous.merkleRoot(), current.merkleRoot());
+        assertEquals(current.chunks(), RowChunkHasher.changedChunks(null, current.chunks()));
+    }
+
+    @Test
+    void countsRowsWithQuotedLineBreaksAndMissingTrailingNewline() throws IOException {
+        Path path = write("quoted.csv", "a,b\r\n1,\"x\ny\"\r\n2,3");
+
+        RowChunkHasher.Result result = RowChunkHasher.hash(path, 1024);
+
+        assertEquals(1, result.chunks().size());
+        assertEquals(2, result.chunks().get(0).rowCount());
+        assertEquals(result.chunks().get(0).sha256(), result.merkleRoot());
+    }
+
+    @Test
+    void foldsChunkHashesIntoMerkleRoot() throws Exception {
+        List<ManifestChunk> chunks = List.of(
+                new ManifestChunk(0, 1, 0, sha256("a")),
+                new ManifestChunk(1, 1, 1, sha256("b")),
+                new ManifestChunk(2, 1, 1, sha256("c"))
+        );
+        MessageDigest node = MessageDigest.getInstance("SHA-256");
+        node.update((byte) 0x01);
+        node.update(HexFormat.of().parseHex(sha256("a")));
+        node.update(HexFormat.of().parseHex(sha256("b")));
+        byte[] left = node.digest();
+        node.update((byte) 0x01);
+        node.update(left);
+        node.update(HexFormat.of().parseHex(sha256("c")));
+
+        assertEquals(HexFormat.of().formatHex(node.digest()), RowChunkHasher.merkleRoot(chunks));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String randomCsv(Random random, int rows, int correctedRow) {
+        StringBuilder csv = new StringBuilder("gameid,participantid,kills,note\n");
+        for (int row = 0; row < rows; row++) {
+            int kills = random.nextInt(20);
+            csv.append("G").append(row / 12).append(',').append(row % 12).append(',')
+                    .append(row == correctedRow ? kills + 1 : kills).append(',')
+                    .append(random.nextInt(10) == 0 ? "\"multi\nline\"" : "n" + random.nextInt(1000)).append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.jmirving.prodata.download.validate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvBodyValidatorTest {
+    private static final String HEADER = "gameid,year,date,game,participantid,side,note";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void countsValidRows() throws IOException {
+        Path csv = write("valid.csv", "\uFEFF" + HEADER + "\r\n"
+                + "g1,2026,2026-01-15 06:18:33,1,100,Blue,plain\r\n"
+                + "g1,2026,2026-01-15,,200,red,\"quoted, with comma\"\n"
+                + "g2,2024,2024-02-29 23:59:59,2,1,Red,\"spans\nlines\"");
+
+        assertEquals(3, new CsvBodyValidator(1).validate(csv));
+    }
+
+    @Test
+    void headerOnlyFileHasNoRows() throws IOException {
+        Path csv = write("header-only.csv", HEADER + "\n");
+
+        assertEquals(0, new CsvBodyValidator().validate(csv));
+    }
+
+    @Test
+    void reportsEachKindOfInvalidRow() throws IOException {
+        Path csv = write("invalid.csv", HEADER + "\n"
+                + "g1,2026,2026-01-15,1,100,Blue,ok\n"
+                + "g1,2026,2026-01-15,1,100,Blue\n"
+                + "g1,20x6,2026-01-15,1,100,Blue,ok\n"
+                + "g1,2026,2026-01-15,1.5,100,Blue,ok\n"
+                + "g1,2026,2026-01-15,1,,Blue,ok\n"
+                + "g1,2026,2026-02-30,1,100,Blue,ok\n"
+                + "g1,2026,2026-01-15,1,100,Green,ok\n"
+                + "g1,2026,2026-01-15,1,100,Blue,ok,extra\n");
+
+        CsvValidationException error = assertThrows(CsvValidationException.class,
+                () -> new CsvBodyValidator(1).validate(csv));
+
+        String message = error.getMessage();
+        assertTrue(message.startsWith("CSV body has 7 invalid of 8 rows: "), message);
+        assertTrue(message.contains("row 2: expected 7 columns but found 6"), message);
+        assertTrue(message.contains("row 3: year '20x6' is not an integer"), message);
+        assertTrue(message.contains("row 4: game '1.5' is not an integer"), message);
+        assertTrue(message.contains("row 5: participantid '' is not an integer"), message);
+        assertTrue(message.contains("row 6: date '2026-02-30' is not yyyy-MM-dd or yyyy-MM-dd HH:mm:ss"), message);
+        assertTrue(message.contains("row 7: side 'Green' is not Blue or Red"), message);
+        assertTrue(message.contains("row 8: expected 7 columns but found more"), message);
+    }
+
+    @Test
+    void chunkBoundariesDoNotChangeTheResult() throws IOException {
+        StringBuilder body = new StringBuilder(HEADER).append("\r\n");
+        for (int row = 1; row <= 40; row++) {
+            String side = row % 13 == 0 ? "Purple" : row % 2 == 0 ? "Blue" : "Red";
+            String note = switch (row % 4) {
+                case 0 -> "\"line\r\nbreak, \"\"quoted\"\"\"";
+                case 1 -> "\"\"";
+                case 2 -> "\"a\nb\rc\"";
+                default -> "plain";
+            };
+            body.append("g").append(row).append(",2026,2026-03-0").append(row % 9 + 1).append(",")
+                    .append(row % 5).append(",").append(row).append(",").append(side).append(",").append(note)
+                    .append(row % 3 == 0 ? "\r\n" : row % 3 == 1 ? "\n" : "\r");
+        }
+        Path csv = write("chunks.csv", body.toString());
+
+        String expected = assertThrows(CsvValidationException.class,
+                () -> new CsvBodyValidator(1, 1 << 20).validate(csv)).getMessage();
+        assertTrue(expected.startsWith("CSV body has 3 invalid of 40 rows: "), expected);
+        assertTrue(expected.contains("row 13: side 'Purple'"), expected);
+        assertTrue(expected.contains("row 39: side 'Purple'"), expected);
+        for (long chunkBytes = 1; chunkBytes <= 64; chunkBytes++) {
+            long size = chunkBytes;
+            String message = assertThrows(CsvValidationException.class,
+                    () -> new CsvBodyValidator(3, size).validate(csv)).getMessage();
+            assertEquals(expected, message, "chunk size " + chunkBytes);
+        }
+    }
+
+    @Test
+    void failsWhenFileIsMissing() {
+        assertThrows(CsvValidationException.class,
+                () -> new CsvBodyValidator().validate(tempDir.resolve("missing.csv")));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path csv = tempDir.resolve(name);
+        Files.writeString(csv, content);
+        return csv;
+    }
+}
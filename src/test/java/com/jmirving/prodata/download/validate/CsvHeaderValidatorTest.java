@@ -43,4 +43,11 @@ class CsvHeaderValidatorTest {
 
         assertDoesNotThrow(() -> validator.validate(csv));
     }
+
+    @Test
+    void failsWhenStreamedHeaderIsMissing() {
+        CsvHeaderValidator validator = new CsvHeaderValidator();
+
+        assertThrows(CsvValidationException.class, () -> validator.validateHeader(null));
+    }
 }